@@ -4,6 +4,8 @@ import java.util.ArrayList;
 
 public class BranchOrigin extends WrappingOrigin {
 
+  private static final long serialVersionUID = 1L;
+
   public final String branch;
   public final Origin base;
   
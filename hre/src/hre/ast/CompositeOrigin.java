@@ -11,6 +11,8 @@ import java.util.Arrays;
  */
 public class CompositeOrigin extends Origin {
 
+  private static final long serialVersionUID = 1L;
+
     private Origin origins[];
     public CompositeOrigin(Origin ... origins){
         this.origins=Arrays.copyOf(origins,origins.length);
@@ -13,6 +13,8 @@ import java.util.Hashtable;
  */
 public class FileOrigin extends Origin {
 
+  private static final long serialVersionUID = 1L;
+
   public int linesBefore=2;
   public int linesAfter=2;
   
@@ -39,8 +41,21 @@ public class FileOrigin extends Origin {
     }
   }
   
+  /**
+   * Register the contents of a file for printing the context of messages.
+   * Files may be registered concurrently.
+   */
   public static void add(String file,boolean gui){
-    data.put(file,new FileContext(file,gui));
+    FileContext fc;
+    if (gui){
+      // the graphical contexts are created one at a time.
+      synchronized(FileOrigin.class){
+        fc=new FileContext(file,gui);
+      }
+    } else {
+      fc=new FileContext(file,gui);
+    }
+    data.put(file,fc);
   }
   public synchronized void report(String level, Iterable<String> message) {
     printContext(System.out,linesBefore,linesAfter);     
@@ -2,7 +2,8 @@ package hre.ast;
 
 public class InlineOrigin extends Origin {
 
-  
+  private static final long serialVersionUID = 1L;
+
   public final Origin location;
   public final Origin main;
   
@@ -8,6 +8,8 @@ package hre.ast;
  */
 public class MessageOrigin extends Origin {
 
+  private static final long serialVersionUID = 1L;
+
     private String message;
     public MessageOrigin(String format,Object ... args){
       this.message=String.format(format,args);
@@ -1,11 +1,16 @@
 // -*- tab-width:2 ; indent-tabs-mode:nil -*-
 package hre.ast;
 
+import java.io.Serializable;
+
 /** 
  * This interface allows tracking the origin of
  * AST nodes through transformations to the original file(s).
  */
-public abstract class Origin {
+public abstract class Origin implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
   public abstract void report(String level, Iterable<String> message);
   public abstract void report(String level, String ... message);
   public void report(String level, String format, Object ... args){
@@ -2,6 +2,8 @@ package hre.ast;
 
 public abstract class WrappingOrigin extends Origin {
 
+  private static final long serialVersionUID = 1L;
+
   public abstract WrappingOrigin wrap(Origin other);
   
 }
@@ -2,12 +2,13 @@ package hre.config;
 
 import static hre.lang.System.*;
 
-public class BooleanSetting {
+public class BooleanSetting extends Setting {
 
   private boolean value;
   
   public BooleanSetting(boolean default_setting){
     value=default_setting;
+    register();
   }
   
   private class EnableOption extends AbstractOption {
@@ -59,4 +60,14 @@ public class BooleanSetting {
   public void set(boolean value){
     this.value=value;
   }
+
+  @Override
+  protected Object save(){
+    return value;
+  }
+
+  @Override
+  protected void restore(Object value){
+    this.value=(Boolean)value;
+  }
 }
@@ -1,11 +1,12 @@
 package hre.config;
 
-public class IntegerSetting {
+public class IntegerSetting extends Setting {
 
   private int value;
   
   public IntegerSetting(int default_setting){
     value=default_setting;
+    register();
   }
   
   private class AssignOption extends AbstractOption {
@@ -35,4 +36,14 @@ public class IntegerSetting {
   public void set(int value){
     this.value=value;
   }
+
+  @Override
+  protected Object save(){
+    return value;
+  }
+
+  @Override
+  protected void restore(Object value){
+    this.value=(Integer)value;
+  }
 }
@@ -0,0 +1,83 @@
+package hre.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Common base of all configuration settings.
+ *
+ * Every setting remembers its default value. This allows a process that
+ * performs several runs, such as a verification server, to take a snapshot of
+ * all settings and to restore it after a run, such that the options of one
+ * run do not affect the next.
+ */
+public abstract class Setting {
+
+  /**
+   * The default values of all settings that are still in use.
+   */
+  private static final Map<Setting,Object> defaults=Collections.synchronizedMap(new WeakHashMap<Setting,Object>());
+
+  /**
+   * Record the current value as the default value of this setting.
+   * Must be called at the end of the constructor of every setting.
+   */
+  protected final void register(){
+    defaults.put(this,save());
+  }
+
+  /**
+   * Save the value of this setting.
+   */
+  protected abstract Object save();
+
+  /**
+   * Restore a value saved by {@link #save()}.
+   */
+  protected abstract void restore(Object value);
+
+  /**
+   * Take a snapshot of the values of all settings.
+   */
+  public static Snapshot snapshot(){
+    return new Snapshot();
+  }
+
+  /**
+   * The values of all settings at one point in time.
+   */
+  public static final class Snapshot {
+
+    private final Map<Setting,Object> values=new IdentityHashMap<Setting,Object>();
+
+    private Snapshot(){
+      for(Setting setting:settings()){
+        values.put(setting,setting.save());
+      }
+    }
+
+    /**
+     * Restore all settings to the values in this snapshot.
+     * Settings that were created after the snapshot was taken are
+     * restored to their default values.
+     */
+    public void restore(){
+      for(Setting setting:settings()){
+        if (values.containsKey(setting)){
+          setting.restore(values.get(setting));
+        } else {
+          setting.restore(defaults.get(setting));
+        }
+      }
+    }
+  }
+
+  private static ArrayList<Setting> settings(){
+    synchronized(defaults){
+      return new ArrayList<Setting>(defaults.keySet());
+    }
+  }
+}
@@ -10,7 +10,7 @@ import java.util.Iterator;
  * @author Stefan Blom
  *
  */
-public class StringListSetting implements Iterable<String> {
+public class StringListSetting extends Setting implements Iterable<String> {
 
   /**
    * Create a new string list setting with a default value.
@@ -20,6 +20,7 @@ public class StringListSetting implements Iterable<String> {
     for(String s:default_value){
       list.add(s);
     }
+    register();
   }
   
   /**
@@ -87,4 +88,17 @@ public class StringListSetting implements Iterable<String> {
   public boolean contains(String item) {
     return list.contains(item);
   }
+
+  @Override
+  protected Object save(){
+    return new Object[]{override,new ArrayList<String>(list)};
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  protected void restore(Object value){
+    Object saved[]=(Object[])value;
+    override=(Boolean)saved[0];
+    list=new ArrayList<String>((ArrayList<String>)saved[1]);
+  }
 }
@@ -1,6 +1,6 @@
 package hre.config;
 
-public class StringSetting {
+public class StringSetting extends Setting {
 
   private String value;
   
@@ -12,6 +12,7 @@ public class StringSetting {
   
   public StringSetting(String default_setting){
     value=default_setting;
+    register();
   }
   
   private class AssignOption extends AbstractOption {
@@ -54,4 +55,16 @@ public class StringSetting {
   public void set(String value){
     this.value=value;
   }
+
+  @Override
+  protected Object save(){
+    return new Object[]{value,opt_used};
+  }
+
+  @Override
+  protected void restore(Object value){
+    Object saved[]=(Object[])value;
+    this.value=(String)saved[0];
+    this.opt_used=(Boolean)saved[1];
+  }
 }
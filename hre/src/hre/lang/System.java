@@ -14,6 +14,36 @@ public class System {
   
   private static Map<String,MessageStream> debug_map;
   
+  /**
+   * Streams that capture the messages of threads.
+   */
+  private static final ThreadLocal<PrintStream> capture=new ThreadLocal<PrintStream>();
+  
+  /**
+   * Capture the messages of the current thread, for example to print the
+   * messages of concurrent tasks in a fixed order.
+   * 
+   * @param out The stream that receives all messages of the current thread,
+   *        or null to send them to the standard streams again.
+   */
+  public static void setCapture(PrintStream out){
+    if (out==null){
+      capture.remove();
+    } else {
+      capture.set(out);
+    }
+  }
+  
+  private static PrintStream err(){
+    PrintStream out=capture.get();
+    return out==null?java.lang.System.err:out;
+  }
+  
+  private static PrintStream out(){
+    PrintStream out=capture.get();
+    return out==null?java.lang.System.out:out;
+  }
+  
   /**
    * Emit an error message, print stack trace and abort.
    * 
@@ -25,11 +55,18 @@ public class System {
    */
   public static void Abort(String format,Object...args){
     String message=String.format(format,args);
-    java.lang.System.err.printf("%s%n",message);
-    Thread.dumpStack();
+    err().printf("%s%n",message);
+    new Exception("Stack trace").printStackTrace(err());
     throw new HREExitException(1);
   }
   
+  /**
+   * Print the stack trace of an exception with the error messages.
+   */
+  public static void PrintStackTrace(Throwable e){
+    e.printStackTrace(err());
+  }
+  
   /**
    * Emit an error message and abort.
    * 
@@ -46,11 +83,11 @@ public class System {
       }
       String name=stackTraceElements[idx].getClassName();
       int line=stackTraceElements[idx].getLineNumber();
-      java.lang.System.err.printf("At line %d of %s:%n",line,name);
+      err().printf("At line %d of %s:%n",line,name);
       prefix="  ";
     }
     String message=String.format(format,args);
-    java.lang.System.err.printf("%s%s%n",prefix,message);
+    err().printf("%s%s%n",prefix,message);
     throw new HREExitException(1);
   }
   
@@ -61,6 +98,21 @@ public class System {
     debug_map.put(className,new MessageStream(out,tag));
   }
   
+  /**
+   * Save the set of classes for which debugging is enabled.
+   */
+  public static Object SaveDebug(){
+    return debug_map==null?null:new HashMap<String,MessageStream>(debug_map);
+  }
+  
+  /**
+   * Restore a set of classes saved with {@link #SaveDebug()}.
+   */
+  @SuppressWarnings("unchecked")
+  public static void RestoreDebug(Object saved){
+    debug_map=(Map<String,MessageStream>)saved;
+  }
+  
   public static void DisableDebug(String className){
     if (debug_map==null){
       return;
@@ -71,6 +123,14 @@ public class System {
     }
   }
   
+  /**
+   * Check if debugging is enabled for any class, such that callers can
+   * skip preparing debug messages that would be dropped anyway.
+   */
+  public static boolean Debugging(){
+    return debug_map!=null;
+  }
+
   /**
    * Emit a debug message if the class calling this method is tagged for debugging.
    * 
@@ -107,7 +167,7 @@ public class System {
   public static void Progress(String format,Object...args){
     if (progress){
       String message=String.format(format,args);
-      java.lang.System.err.printf("%s%n",message);
+      err().printf("%s%n",message);
     }
   }
 
@@ -116,15 +176,23 @@ public class System {
    */
   public static void Output(String format,Object...args){
     String message=String.format(format,args);
-    java.lang.System.out.printf("%s%n",message);    
+    out().printf("%s%n",message);    
   }
   
+  /**
+   * Emit a message on the error stream, without a prefix.
+   */
+  public static void Message(String format,Object...args){
+    String message=String.format(format,args);
+    err().printf("%s%n",message);
+  }
+
   /**
    * Emit a warning message.
    */
   public static void Warning(String format,Object...args){
     String message=String.format(format,args);
-    java.lang.System.err.printf("WARNING: %s%n",message);    
+    err().printf("WARNING: %s%n",message);    
   }
 
   private static boolean where=false;
@@ -135,7 +203,7 @@ public class System {
   
   public static Failure Failure(String format,Object...args){
     String message=String.format(format, args);
-    java.lang.System.err.printf("FAILURE: %s%n",message);    
+    err().printf("FAILURE: %s%n",message);    
     return new Failure(message);
   }
 
@@ -1,6 +1,6 @@
 package hre.util;
 
-import java.util.Stack;
+import java.util.ArrayList;
 
 /**
  * A stack of references with frame control.
@@ -11,15 +11,15 @@ import java.util.Stack;
  */
 public class FrameReference<T> implements FrameControl {
 
-  private Stack<T> stack=new Stack<T>();
+  private ArrayList<T> stack=new ArrayList<T>();
   private T current=null;
   
   public void enter() {
-    stack.push(current);
+    stack.add(current);
   }
 
   public void leave() {
-    current=stack.pop();
+    current=stack.remove(stack.size()-1);
   }
 
   public void set(T val){
@@ -1,11 +1,20 @@
 package hre.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EmptyStackException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
 /**
  * A name space with frame control and multiple definitions per name.
+ *
+ * Every name is mapped to the list of all its visible definitions,
+ * innermost first. The names that are defined inside a frame are recorded
+ * on a trail, such that their definitions can be removed when the frame
+ * is left. Hence, entering a frame and starting a lookup take constant time,
+ * regardless of the nesting depth.
  * 
  * @author sccblom
  *
@@ -14,7 +23,7 @@ import java.util.Map;
  */
 public class MultiNameSpace <Key,Data> implements FrameControl {
 
-  private final class List<D> {
+  private static final class List<D> {
     final D item;
     final List<D> next;
     public List(D item,List <D> next){
@@ -22,28 +31,31 @@ public class MultiNameSpace <Key,Data> implements FrameControl {
       this.next=next;
     }
   }
-  private Map<Key,List<Data>> map=new HashMap<Key,List<Data>>();
-  private List<Map<Key,List<Data>>> stack=null;
+  private final Map<Key,List<Data>> map=new HashMap<Key,List<Data>>();
+
+  /**
+   * The names that have been defined in the open frames.
+   */
+  private final ArrayList<Key> trail=new ArrayList<Key>();
+
+  /**
+   * The length of the trail at the start of every open frame.
+   */
+  private int marks[]=new int[16];
+
+  private int depth=0;
 
-  private final class KeyIterator implements Iterator<Data> {
-    Key k;
-    List<Data> list;
-    List<Map<Key,List<Data>>> next;
+  private static final class KeyIterator<D> implements Iterator<D> {
+    List<D> list;
 
-    KeyIterator(Key k){
-      this.k=k;
-      next=new List<Map<Key, List<Data>>>(map,stack);
+    KeyIterator(List<D> list){
+      this.list=list;
     }
     public boolean hasNext(){
-      for(;;){
-        if (list!=null) return true;
-        if (next==null) return false;
-        list=next.item.get(k);
-        next=next.next;
-      }
+      return list!=null;
     }
-    public Data next(){
-      Data res=list.item;
+    public D next(){
+      D res=list.item;
       list=list.next;
       return res;
     }
@@ -53,20 +65,33 @@ public class MultiNameSpace <Key,Data> implements FrameControl {
   }
  
   public void enter(){
-    stack=new List<Map<Key, List<Data>>>(map,stack);
-    map=new HashMap<Key,List<Data>>();
+    if (depth==marks.length){
+      marks=Arrays.copyOf(marks,2*depth);
+    }
+    marks[depth++]=trail.size();
   }
   
   public Iterator<Data> lookup(Key k){
-    return new KeyIterator(k);
+    return new KeyIterator<Data>(map.get(k));
   }
   public void add(Key k,Data d){
     List<Data> l=map.get(k);
     l=new List<Data>(d,l);
     map.put(k, l);
+    if (depth>0) trail.add(k);
   }
   public void leave(){
-    map=stack.item;
-    stack=stack.next;
+    if (depth==0) throw new EmptyStackException();
+    int mark=marks[--depth];
+    for(int i=trail.size()-1;i>=mark;i--){
+      Key k=trail.get(i);
+      List<Data> l=map.get(k).next;
+      if (l==null){
+        map.remove(k);
+      } else {
+        map.put(k,l);
+      }
+    }
+    trail.subList(mark,trail.size()).clear();
   }
 }
@@ -1,13 +1,23 @@
 package hre.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EmptyStackException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 
 /**
  * A name space with a single definition per name.
+ *
+ * All visible definitions are kept in one map. Changes made inside a frame
+ * are recorded on a trail, together with the definitions they replace,
+ * and undone when the frame is left. Hence, entering a frame and looking up
+ * a name take constant time and leaving a frame takes time proportional
+ * to the number of changes made in it, regardless of the number of names
+ * that are in scope.
  * 
  * @author Stefan Blom
  *
@@ -16,23 +26,68 @@ import java.util.Stack;
  */
 public class SingleNameSpace<K,D> implements Map<K,D> {
 
-  private Stack<Map<K,D>> stack=new Stack<Map<K, D>>();
-  
-  private Map<K,D> map=new HashMap<K, D>();
+  /**
+   * Marks a name that had no definition before a change.
+   */
+  private static final Object absent=new Object();
+
+  private final HashMap<K,D> map=new HashMap<K, D>();
+
+  /**
+   * The names that have been changed in the open frames.
+   */
+  private final ArrayList<K> trail_keys=new ArrayList<K>();
+
+  /**
+   * The definitions that were replaced by the changes on the trail.
+   */
+  private final ArrayList<Object> trail_values=new ArrayList<Object>();
+
+  /**
+   * The length of the trail at the start of every open frame.
+   */
+  private int marks[]=new int[16];
+
+  private int depth=0;
  
   public void enter(){
-    stack.push(map);
-    map=new HashMap<K, D>();
-    map.putAll(stack.peek());
+    if (depth==marks.length){
+      marks=Arrays.copyOf(marks,2*depth);
+    }
+    marks[depth++]=trail_keys.size();
   }
   public D lookup(K name){
     return map.get(name);
   }
   public void add(K name,D def){
-    map.put(name, def);
+    put(name, def);
   }
+  @SuppressWarnings("unchecked")
   public void leave(){
-    map=stack.pop();
+    if (depth==0) throw new EmptyStackException();
+    int mark=marks[--depth];
+    for(int i=trail_keys.size()-1;i>=mark;i--){
+      K name=trail_keys.get(i);
+      Object old=trail_values.get(i);
+      if (old==absent){
+        map.remove(name);
+      } else {
+        map.put(name,(D)old);
+      }
+    }
+    trail_keys.subList(mark,trail_keys.size()).clear();
+    trail_values.subList(mark,trail_values.size()).clear();
+  }
+
+  /**
+   * Record the current definition of a name that is about to change,
+   * if the change has to be undone when the current frame is left.
+   */
+  @SuppressWarnings("unchecked")
+  private void record(Object name){
+    if (depth==0) return;
+    trail_keys.add((K)name);
+    trail_values.add(map.containsKey(name)?map.get(name):absent);
   }
   
   @Override
@@ -57,30 +112,37 @@ public class SingleNameSpace<K,D> implements Map<K,D> {
   }
   @Override
   public D put(K key, D value) {
+    record(key);
     return map.put(key, value);
   }
   @Override
   public D remove(Object key) {
+    if (map.containsKey(key)) record(key);
     return map.remove(key);
   }
   @Override
   public void putAll(Map<? extends K, ? extends D> m) {
-    map.putAll(m);
+    for(Map.Entry<? extends K, ? extends D> e:m.entrySet()){
+      put(e.getKey(),e.getValue());
+    }
   }
   @Override
   public void clear() {
+    for(K key:map.keySet()){
+      record(key);
+    }
     map.clear();
   }
   @Override
   public Set<K> keySet() {
-    return map.keySet();
+    return Collections.unmodifiableSet(map.keySet());
   }
   @Override
   public Collection<D> values() {
-    return map.values();
+    return Collections.unmodifiableCollection(map.values());
   }
   @Override
   public Set<java.util.Map.Entry<K, D>> entrySet() {
-    return map.entrySet();
+    return Collections.unmodifiableSet(map.entrySet());
   }
 }
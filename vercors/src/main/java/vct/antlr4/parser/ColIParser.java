@@ -28,7 +28,7 @@ import vct.col.syntax.CSyntax;
 public class ColIParser implements vct.col.util.Parser {
 
   protected ProgramUnit parse(String file_name,InputStream stream) throws IOException{
-    TimeKeeper tk=new TimeKeeper();
+    TimeKeeper tk=new TimeKeeper(file_name);
 
     ANTLRInputStream input = new ANTLRInputStream(stream);
     CMLLexer lexer = new CMLLexer(input);
@@ -38,43 +38,43 @@ public class ColIParser implements vct.col.util.Parser {
     parser.removeErrorListeners();
     parser.addErrorListener(ec);
     ParseTree tree = parser.compilationUnit();
-    Progress("first parsing pass took %dms",tk.show());
+    tk.phase("first parsing pass",null);
     ec.report();
     Debug("parser got: %s",tree.toStringTree(parser));
 
     ProgramUnit pu=CMLtoCOL.convert_pu(tree,file_name,tokens,parser);
-    Progress("AST conversion took %dms",tk.show());
+    tk.phase("AST conversion",pu);
     Debug("after conversion %s",pu);
     
     pu=new CommentRewriter(pu,new CMLCommentParser(ec)).rewriteAll();
-    Progress("Specification parsing took %dms",tk.show());
+    tk.phase("Specification parsing",pu);
     ec.report();
     Debug("after comment processing %s",pu);
 
     pu=new FlattenVariableDeclarations(pu).rewriteAll();
-    Progress("Flattening variables took %dms",tk.show());
+    tk.phase("Flattening variables",pu);
     Debug("after flattening variable decls %s",pu);
     
     pu=new SpecificationCollector(CSyntax.getCML(),pu).rewriteAll();
-    Progress("Shuffling specifications took %dms",tk.show());    
+    tk.phase("Shuffling specifications",pu);    
     Debug("after collecting specifications %s",pu);
 
     pu=new ConvertTypeExpressions(pu).rewriteAll();
-    Progress("converting type expressions took %dms",tk.show());
+    tk.phase("converting type expressions",pu);
     Debug("after converting type expression %s",pu);
         
     pu=new VerCorsDesugar(pu).rewriteAll();
-    Progress("Desugaring took %dms",tk.show());
+    tk.phase("Desugaring",pu);
     Debug("after desugaring",pu);
 
     // TODO: encoding as class should not be necessary. 
     pu=new EncodeAsClass(pu).rewriteAll();
-    Progress("Encoding as class took %dms",tk.show());
+    tk.phase("Encoding as class",pu);
     Debug("after encoding as class %s",pu);
     
     pu=new FilterSpecIgnore(pu).rewriteAll();
     pu=new StripUnusedExtern(pu).rewriteAll();
-    Progress("Stripping unused parts took %dms",tk.show());    
+    tk.phase("Stripping unused parts",pu);    
     Debug("after stripping unused parts %s",pu);
     
     return pu;
@@ -89,7 +89,7 @@ public class ColIParser implements vct.col.util.Parser {
     } catch (FileNotFoundException e) {
       Fail("File %s has not been found",file_name);
     } catch (Exception e) {
-      e.printStackTrace();
+      PrintStackTrace(e);
       Abort("Exception %s while parsing %s",e.getClass(),file_name);
     }
     return null;
@@ -38,7 +38,7 @@ public class ColJavaParser implements vct.col.util.Parser {
   public ProgramUnit parse(File file) {
     String file_name=file.toString();
       try {
-        TimeKeeper tk=new TimeKeeper();
+        TimeKeeper tk=new TimeKeeper(file_name);
         
         ANTLRInputStream input = new ANTLRInputStream(new FileInputStream(file));
 
@@ -57,14 +57,14 @@ public class ColJavaParser implements vct.col.util.Parser {
             lexer.addErrorListener(ec);
             ParseTree tree = parser.compilationUnit();
             ec.report();
-            Progress("first parsing pass took %dms",tk.show());
+            tk.phase("first parsing pass",null);
             
             pu=Java7JMLtoCol.convert_tree(tree,file_name,tokens,parser);
-            Progress("AST conversion took %dms",tk.show());
+            tk.phase("AST conversion",pu);
             Debug("program after Java parsing:%n%s",pu);
             
             pu=new CommentRewriter(pu,new Java7JMLCommentParser(ec)).rewriteAll();
-            Progress("Specification parsing took %dms",tk.show());
+            tk.phase("Specification parsing",pu);
             ec.report();
             Debug("program after specification parsing:%n%s",pu);
             break;
@@ -79,10 +79,10 @@ public class ColJavaParser implements vct.col.util.Parser {
             
             ParseTree tree = parser.compilationUnit();
             ec.report();
-            Progress("first parsing pass took %dms",tk.show());
+            tk.phase("first parsing pass",null);
             
             pu=Java7JMLtoCol.convert_tree(tree,file_name,tokens,parser);
-            Progress("AST conversion took %dms",tk.show());
+            tk.phase("AST conversion",pu);
             Debug("program after Java parsing:%n%s",pu);
             break;
           }
@@ -96,15 +96,15 @@ public class ColJavaParser implements vct.col.util.Parser {
           lexer.addErrorListener(ec);
           ParseTree tree = parser.compilationUnit();
           ec.report();
-          Progress("first parsing pass took %dms",tk.show());
+          tk.phase("first parsing pass",null);
           
           pu=Java8JMLtoCol.convert_tree(tree,file_name,tokens,parser);
-          Progress("AST conversion took %dms",tk.show());
+          tk.phase("AST conversion",pu);
           Debug("program after Java parsing:%n%s",pu);
           
           if(twopass){
             pu=new CommentRewriter(pu,new Java8JMLCommentParser(ec)).rewriteAll();
-            Progress("Specification parsing took %dms",tk.show());
+            tk.phase("Specification parsing",pu);
             ec.report();
             Debug("program after specification parsing:%n%s",pu);
           }
@@ -114,39 +114,39 @@ public class ColJavaParser implements vct.col.util.Parser {
           throw new Error("bad java version: "+version);
         }
         pu=new FlattenVariableDeclarations(pu).rewriteAll();
-        Progress("Flattening variables took %dms",tk.show());
+        tk.phase("Flattening variables",pu);
         //vct.util.Configuration.getDiagSyntax().print(System.out,pu);
         Debug("program after flattening variables:%n%s",pu);
         
         pu=new SpecificationCollector(JavaSyntax.getJava(JavaDialect.JavaVerCors),pu).rewriteAll();
-        Progress("Shuffling specifications took %dms",tk.show());        
+        tk.phase("Shuffling specifications",pu);        
         //vct.util.Configuration.getDiagSyntax().print(System.out,pu);
         Debug("program after collecting specs:%n%s",pu);
         
         pu=new JavaPostProcessor(pu).rewriteAll();
-        Progress("post processing took %dms",tk.show());        
+        tk.phase("post processing",pu);        
         //vct.util.Configuration.getDiagSyntax().print(System.out,pu);
         
         pu=new AnnotationInterpreter(pu).rewriteAll();
-        Progress("interpreting annotations took %dms",tk.show());        
+        tk.phase("interpreting annotations",pu);        
         //vct.util.Configuration.getDiagSyntax().print(System.out,pu);
         
         //cannnot resolve here: other .java files may be needed!
         //pu=new JavaResolver(pu).rewriteAll();
-        //Progress("resolving library calls took %dms",tk.show());        
+        //tk.phase("resolving library calls",pu);        
         //vct.util.Configuration.getDiagSyntax().print(System.out,pu);
         
         pu=new FilterSpecIgnore(pu).rewriteAll();
-        Progress("filtering spec_ignore took %dms",tk.show()); 
+        tk.phase("filtering spec_ignore",pu); 
 
         return pu;
       } catch (FileNotFoundException e) {
         Fail("File %s has not been found",file_name);
       } catch (Exception e) {
-        e.printStackTrace();
+        PrintStackTrace(e);
         Abort("Exception %s while parsing %s",e.getClass(),file_name);
       } catch (Throwable e){
-        e.printStackTrace();
+        PrintStackTrace(e);
         Warning("Exception %s while parsing %s",e.getClass(),file_name);
         throw e;
       }
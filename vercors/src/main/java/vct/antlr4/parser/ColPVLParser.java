@@ -25,7 +25,7 @@ public class ColPVLParser implements vct.col.util.Parser {
   public ProgramUnit parse(File file) {
     String file_name=file.toString();
       try {
-        TimeKeeper tk=new TimeKeeper();
+        TimeKeeper tk=new TimeKeeper(file_name);
         ANTLRInputStream input = new ANTLRInputStream(new FileInputStream(file));
         PVFullLexer lexer = new PVFullLexer(input);
         CommonTokenStream tokens = new CommonTokenStream(lexer);
@@ -34,30 +34,30 @@ public class ColPVLParser implements vct.col.util.Parser {
         parser.removeErrorListeners();
         parser.addErrorListener(ec);
         ParseTree tree = parser.program();
-        Progress("parsing pass took %dms",tk.show());
+        tk.phase("parsing pass",null);
         ec.report();
         Debug("parser got: %s",tree.toStringTree(parser));
 
         ProgramUnit pu=PVLtoCOL.convert(tree,file_name,tokens,parser);      
-        Progress("AST conversion pass took %dms",tk.show());
+        tk.phase("AST conversion pass",pu);
         
         pu=new FlattenVariableDeclarations(pu).rewriteAll();
-        Progress("Variable pass took %dms",tk.show());
+        tk.phase("Variable pass",pu);
         
         pu=new SpecificationCollector(PVLSyntax.get(),pu).rewriteAll();
-        Progress("Shuffling specifications took %dms",tk.show());    
+        tk.phase("Shuffling specifications",pu);    
         Debug("after collecting specifications %s",pu);
         
         pu=new PVLPostProcessor(pu).rewriteAll();
-        Progress("Post processing pass took %dms",tk.show());
+        tk.phase("Post processing pass",pu);
         return pu;
       } catch (FileNotFoundException e) {
         Fail("File %s has not been found",file_name);
       } catch (Exception e) {
-        e.printStackTrace();
+        PrintStackTrace(e);
         Abort("Exception %s while parsing %s",e.getClass(),file_name);
       } catch (Throwable e) {
-        e.printStackTrace();
+        PrintStackTrace(e);
         Warning("Exception %s while parsing %s",e.getClass(),file_name);
         throw e;
       }
@@ -13,6 +13,14 @@ import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.atn.ATNConfigSet;
 import org.antlr.v4.runtime.dfa.DFA;
 
+/**
+ * Counts and reports the syntax errors of the parse of one file.
+ *
+ * Errors are collected and printed together by {@link #report()},
+ * such that the messages of files that are parsed concurrently
+ * do not interleave.
+ * A counter is used by the parse of one file, on one thread.
+ */
 public final class ErrorCounter implements ANTLRErrorListener {
   public  final AtomicInteger count =new AtomicInteger();
 
@@ -21,6 +29,11 @@ public final class ErrorCounter implements ANTLRErrorListener {
   private final ArrayList<String> file=new ArrayList<String>();
   private final ArrayList<Integer> src=new ArrayList<Integer>();
   
+  /**
+   * Messages that have not been printed yet.
+   */
+  private final ArrayList<String> messages=new ArrayList<String>();
+  
   public final String main_file;
   public ErrorCounter(String main){
     main_file=main;
@@ -44,7 +57,7 @@ public final class ErrorCounter implements ANTLRErrorListener {
     }
     String fname=file.get(i);
     int fofs=arg2-ofs.get(i)+src.get(i);
-    hre.lang.System.Warning("%s, %d:%d %s%n",fname,fofs,arg3,arg4);
+    messages.add(String.format("%s, %d:%d %s%n",fname,fofs,arg3,arg4));
     count.incrementAndGet();
   }
 
@@ -63,7 +76,20 @@ public final class ErrorCounter implements ANTLRErrorListener {
       boolean arg4, BitSet arg5, ATNConfigSet arg6) {
   }
 
+  /**
+   * Print the errors that have not been printed yet.
+   */
+  public void flush() {
+    synchronized(ErrorCounter.class){
+      for(String message:messages){
+        hre.lang.System.Warning("%s",message);
+      }
+      messages.clear();
+    }
+  }
+
   public void report() {
+    flush();
     if (count.get()>0){
       Fail("encountered %d syntax error(s) in %s",count.get(),main_file);
     }
@@ -44,6 +44,7 @@ public class OMPParser {
     parser.removeErrorListeners();
     parser.addErrorListener(ec);
     ParseTree tree = parser.omp_pragma();
+    ec.flush();
     ConversionVisitor visitor=new ConversionVisitor();
     return (OMPpragma) tree.accept(visitor);
   }
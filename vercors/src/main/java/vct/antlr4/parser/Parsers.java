@@ -2,8 +2,19 @@ package vct.antlr4.parser;
 
 import hre.config.IntegerSetting;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import hre.ast.FileOrigin;
+import hre.lang.HREError;
 import vct.col.ast.ProgramUnit;
 import vct.col.util.Parser;
 import vct.silver.ColSilverParser;
@@ -14,6 +25,11 @@ public class Parsers {
   
   public static IntegerSetting java_version=new IntegerSetting(7);
   
+  /**
+   * The maximum number of files that are parsed concurrently.
+   */
+  public static IntegerSetting threads=new IntegerSetting(Runtime.getRuntime().availableProcessors());
+  
   public static Parser getParser(String extension){
     switch(extension){
     case "cl":
@@ -43,5 +59,99 @@ public class Parsers {
     Progress("Read %s succesfully",name);
     return unit;
   }
+  
+  /**
+   * Registers the context of a file and parses it, while capturing
+   * the messages that are produced.
+   */
+  private static class ParseTask implements Callable<ProgramUnit> {
+    
+    private final String name;
+    private final boolean context;
+    private final boolean gui;
+    
+    /**
+     * The messages of the task, available once it is done.
+     */
+    public final ByteArrayOutputStream messages=new ByteArrayOutputStream();
+    
+    public ParseTask(String name,boolean context,boolean gui){
+      this.name=name;
+      this.context=context;
+      this.gui=gui;
+    }
+    
+    @Override
+    public ProgramUnit call(){
+      PrintStream out=new PrintStream(messages,true);
+      hre.lang.System.setCapture(out);
+      try {
+        if (context) FileOrigin.add(name,gui);
+        return parseFile(name);
+      } finally {
+        hre.lang.System.setCapture(null);
+        out.flush();
+      }
+    }
+  }
+  
+  /**
+   * Parse a number of files concurrently.
+   * 
+   * The messages of each file are printed in the order of the files.
+   * If parsing fails, only the messages of the files up to and including
+   * the first file that failed are printed and that failure is rethrown,
+   * exactly as if the files were parsed one after the other.
+   * 
+   * @param names The files to be parsed.
+   * @param context Register the contents of the files for printing the context of messages.
+   * @param gui Use the graphical context.
+   * @return The parsed files, in the order of the names.
+   */
+  public static List<ProgramUnit> parseFiles(List<String> names,final boolean context,final boolean gui){
+    ArrayList<ProgramUnit> res=new ArrayList<ProgramUnit>();
+    int N=Math.min(threads.get(),names.size());
+    if (N<=1){
+      for(String name:names){
+        if (context) FileOrigin.add(name,gui);
+        res.add(parseFile(name));
+      }
+      return res;
+    }
+    ExecutorService pool=Executors.newFixedThreadPool(N);
+    try {
+      ArrayList<ParseTask> tasks=new ArrayList<ParseTask>();
+      ArrayList<Future<ProgramUnit>> units=new ArrayList<Future<ProgramUnit>>();
+      for(String name:names){
+        ParseTask task=new ParseTask(name,context,gui);
+        tasks.add(task);
+        units.add(pool.submit(task));
+      }
+      for(int i=0;i<units.size();i++){
+        try {
+          ProgramUnit unit;
+          try {
+            unit=units.get(i).get();
+          } finally {
+            byte messages[]=tasks.get(i).messages.toByteArray();
+            System.err.write(messages,0,messages.length);
+            System.err.flush();
+          }
+          res.add(unit);
+        } catch (ExecutionException e) {
+          // rethrow failures, such as syntax errors, as they are.
+          Throwable cause=e.getCause();
+          if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+          if (cause instanceof Error) throw (Error)cause;
+          throw new HREError("parsing failed: %s",cause);
+        } catch (InterruptedException e) {
+          throw new HREError("interrupted while parsing");
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return res;
+  }
 
 }
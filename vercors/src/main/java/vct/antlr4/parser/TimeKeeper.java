@@ -1,11 +1,48 @@
 package vct.antlr4.parser;
 
+import static hre.lang.System.Progress;
+
+import vct.col.ast.ProgramUnit;
+import vct.util.PerformanceReport;
+
 class TimeKeeper {
   private long time=System.currentTimeMillis();
-  
+
+  private final String file;
+
+  private PerformanceReport.Sample start=new PerformanceReport.Sample();
+
+  /**
+   * Size of the AST produced by the previous phase, if known.
+   */
+  private long nodes=-1;
+
+  public TimeKeeper(String file){
+    this.file=file;
+  }
+
   public long show(){
     long tmp=time;
     time=System.currentTimeMillis();
-    return time-tmp; 
+    return time-tmp;
+  }
+
+  /**
+   * Report the end of a parser phase and start the next one.
+   *
+   * @param name The name of the phase.
+   * @param result The AST produced by the phase, or null if it did not produce one.
+   */
+  public void phase(String name,ProgramUnit result){
+    Progress("%s took %dms",name,show());
+    if (PerformanceReport.enabled()){
+      PerformanceReport.Sample end=new PerformanceReport.Sample();
+      long size=PerformanceReport.nodes(result);
+      PerformanceReport.record("parse",name,file,start,end,nodes,size);
+      nodes=size;
+      // keep the counting out of the next phase.
+      start=new PerformanceReport.Sample();
+      time=System.currentTimeMillis();
+    }
   }
-}
\ No newline at end of file
+}
@@ -24,6 +24,8 @@ import static hre.lang.System.Debug;
  */
 public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
 
+  private static final long serialVersionUID = 1L;
+
   @Override
   public <R,A> R accept_simple(ASTMapping1<R,A> map,A arg){
     return map.map(this,arg);
@@ -50,9 +52,54 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
   /** contains the interfaces(classes) implemented by this class */
   public final ClassType implemented_classes[];
   /** contains the parent of this unit */
+  @NonStructural
   private ASTClass parent_class;
   /** contains the list of entries */
   private ArrayList<ASTNode> entries=new ArrayList<ASTNode>();
+
+  /**
+   * Index of the named entries, in the order of the entries.
+   * It is built on the first lookup and kept up to date by the add methods.
+   */
+  @NonStructural
+  private transient volatile HashMap<String,ArrayList<ASTDeclaration>> members;
+
+  /** Add an entry, keeping the index up to date. */
+  private void add_entry(ASTNode n){
+    entries.add(n);
+    HashMap<String,ArrayList<ASTDeclaration>> index=members;
+    if (index!=null) index(index,n);
+  }
+
+  private static void index(HashMap<String,ArrayList<ASTDeclaration>> members,ASTNode n){
+    if (!(n instanceof ASTDeclaration)) return;
+    String name=((ASTDeclaration)n).name();
+    if (name==null) return;
+    ArrayList<ASTDeclaration> bucket=members.get(name);
+    if (bucket==null){
+      bucket=new ArrayList<ASTDeclaration>(1);
+      members.put(name,bucket);
+    }
+    bucket.add((ASTDeclaration)n);
+  }
+
+  /**
+   * Get the entries with the given name.
+   */
+  private List<ASTDeclaration> members(String name){
+    HashMap<String,ArrayList<ASTDeclaration>> index=members;
+    if (index==null){
+      // build the index before publishing it, as lookups may be concurrent.
+      index=new HashMap<String,ArrayList<ASTDeclaration>>();
+      for(ASTNode n:entries){
+        index(index,n);
+      }
+      members=index;
+    }
+    List<ASTDeclaration> res=index.get(name);
+    if (res==null) return Collections.emptyList();
+    return res;
+  }
   
   private void getFullName(ArrayList<String> fullname){
     if (parent_class!=null) parent_class.getFullName(fullname);
@@ -77,7 +124,7 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
     for(int i=0;i<N;i++){
       ASTNode tmp=node.getStatement(i);
       tmp.setFlag(STATIC,true);
-      entries.add(tmp);
+      add_entry(tmp);
     }
     super_classes=new ClassType[0];
     implemented_classes=new ClassType[0];
@@ -100,14 +147,11 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
   }
   /** Return a static child, which is created if necessary. */
   public ASTClass getStaticClass(String name,ClassKind kind){
-    int N=entries.size();
-    for(int i=0;i<N;i++){
-      if (get(i) instanceof ASTClass){
-        ASTClass cl=(ASTClass)entries.get(i);
-        if (cl.name().equals(name)) {
-          if (cl.isStatic()) throw new Error("class "+name+" already exists as a dynamic entry");
-          return cl;
-        }
+    for(ASTDeclaration d:members(name)){
+      if (d instanceof ASTClass){
+        ASTClass cl=(ASTClass)d;
+        if (cl.isStatic()) throw new Error("class "+name+" already exists as a dynamic entry");
+        return cl;
       }
     }
     ASTClass res=new ASTClass(name,this,true,kind);
@@ -147,7 +191,7 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
   }
   public void add_static(ASTNode n){
     if (n==null) return;
-    entries.add(n);
+    add_entry(n);
     n.setParent(this);
     n.setStatic(true);
     if (n instanceof ASTClass) {
@@ -158,7 +202,7 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
     if (n==null) return;
     n.setParent(this);
     n.setStatic(false);
-    entries.add(n);
+    add_entry(n);
     if (n instanceof ASTClass) {
       ((ASTClass)n).setParentClass(this);
     }
@@ -217,28 +261,12 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
-      throw t;
-    }
+    return map.map(this);
   }
  
 
@@ -252,7 +280,7 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
    * Auxiliary function for class lookup.
    */
   ASTClass find(String[] name,int pos) {
-    for(ASTNode n:entries){
+    for(ASTDeclaration n:members(name[pos])){
       if (n instanceof ASTClass){
         ASTClass c=(ASTClass)n;
         if (c.name().equals(name[pos])) {
@@ -264,8 +292,8 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
     }
     return null;
   }
-  private Method find(List<ASTNode> list,String name, ClassType object_type, Type[] type){
-    node:for(ASTNode n:list){
+  private Method find(List<ASTDeclaration> list,String name, ClassType object_type, Type[] type){
+    node:for(ASTDeclaration n:list){
       if (n instanceof Method){
         Method m=(Method)n;
         if (m.getName().equals(name)){
@@ -314,7 +342,7 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
   }
   public Method find(String name, ClassType object_type, Type[] type,boolean recursive) {
     //TODO: support inheritance and detect duplicate definitions.
-    Method m=find(entries,name,object_type,type);
+    Method m=find(members(name),name,object_type,type);
     if (m!=null) return m;
     if (recursive){
       for(ClassType parent:this.super_classes){
@@ -329,19 +357,10 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
     return m;
   }
 
-  private DeclarationStatement find_field(List<ASTNode> list,String name) {
-    for(ASTNode n:list){
+  private DeclarationStatement find_field(List<ASTDeclaration> list,String name) {
+    for(ASTDeclaration n:list){
       if (n instanceof DeclarationStatement){
-        DeclarationStatement d=(DeclarationStatement)n;
-        if (d.name().equals(name)) {
-          return d;
-        } else {
-          Debug("skipping field " + d.name());
-        }
-      }
-      if (n instanceof Method) {
-        Method m = (Method)n;
-        Debug("skipping method "+m.getName());
+        return (DeclarationStatement)n;
       }
     }
     return null;
@@ -361,7 +380,7 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
    */
   public DeclarationStatement find_field(String name,boolean recursive){
     Debug("looking for field "+name);
-    DeclarationStatement temp=find_field(entries,name);
+    DeclarationStatement temp=find_field(members(name),name);
     if (temp!=null) return temp;
     if (contract!=null){
       for(DeclarationStatement tmp : contract.given){
@@ -440,11 +459,12 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
     }
   }
   public Method find_predicate(String string) {
-    for(Method m:staticMethods()){
-      if (m.getName().equals(string)) return m;
+    List<ASTDeclaration> bucket=members(string);
+    for(ASTDeclaration d:bucket){
+      if (d instanceof Method && d.isStatic()) return (Method)d;
     }
-    for(Method m:dynamicMethods()){
-      if (m.getName().equals(string)) return m;
+    for(ASTDeclaration d:bucket){
+      if (d instanceof Method && !d.isStatic()) return (Method)d;
     }
     return null;
   }
@@ -457,7 +477,7 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
   @Override
   public ASTClass add(ASTNode n) {
     if (n==null) return this;
-    entries.add(n);
+    add_entry(n);
     if (!n.isValidFlag(STATIC)){
       Debug("static flag not set");
       n.setStatic(false);
@@ -497,17 +517,8 @@ public class ASTClass extends ASTDeclaration implements ASTSequence<ASTClass> {
 
   public Boolean isOverloaded(String name) {
     boolean found=false;
-    for(DeclarationStatement decl:fields()){
-      if (decl.name().equals(name)){
-        if(found){
-          return true;
-        } else {
-          found=true;
-        }
-      }
-    }
-    for(Method m:methods()){
-      if (m.name().equals(name)){
+    for(ASTDeclaration d:members(name)){
+      if (d instanceof DeclarationStatement || d instanceof Method){
         if(found){
           return true;
         } else {
@@ -7,9 +7,10 @@ import vct.util.ClassName;
  * 
  * @param name Contains the name of the class/module/package.
  */
+@SerialVersionUID(1L)
 abstract class ASTDeclaration(val name:String) extends ASTNode {
   /** Contains the root of the source forest. */
-  protected var root:ProgramUnit = null
+  @NonStructural protected var root:ProgramUnit = null
   
   /** Contains the package name. */
   protected var packageName:ClassName = null
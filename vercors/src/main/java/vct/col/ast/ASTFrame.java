@@ -2,6 +2,7 @@ package vct.col.ast;
 
 import hre.util.SingleNameSpace;
 
+import java.util.ArrayList;
 import java.util.Stack;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -48,7 +49,7 @@ public abstract class ASTFrame<T> {
   
   private AtomicReference<T> result_ref;
   
-  private Stack<T> result_stack;
+  private ArrayList<T> result_stack;
   
   public T getResult(){
     return result_ref.get();
@@ -97,10 +98,10 @@ public abstract class ASTFrame<T> {
   public ASTFrame(ProgramUnit source,ProgramUnit target,boolean do_scope){
     this.source=source;
     this.target=target;
-    node_stack=new Stack<ASTNode>();
+    node_stack=new ArrayList<ASTNode>();
     class_stack=new Stack<ASTClass>();
     method_stack=new Stack<Method>();
-    result_stack=new Stack<T>();
+    result_stack=new ArrayList<T>();
     result_ref=new AtomicReference<T>();
     variables=new SingleNameSpace<String,VariableInfo>();
     scope=new ManageScope();
@@ -124,9 +125,10 @@ public abstract class ASTFrame<T> {
   }
   
   /**
-   * Stack of current nodes.
+   * Stack of current nodes. The node and result stacks are used for
+   * every node, so they avoid the synchronization of {@link Stack}.
    */
-  private Stack<ASTNode> node_stack;
+  private ArrayList<ASTNode> node_stack;
   
   /** */
   protected ASTNode getParentNode(){
@@ -547,33 +549,36 @@ public abstract class ASTFrame<T> {
       }
     //}
     if (node instanceof OperatorExpression){
-      for (ASTNode arg : ((OperatorExpression)node).argsJava()) {
-        scan_labels(arg);
+      OperatorExpression e=(OperatorExpression)node;
+      int N=e.argslength();
+      for (int i=0;i<N;i++) {
+        scan_labels(e.arg(i));
       }
     }
   }
 
   public void enter(ASTNode node){
-    node_stack.push(node);
+    node_stack.add(node);
     Debug("entering %s",node.getClass());
-    result_stack.push(result);
+    result_stack.add(result);
     result=null;
     if (scope!=null) scope.enter(node);
   }
 
   public void leave(ASTNode node){
     if (scope!=null) scope.leave(node);
-    result_ref.set(result);
-    result=result_stack.pop();
+    // a frame is used by one thread at a time.
+    result_ref.lazySet(result);
+    result=result_stack.remove(result_stack.size()-1);
     Debug("leaving %s",node.getClass());
-    node_stack.pop();
+    node_stack.remove(node_stack.size()-1);
   }
 
   public ASTNode current_node(){
     if (node_stack.isEmpty()) {
       return null;
     } else {
-      return node_stack.peek();
+      return node_stack.get(node_stack.size()-1);
     }
   }
 
@@ -597,6 +602,7 @@ public abstract class ASTFrame<T> {
     hre.lang.System.Abort("("+this.getClass()+")At "+current_node().getOrigin()+": "+format,args);
   }
   public void Debug(String format,Object ...args){
+    if (!hre.lang.System.Debugging()) return;
     ASTNode node=current_node();
     if (node!=null){
       hre.lang.System.Debug("At "+node.getOrigin()+": "+format,args);
@@ -3,7 +3,8 @@ package vct.col.ast
 import scala.collection.JavaConverters._
 import scala.collection.mutable.ArrayBuffer
 
-class ASTList extends ASTSequence[ASTList] {
+@SerialVersionUID(1L)
+class ASTList extends ASTSequence[ASTList] with Serializable {
   private[this] val list = new ArrayBuffer[ASTNode]()
   
   def add(item:Option[ASTNode]) = item match {
@@ -1,8 +1,14 @@
 // -*- tab-width:2 ; indent-tabs-mode:nil -*-
 package vct.col.ast;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import vct.col.ast.ASTSpecial.Kind;
 import hre.ast.BranchOrigin;
@@ -11,10 +17,13 @@ import hre.ast.Origin;
 import static hre.lang.System.Abort;
 import static hre.lang.System.Debug;
 import static hre.lang.System.Fail;
+import static hre.lang.System.Message;
 import static hre.lang.System.Warning;
 
 /** common features of all AST nodes. */
-public abstract class ASTNode implements ASTFlags {
+public abstract class ASTNode implements ASTFlags, Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   @Override
   public String toString(){
@@ -29,15 +38,38 @@ public abstract class ASTNode implements ASTFlags {
   }
   
   /**
-   * list of annotations.
+   * Data that few nodes have. Kept out of the node itself,
+   * to keep the size of the common node small.
    */
-  private ASTList annotations;
-  
+  private static final class Extra implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * list of annotations.
+     */
+    ASTList annotations;
+
+    /**
+     * Contains the labels used to mark this node.
+     */
+    ArrayList<NameExpression> labelset;
+
+    @NonStructural
+    HashSet<ASTNode> predecessors;
+  }
+
   /**
-   * Contains the labels used to mark this node.
+   * The rarely used data of this node, or null if it has none.
    */
-  private ArrayList<NameExpression> labelset=new ArrayList<NameExpression>();
-  
+  private Extra extra;
+
+  private Extra extra(){
+    if (extra==null){
+      extra=new Extra();
+    }
+    return extra;
+  }
+
   /**
    * Contains the set of flags set for this node as a bitset.
    */
@@ -48,12 +80,81 @@ public abstract class ASTNode implements ASTFlags {
   private int valid_flags=0;
   
   /**
-   * Auxiliary variable to help assign unique sequence numbers for AST nodes.
+   * Start of the next block of sequence numbers to be handed out.
+   */
+  private static final AtomicLong next_block=new AtomicLong();
+
+  /**
+   * Number of sequence numbers that a thread takes at a time.
+   */
+  private static final int block_size=1024;
+
+  /**
+   * The sequence numbers that the current thread may still use.
+   */
+  private static final class IdBlock {
+    long next;
+    long limit;
+  }
+
+  private static final ThreadLocal<IdBlock> id_block=new ThreadLocal<IdBlock>(){
+    @Override
+    protected IdBlock initialValue(){
+      return new IdBlock();
+    }
+  };
+
+  /**
+   * Get a fresh sequence number.
+   * 
+   * Every thread takes blocks of numbers from a shared counter,
+   * so creating nodes does not require a lock. Within a thread, the
+   * numbers are increasing; numbers from different threads interleave
+   * per block.
+   */
+  private static long fresh_id(){
+    IdBlock block=id_block.get();
+    if (block.next==block.limit){
+      block.next=next_block.getAndAdd(block_size);
+      block.limit=block.next+block_size;
+    }
+    return block.next++;
+  }
+
+  /**
+   * Set for leaf nodes that may occur more than once in a program.
+   * Shared nodes have no parent, and their origin, labels, annotations
+   * and flags are fixed.
+   */
+  @NonStructural
+  private boolean shared=false;
+
+  public boolean isShared(){
+    return shared;
+  }
+
+  /**
+   * Mark this node as shared. Only leaf nodes should be shared.
+   */
+  public void share(){
+    shared=true;
+  }
+
+  private void checkNotShared(){
+    if (shared) Abort("cannot modify shared %s",getClass().getSimpleName());
+  }
+
+  /**
+   * Check if any flag has been set for this node.
    */
-  private static long next_id=0;
+  public boolean hasFlags(){
+    return valid_flags!=0;
+  }
 
   public void copyMissingFlags(ASTNode node){
     int missing_flags=node.valid_flags & (~valid_flags);
+    if (missing_flags==0) return;
+    checkNotShared();
     valid_flags=valid_flags|missing_flags;
     flags=flags|(node.flags&missing_flags);
   }
@@ -72,6 +173,7 @@ public abstract class ASTNode implements ASTFlags {
   }
   
   public void clearFlag(int flag){
+    checkNotShared();
     valid_flags &= ~flag;
     flags &= ~flag;
   }
@@ -81,6 +183,7 @@ public abstract class ASTNode implements ASTFlags {
   }
   
   public void setFlag(int flag,boolean val){
+    checkNotShared();
     valid_flags |= flag;
     if (val) {
       flags |= flag;
@@ -95,6 +198,7 @@ public abstract class ASTNode implements ASTFlags {
   }
 
   public void setGhost(boolean val){
+    checkNotShared();
     valid_flags |= GHOST;
     if (val) {
       flags |= GHOST;
@@ -103,13 +207,20 @@ public abstract class ASTNode implements ASTFlags {
     }
   }
   
+  @NonStructural
   private long id;
 
   public ASTNode() {
-    synchronized(ASTNode.class/*this.getClass()*/){
-      this.id=next_id;
-      ++next_id;
-    }
+    this.id=fresh_id();
+  }
+
+  /**
+   * Nodes read from a snapshot get a fresh sequence number,
+   * because they are created in a different run.
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    this.id=fresh_id();
   }
 
   private Origin origin;
@@ -133,6 +244,7 @@ public abstract class ASTNode implements ASTFlags {
   }
 
   public void clearOrigin(){
+    checkNotShared();
     if (origin==null) Abort("clearing null origin.");
     origin=null;
   }
@@ -166,10 +278,7 @@ public abstract class ASTNode implements ASTFlags {
       this.accept_simple(visitor);
       visitor.post_visit(this);
     } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
+      triggered(t);
       throw t;
     }
   }
@@ -185,10 +294,7 @@ public abstract class ASTNode implements ASTFlags {
       T res=this.accept_simple(map);
       return map.post_map(this, res);  
     } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
+      triggered(t);
       throw t;
     }
   }
@@ -204,14 +310,23 @@ public abstract class ASTNode implements ASTFlags {
       R res=this.accept_simple(map,arg);
       return map.post_map(this, res,arg);
     } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
+      triggered(t);
       throw t;
     }
   }
   
+  /**
+   * Report the origin of this node as the trigger of an error that passes
+   * through a visit, unless a nested visit already reported it.
+   * Kept out of the protocol methods above, such that those stay small.
+   */
+  protected final void triggered(Throwable t){
+    if (thrown.get()!=t){
+      Message("Triggered by %s:",getOrigin());
+      thrown.set(t);
+    }
+  }
+
   /**
    * Map implemented using the result field of a visitor. 
    * @param visitor
@@ -225,26 +340,67 @@ public abstract class ASTNode implements ASTFlags {
   public long getUniqueID(){
     return id;
   }
+
+  /**
+   * Cached structural hash of this node, or 0 if it has not been computed.
+   * See {@link vct.col.util.StructuralEquality#hash(ASTNode)}.
+   */
+  @NonStructural
+  private int structural_hash=0;
+
+  public int getStructuralHash(){
+    return structural_hash;
+  }
+
+  public void setStructuralHash(int hash){
+    structural_hash=hash;
+  }
   
+  @NonStructural
   private Type t=null;
 
   public Type getType() {
     return t;
   }
+  /**
+   * Set the type of this node.
+   *
+   * A shared node is typed by every check of every declaration it occurs in.
+   * Only leaves whose type does not depend on their context are shared, so
+   * every check gives it an equal type. Hence a shared node keeps its first
+   * type, and an attempt to give it a different type is an error. Checks that
+   * run concurrently may both set the first type, but those types are equal.
+   */
   public void setType(Type t){
+    if (shared && this.t!=null){
+      if (!this.t.equals(t)){
+        Abort("cannot change the type of shared %s from %s to %s",getClass().getSimpleName(),this.t,t);
+      }
+      return;
+    }
     this.t=t;
   }
   
+  @NonStructural
   private ASTNode parent;
   
+  /**
+   * Get the parent of this node. A shared node may have many parents,
+   * so asking for the parent of a shared node is an error.
+   */
   public ASTNode getParent(){
+    if (shared) Abort("shared %s has no unique parent",getClass().getSimpleName());
     return parent;
   }
 
+  /**
+   * Set the parent of this node. Shared nodes do not record their parents.
+   */
   public void setParent(ASTNode parent){
     if (parent==null){
       throw new Error("illegal null parent");
     }
+    if (shared) return;
     if (this.parent==parent){
       Warning("setting the same parent twice");
     }
@@ -292,25 +448,40 @@ public abstract class ASTNode implements ASTFlags {
     if (label.getKind()!=NameExpression.Kind.Label) {
       Abort("cannot label with %s of kind %s",label,label.getKind());
     }
-    labelset.add(label);
+    checkNotShared();
+    Extra extra=extra();
+    if (extra.labelset==null){
+      extra.labelset=new ArrayList<NameExpression>(1);
+    }
+    extra.labelset.add(label);
   }
   
   /**
    * Allow iteration over the set of labels.
    */
   public Iterable<NameExpression> getLabels(){
-    return labelset;
+    if (extra==null || extra.labelset==null){
+      List<NameExpression> none=Collections.emptyList();
+      return none;
+    }
+    return extra.labelset;
   }
 
   public NameExpression getLabel(int i){
-    return labelset.get(i);
+    if (extra==null || extra.labelset==null){
+      throw new IndexOutOfBoundsException("node has no labels");
+    }
+    return extra.labelset.get(i);
   }
   public int labels() {
-    return labelset.size();
+    return (extra==null || extra.labelset==null)?0:extra.labelset.size();
   }
   
   public void clearLabels() {
-    labelset.clear();    
+    if (extra!=null && extra.labelset!=null){
+      checkNotShared();
+      extra.labelset=null;
+    }
   }
   
 
@@ -327,44 +498,44 @@ public abstract class ASTNode implements ASTFlags {
     return false;
   }
   
-  private HashSet<ASTNode> predecessors;
-  
   public void setPredecessor(ASTNode item){
-    if (predecessors!=null){
+    checkNotShared();
+    Extra extra=extra();
+    if (extra.predecessors!=null){
       Abort("predecessors is not null");
     }
-    predecessors=new HashSet<ASTNode>();
-    predecessors.add(item);
+    extra.predecessors=new HashSet<ASTNode>();
+    extra.predecessors.add(item);
   }
   
   public void setPredecessor(Set<ASTNode> init){
-    if (predecessors!=null){
+    checkNotShared();
+    Extra extra=extra();
+    if (extra.predecessors!=null){
       Abort("predecessors is not null");
     }
-    predecessors=new HashSet<ASTNode>(init);
+    extra.predecessors=new HashSet<ASTNode>(init);
   }
 
   public void addPredecessor(ASTNode item){
-    if (predecessors==null){
+    if (extra==null || extra.predecessors==null){
       Abort("predecessors is null");
     }
-    predecessors.add(item);
+    extra.predecessors.add(item);
   }
   public void addPredecessor(Set<ASTNode> items){
-    if (predecessors==null){
+    if (extra==null || extra.predecessors==null){
       Abort("predecessors is null");
     }
-    predecessors.addAll(items);
+    extra.predecessors.addAll(items);
   }
 
   public Set<ASTNode> getPredecessors(){
-    return predecessors;
+    return extra==null?null:extra.predecessors;
   }
 
   public void attach(ASTNode ... annotation_list) {
-    if (annotations==null){
-      annotations=new ASTList();
-    }
+    if (annotation_list.length>0) checkNotShared();
     for (ASTNode annotation : annotation_list){
       if (annotation instanceof NameExpression){
         NameExpression name=(NameExpression)annotation;
@@ -384,19 +555,20 @@ public abstract class ASTNode implements ASTFlags {
           }
         }
       }
-      annotations.add(annotation);
+      annotations().add(annotation);
     }
   }
 
   public ASTList annotations(){
-    if (annotations==null){
-      annotations=new ASTList();
+    Extra extra=extra();
+    if (extra.annotations==null){
+      extra.annotations=new ASTList();
     }
-    return annotations;
+    return extra.annotations;
   }
   
   public boolean annotated(){
-    return annotations!=null && annotations.size()>0; 
+    return extra!=null && extra.annotations!=null && extra.annotations.size()>0; 
   }
 
   public boolean isReserved(ASTReserved any) {
@@ -433,6 +605,7 @@ public abstract class ASTNode implements ASTFlags {
   }
 
   public ASTNode set_branch(String branch) {
+    checkNotShared();
     origin=new BranchOrigin(branch,origin);
     return this;
   }
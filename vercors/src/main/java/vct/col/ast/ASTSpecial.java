@@ -6,6 +6,8 @@ import vct.util.ClassName;
 
 public class ASTSpecial extends ASTDeclaration {
 
+  private static final long serialVersionUID = 1L;
+
   public ASTNode getArg(int i){
     return args[i];
   }
@@ -134,28 +136,12 @@ public class ASTSpecial extends ASTDeclaration {
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
-      throw t;
-    }
+    return map.map(this);
   }
  
   @Override
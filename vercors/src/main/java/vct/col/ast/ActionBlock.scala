@@ -3,7 +3,6 @@ package vct.col.ast
 import scala.collection.JavaConversions.mapAsScalaMap
 import scala.collection.JavaConverters._
 import scala.collection.immutable.Map
-import vct.col.util.VisitorHelper
 
 /**
  * AST node that represent an action block for use in e.g. Histories and Futures/Processes.
@@ -16,7 +15,8 @@ import vct.col.util.VisitorHelper
  * @param map A mapping from identifiers (process variable names) to heap locations?
  * @param block The contents (statement block) of this action block
  */
-case class ActionBlock(val history:ASTNode, val fraction:ASTNode, val process:ASTNode, val action:ASTNode, val map:Map[String,ASTNode], val block:ASTNode) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class ActionBlock(val history:ASTNode, val fraction:ASTNode, val process:ASTNode, val action:ASTNode, val map:Map[String,ASTNode], val block:ASTNode) extends ASTNode {
   require(map != null, "The action block mapping is null")
   
   /** Added to retain compatibility with Java (by converting `map` to a Scala structure) */
@@ -27,6 +27,6 @@ case class ActionBlock(val history:ASTNode, val fraction:ASTNode, val process:AS
   def foreach(f:(String,ASTNode)=>Unit) = map.foreach { case (k,v) => f(k,v) }
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
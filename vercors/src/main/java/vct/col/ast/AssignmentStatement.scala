@@ -2,6 +2,7 @@ package vct.col.ast
 
 import hre.ast.MessageOrigin
 
+@SerialVersionUID(1L)
 case class AssignmentStatement(val location:ASTNode, val expression:ASTNode) extends ASTNode {
   
   def this(name:String, expression:ASTNode) = {
@@ -2,14 +2,14 @@ package vct.col.ast
 
 import scala.collection.JavaConverters._
 import scala.collection.mutable.ArrayBuffer
-import vct.col.util.VisitorHelper
 import vct.util.ClassName
 
 /**
  * @author sccblom, whmoortwijn
  * @note We may refactor the three mutable buffers if we first refactor `CheckHistoryAlgebra`.
  */
-case class AxiomaticDataType(override val name:String, val parameters:List[DeclarationStatement]) extends ASTDeclaration(name) with VisitorHelper {
+@SerialVersionUID(1L)
+case class AxiomaticDataType(override val name:String, val parameters:List[DeclarationStatement]) extends ASTDeclaration(name) {
   require(parameters != null, "The list of parameters is null")
   
   /** Constructs a new ADT from Java constructs */
@@ -44,7 +44,7 @@ case class AxiomaticDataType(override val name:String, val parameters:List[Decla
   }
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
   override def getDeclName = new ClassName(name)
 }
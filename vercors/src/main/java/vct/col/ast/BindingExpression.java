@@ -7,6 +7,8 @@ import static hre.lang.System.Abort;
 
 public class BindingExpression extends ExpressionNode {
 
+  private static final long serialVersionUID = 1L;
+
   @Override
   public <R,A> R accept_simple(ASTMapping1<R,A> map,A arg){
     return map.map(this,arg);
@@ -56,27 +58,11 @@ public class BindingExpression extends ExpressionNode {
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-    }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
-      throw t;
-    }
+    return map.map(this);
   }
 }
@@ -2,13 +2,13 @@ package vct.col.ast
 
 import scala.collection.JavaConverters._
 import scala.collection.mutable.ArrayBuffer
-import vct.col.util.VisitorHelper
 
 /**
  * AST node that represents a block of statements, that is, a sequence
  * "`S_1;...;S_n`" of (individual) statements `S_i`.
  */
-class BlockStatement extends ASTNode with ASTSequence[BlockStatement] with VisitorHelper {
+@SerialVersionUID(1L)
+class BlockStatement extends ASTNode with ASTSequence[BlockStatement] {
   /** The list of statements that constitutes the statement block. */
   private[this] val statements = new ArrayBuffer[ASTNode]
   
@@ -98,6 +98,6 @@ class BlockStatement extends ASTNode with ASTSequence[BlockStatement] with Visit
   override def size : Int = statements.length
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
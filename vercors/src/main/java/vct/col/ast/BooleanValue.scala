@@ -1,5 +1,6 @@
 package vct.col.ast
 
+@SerialVersionUID(1L)
 case class BooleanValue(val value:Boolean) extends Value {
   override def toString() = if (value) "true" else "false"
   override def equals(o:Any) = o.equals(value)
@@ -7,4 +7,5 @@ package vct.col.ast
  * @param decl The declaration that determines the exception type to handle (e.g. "`ExceptionType e`").
  * @param block The body statement block of the catch clause (e.g. the handler body "`S`").
  */
+@SerialVersionUID(1L)
 case class CatchClause(val decl:DeclarationStatement, val block:BlockStatement)
@@ -2,7 +2,6 @@ package vct.col.ast
 
 import hre.lang.System.Debug
 import scala.collection.JavaConverters._
-import vct.col.util.VisitorHelper
 
 object ClassType {
   val nullType = new ClassType("<<null>>")
@@ -24,7 +23,8 @@ object ClassType {
  * @param params A list of AST nodes representing the types of the class parameters
  * @author sccblom, whmoortwijn
  */
-case class ClassType(val names:List[String], val params:List[ASTNode]) extends Type(params) with VisitorHelper {
+@SerialVersionUID(1L)
+case class ClassType(val names:List[String], val params:List[ASTNode]) extends Type(params) {
   require(!names.isEmpty, "class types must have a name (at least one name part).")
   
   /** Constructs a new class type from Java constructs. */
@@ -37,10 +37,18 @@ case class ClassType(val names:List[String], val params:List[ASTNode]) extends T
   def this(names:Array[String]) = this(names, Array[ASTNode]())
   def this(name:String) = this(Array(name))
   
-  var definition : ASTDeclaration = null
+  @NonStructural var definition : ASTDeclaration = null
   
   def getName = names.last
   def getNameFull = names.toArray
+
+  @NonStructural @transient private[this] var class_name : vct.util.ClassName = null
+
+  /** Gives the name of this class type for looking up its declaration, which is computed only once. */
+  def getClassName : vct.util.ClassName = {
+    if (class_name == null) class_name = vct.util.ClassName.lookup(getNameFull:_*)
+    class_name
+  }
   def getFullName(separator:String) = names mkString separator
   def getFullName : String = getFullName(".")
   def setDefinition(decl:ASTDeclaration) = definition = decl
@@ -96,7 +104,7 @@ case class ClassType(val names:List[String], val params:List[ASTNode]) extends T
   override def zero = new NameExpression(ASTReserved.Null)
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
-  override def accept_simple[T](m:TypeMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
+  override def accept_simple[T](m:TypeMapping[T]) = m.map(this)
 }
@@ -1,7 +1,6 @@
 package vct.col.ast
 
 import hre.ast.Origin
-import vct.col.util.VisitorHelper
 
 /**
  * AST node for wrapping constant values, e.g. integers, booleans, strings, doubles, and longs.
@@ -9,7 +8,8 @@ import vct.col.util.VisitorHelper
  * @author sccblom, whmoortwijn
  * @param value The constant value that is wrapped by this node.
  */
-case class ConstantExpression(val value:Value) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class ConstantExpression(val value:Value) extends ASTNode {
   def this(v:Value, t:Type) = { this(v); setType(t) }
   def this(v:Value, t:Type, origin:Origin) = { this(v, t); setOrigin(origin) }
   def this(i:Int) = this(new IntegerValue(i), new PrimitiveType(PrimitiveSort.Integer))
@@ -25,8 +25,8 @@ case class ConstantExpression(val value:Value) extends ASTNode with VisitorHelpe
   def this(d:Double, origin:Origin) = { this(d); setOrigin(origin) }
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
   override def equals(o:Any) : Boolean = value.equals(o)
   override def isConstant(o:Any) : Boolean = equals(o)
   override def toString() : String = value.toString()
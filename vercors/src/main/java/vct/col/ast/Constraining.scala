@@ -1,9 +1,9 @@
 package vct.col.ast
 
 import scala.collection.JavaConverters._
-import vct.col.util.VisitorHelper
 
-case class Constraining(val block:BlockStatement, val vars:List[NameExpression]) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class Constraining(val block:BlockStatement, val vars:List[NameExpression]) extends ASTNode {
   require(vars != null, "The list of (constraining) vars is null.")
   
   /** Constructs a new constraining block from an array of variables.  */
@@ -13,6 +13,6 @@ case class Constraining(val block:BlockStatement, val vars:List[NameExpression])
   def varsJava = vars.asJava
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
@@ -10,6 +10,8 @@ import vct.col.util.ASTUtils;
 
 public class Contract extends ASTNode {
 
+  private static final long serialVersionUID = 1L;
+
   @Override
   public <R,A> R accept_simple(ASTMapping1<R,A> map,A arg){
     return map.map(this,arg);
@@ -117,28 +119,12 @@ public class Contract extends ASTNode {
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    return map.map(this);
   }
 
  
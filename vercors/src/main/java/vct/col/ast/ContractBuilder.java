@@ -4,11 +4,14 @@ package vct.col.ast;
 import hre.ast.CompositeOrigin;
 import hre.ast.FileOrigin;
 
+import java.io.Serializable;
 import java.util.*;
 
 import static vct.col.ast.Contract.default_true;
 
-public class ContractBuilder {
+public class ContractBuilder implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private boolean empty=true;
   
@@ -1,7 +1,6 @@
 package vct.col.ast
 
 import hre.lang.System.Debug
-import vct.col.util.VisitorHelper
 import vct.util.ClassName
 
 /**
@@ -12,7 +11,8 @@ import vct.util.ClassName
  * @param type The type of the declared variable, e.g. "`int`".
  * @param init Optionally, an expression that determines the initial value of the declared variable, e.g. "`2+4`".
  */
-case class DeclarationStatement(override val name:String, val `type`:Type, val init:Option[ASTNode]) extends ASTDeclaration(name) with VisitorHelper {
+@SerialVersionUID(1L)
+case class DeclarationStatement(override val name:String, val `type`:Type, val init:Option[ASTNode]) extends ASTDeclaration(name) {
   /**
    * Initialises a new AST node that represents a declaration statement without 
    * initial value, for example "`int test;`".
@@ -38,6 +38,6 @@ case class DeclarationStatement(override val name:String, val `type`:Type, val i
   }
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
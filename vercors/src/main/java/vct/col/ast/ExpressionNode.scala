@@ -2,6 +2,7 @@ package vct.col.ast
 
 import hre.ast.MessageOrigin;
 
+@SerialVersionUID(1L)
 abstract class ExpressionNode extends ASTNode with BeforeAfterAnnotations {
   /** 
    *  Block of proof hints to be executed just before
@@ -4,6 +4,8 @@ import hre.ast.MessageOrigin;
 
 public class ForEachLoop extends ASTNode implements BeforeAfterAnnotations {
 
+  private static final long serialVersionUID = 1L;
+
   public final DeclarationStatement decls[];
   public final ASTNode guard;
   public final ASTNode body;
@@ -32,28 +34,12 @@ public class ForEachLoop extends ASTNode implements BeforeAfterAnnotations {
 
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    return map.map(this);
   }
  
   /** Block of proof hints to be executed just before
@@ -1,7 +1,6 @@
 package vct.col.ast
 
 import scala.collection.JavaConverters._
-import vct.col.util.VisitorHelper
 
 /**
  * AST node representing function types (`T_0*...*T_n -> T`), where `params` is the
@@ -9,7 +8,8 @@ import vct.col.util.VisitorHelper
  * 
  * @author sccblom, whmoortwijn
  */
-case class FunctionType(val params:List[Type], val result:Type) extends Type with VisitorHelper {
+@SerialVersionUID(1L)
+case class FunctionType(val params:List[Type], val result:Type) extends Type {
   require(params != null, "The parameter list is null")
   require(result != null, "Function types should have a result type")
   
@@ -31,9 +31,9 @@ case class FunctionType(val params:List[Type], val result:Type) extends Type wit
   }
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
-  override def accept_simple[T](m:TypeMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
+  override def accept_simple[T](m:TypeMapping[T]) = m.map(this)
   override def supertypeof(context:ProgramUnit, otherType:Type) = false
   override val zero = null
 }
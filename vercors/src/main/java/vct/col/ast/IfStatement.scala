@@ -2,15 +2,16 @@ package vct.col.ast
 
 import hre.ast.MessageOrigin;
 import scala.collection.mutable.ArrayBuffer
-import vct.col.util.VisitorHelper
 
 object IfStatement {
   val elseGuard = new ConstantExpression(true, new MessageOrigin("else guard"))
 }
 
+@SerialVersionUID(1L)
 case class IfStatementCase(var guard:ASTNode, var effect:ASTNode)
 
-class IfStatement extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+class IfStatement extends ASTNode {
   private[this] val cases = new ArrayBuffer[IfStatementCase]()
   
   def getCount = cases.size
@@ -31,6 +32,6 @@ class IfStatement extends ASTNode with VisitorHelper {
   }
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
@@ -1,6 +1,7 @@
 package vct.col.ast
 
 /** Represents a constant integer with value "`value`". */
+@SerialVersionUID(1L)
 case class IntegerValue(val value:Int) extends Value {
   override def toString() = Integer.toString(value)
   override def equals(o:Any) = o.equals(value)
@@ -1,6 +1,5 @@
 package vct.col.ast
 
-import vct.col.util.VisitorHelper
 
 /**
  * This class represents magic wand proofs, a.k.a. create blocks.
@@ -8,8 +7,9 @@ import vct.col.util.VisitorHelper
  * @author sccblom, whmoortwijn
  * @param block The block representing the lemma (for the magic wand proof).
  */
-case class Lemma(val block:BlockStatement) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class Lemma(val block:BlockStatement) extends ASTNode {
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package vct.col.ast
 
+@SerialVersionUID(1L)
 case class LongValue(val value:Long) extends Value {
   override def equals(obj:Any) = obj.equals(this.value)
   override def toString() = value.toString()
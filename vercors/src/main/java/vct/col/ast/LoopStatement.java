@@ -7,11 +7,14 @@ import vct.col.util.ASTUtils;
 
 public class LoopStatement extends ASTNode implements BeforeAfterAnnotations {
 
+  private static final long serialVersionUID = 1L;
+
   @Override
   public <R,A> R accept_simple(ASTMapping1<R,A> map,A arg){
     return map.map(this,arg);
   }
 
+  @NonStructural
   private ContractBuilder cb=new ContractBuilder(); 
   private Contract contract;
   private ASTNode body;
@@ -81,28 +84,12 @@ public class LoopStatement extends ASTNode implements BeforeAfterAnnotations {
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    return map.map(this);
   }
  
 
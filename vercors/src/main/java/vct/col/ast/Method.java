@@ -16,6 +16,8 @@ import static hre.lang.System.Debug;
  */
 public class Method extends ASTDeclaration {
 
+  private static final long serialVersionUID = 1L;
+
   public static final String JavaConstructor = "<<constructor>>";
 
   @Override
@@ -200,28 +202,12 @@ public class Method extends ASTDeclaration {
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
-      throw t;
-    }
+    return map.map(this);
   }
  
 
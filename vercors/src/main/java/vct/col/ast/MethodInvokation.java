@@ -14,6 +14,8 @@ import static hre.lang.System.*;
  */
 public class MethodInvokation extends ExpressionNode {
 
+  private static final long serialVersionUID = 1L;
+
   @Override
   public <R,A> R accept_simple(ASTMapping1<R,A> map,A arg){
     return map.map(this,arg);
@@ -21,6 +23,7 @@ public class MethodInvokation extends ExpressionNode {
 
   public final ASTNode object;
   public final String method;
+  @NonStructural
   private Method definition;
   private ASTNode args[];
   public final ClassType dispatch;
@@ -42,28 +45,12 @@ public class MethodInvokation extends ExpressionNode {
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    return map.map(this);
   }
  
 
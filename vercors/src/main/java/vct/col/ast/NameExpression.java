@@ -8,6 +8,8 @@ package vct.col.ast;
  */
 public class NameExpression extends ASTNode {
 
+  private static final long serialVersionUID = 1L;
+
   @Override
   public <R,A> R accept_simple(ASTMapping1<R,A> map,A arg){
     return map.map(this,arg);
@@ -42,6 +44,7 @@ public class NameExpression extends ASTNode {
   /** The kind of the definition being referenced. */
   private Kind kind;
   /** The site where this name was defined. */
+  @NonStructural
   private ASTNode site;
   
   public NameExpression(ASTReserved name){
@@ -80,28 +83,12 @@ public class NameExpression extends ASTNode {
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    return map.map(this);
   }
  
   public String toString(){ return name; }
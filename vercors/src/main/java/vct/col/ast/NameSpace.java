@@ -9,6 +9,8 @@ import vct.util.ClassName;
 
 public class NameSpace extends ASTDeclaration implements ASTSequence<NameSpace> {
 
+  private static final long serialVersionUID = 1L;
+
   public static class Import {
     
     public final boolean static_import;
@@ -48,41 +50,17 @@ public class NameSpace extends ASTDeclaration implements ASTSequence<NameSpace>
 
   @Override
   public <R,A> R accept_simple(ASTMapping1<R,A> map,A arg){
-    try {
-      return map.map(this,arg);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    return map.map(this,arg);
   }
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-      }
-      throw t;
-    }
+    return map.map(this);
   }
   /**
    * A namespace contains declarations.
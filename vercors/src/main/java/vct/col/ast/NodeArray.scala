@@ -0,0 +1,31 @@
+package vct.col.ast
+
+import scala.collection.immutable.IndexedSeq
+
+/**
+ * An immutable sequence of AST nodes, backed by an array.
+ * 
+ * Indexing and taking the length take constant time. Java code can iterate
+ * without allocating by indexing, or use the read-only view `asJava`.
+ */
+@SerialVersionUID(1L)
+final class NodeArray private (private[this] val nodes:Array[ASTNode]) extends IndexedSeq[ASTNode] with Serializable {
+  override def apply(i:Int) = nodes(i)
+  override def length = nodes.length
+  
+  /** Provides a read-only Java view (as `java.util.List`) of the nodes, without copying them. */
+  def asJava : java.util.List[ASTNode] = new java.util.AbstractList[ASTNode] with java.util.RandomAccess {
+    override def get(i:Int) = nodes(i)
+    override def size = nodes.length
+  }
+}
+
+object NodeArray {
+  /** Copies the given array, such that later changes to it do not affect the result. */
+  def apply(nodes:Array[ASTNode]) = new NodeArray(nodes.clone)
+  
+  def apply(nodes:Seq[ASTNode]) = nodes match {
+    case array:NodeArray => array
+    case _ => new NodeArray(nodes.toArray)
+  }
+}
@@ -0,0 +1,17 @@
+package vct.col.ast;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of a node that is not part of the structure of the tree,
+ * such as a field that is derived from the tree or that links to other parts
+ * of the program. Such fields are skipped by
+ * {@link vct.col.util.StructuralEquality}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface NonStructural {
+}
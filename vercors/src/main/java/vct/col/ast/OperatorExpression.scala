@@ -2,17 +2,20 @@ package vct.col.ast
 
 import hre.ast.FileOrigin
 import scala.collection.JavaConverters._
-import vct.col.util.VisitorHelper
 
-case class OperatorExpression(val operator:StandardOperator, val args:List[ASTNode]) extends ExpressionNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class OperatorExpression(val operator:StandardOperator, val args:NodeArray) extends ExpressionNode {
   require(args != null, "The argument list is null")
   require(operator.arity < 0 || args.length == operator.arity, "Wrong number of arguments for $operator: got ${args.length}, but expected ${operator.arity}")  
   require(args.forall(v => v != null), "None of the ${args.length} arguments should be null")
 	
   /** Constructs a new operator expression from an array of arguments */
-  def this(operator:StandardOperator, args:Array[ASTNode]) = this(operator, args.toList)
+  def this(operator:StandardOperator, args:Array[ASTNode]) = this(operator, NodeArray(args))
   
-  /** Gives a Java wrapper (as a `java.util.List`) for the list of arguments. */
+  /** Constructs a new operator expression from a list of arguments */
+  def this(operator:StandardOperator, args:List[ASTNode]) = this(operator, if (args == null) null else NodeArray(args))
+  
+  /** Gives a read-only Java view (as a `java.util.List`) of the arguments, without copying them. */
   def argsJava = args.asJava
   
   /** Yields the first argument, equivalent to `arg(0)`. */
@@ -24,16 +27,16 @@ case class OperatorExpression(val operator:StandardOperator, val args:List[ASTNo
   /** Yields the third argument, equivalent to `arg(2)`. */
   def third = arg(2)
   
-  /** Yields the number of arguments. Beware, `argslength` takes linear time, not constant time. */
+  /** Yields the number of arguments. */
   def argslength = args.length
   
   /** Either yields the `i`-th argument, or `None` if there is no such argument. */
   def argOption(i:Int) = args.lift(i)
   
   /** Yields the `i`-th argument, or throws an exception if there is no such argument. */
-  def arg(i:Int) = argOption(i) match {
-    case None => throw new Error("the operator $operator does not have an argument $i.")
-    case Some(argument) => argument
+  def arg(i:Int) = {
+    if (i < 0 || i >= args.length) throw new Error(s"the operator $operator does not have an argument $i.")
+    args(i)
   }
   
   /** Merges the (file) origins of the leftmost and rightmost argument, provided there
@@ -53,7 +56,7 @@ case class OperatorExpression(val operator:StandardOperator, val args:List[ASTNo
   }
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
   override def isa(op:StandardOperator) = op == operator
 }
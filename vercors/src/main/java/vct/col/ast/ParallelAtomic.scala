@@ -1,9 +1,9 @@
 package vct.col.ast
 
 import scala.collection.JavaConverters._
-import vct.col.util.VisitorHelper
 
-case class ParallelAtomic(val block:BlockStatement, val synclist:List[ASTNode]) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class ParallelAtomic(val block:BlockStatement, val synclist:List[ASTNode]) extends ASTNode {
   require(synclist != null, "The list of synchronisation elements is null")
   
   /** Constructs a parallel atomic block from an array of synchronisation elements */
@@ -13,6 +13,6 @@ case class ParallelAtomic(val block:BlockStatement, val synclist:List[ASTNode])
   def synclistJava = synclist.asJava
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
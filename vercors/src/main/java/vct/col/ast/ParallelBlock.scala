@@ -1,9 +1,9 @@
 package vct.col.ast
 
 import scala.collection.JavaConverters._
-import vct.col.util.VisitorHelper
 
-case class ParallelBlock (val label:String, val contract:Contract, val iters:List[DeclarationStatement], val block:BlockStatement, val deps:Array[ASTNode]) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class ParallelBlock (val label:String, val contract:Contract, val iters:List[DeclarationStatement], val block:BlockStatement, val deps:Array[ASTNode]) extends ASTNode {
   require(deps != null, "dependency array is null")
   require(iters != null, "iteration list is null")
   
@@ -29,6 +29,6 @@ case class ParallelBlock (val label:String, val contract:Contract, val iters:Lis
   def dependency(i:Int, value:ASTNode) = deps(i) = value
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
@@ -1,9 +1,9 @@
 package vct.col.ast
 
-import vct.col.util.VisitorHelper
 
-case class ParallelInvariant(val label:String, val inv:ASTNode, val block:BlockStatement) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class ParallelInvariant(val label:String, val inv:ASTNode, val block:BlockStatement) extends ASTNode {
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
@@ -1,9 +1,9 @@
 package vct.col.ast
 
 import scala.collection.JavaConverters._
-import vct.col.util.VisitorHelper
 
-case class ParallelRegion(val contract:Contract, val blocks:List[ParallelBlock]) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class ParallelRegion(val contract:Contract, val blocks:List[ParallelBlock]) extends ASTNode {
   require(blocks != null, "The list of blocks is null.")
   
   /** Constructs a new parallel region from an array of blocks. */
@@ -16,6 +16,6 @@ case class ParallelRegion(val contract:Contract, val blocks:List[ParallelBlock])
   def blocksJava = blocks.asJava
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
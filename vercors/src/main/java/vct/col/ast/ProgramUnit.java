@@ -2,10 +2,17 @@ package vct.col.ast;
 
 import hre.ast.MessageOrigin;
 
+import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import vct.col.ast.ASTClass.ClassKind;
 import vct.col.util.ASTFactory;
@@ -19,7 +26,9 @@ import static hre.lang.System.*;
  * @author sccblom
  *
  */
-public class ProgramUnit implements ASTSequence<ProgramUnit> {
+public class ProgramUnit implements ASTSequence<ProgramUnit>, Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   public String toString(){
     return vct.util.Configuration.getDiagSyntax().print(this).toString();
@@ -35,7 +44,7 @@ public class ProgramUnit implements ASTSequence<ProgramUnit> {
     return format;
   }
   
-  private static HashMap<ClassName,ASTClass> library=new HashMap<ClassName, ASTClass>();
+  private static Hashtable<ClassName,ASTClass> library=new Hashtable<ClassName, ASTClass>();
   
   static {
     ASTFactory<?> create=new ASTFactory<Object>();
@@ -43,13 +52,13 @@ public class ProgramUnit implements ASTSequence<ProgramUnit> {
     ASTClass seq=create.ast_class("seq", ClassKind.Plain, null,null, null);
     Method len=create.function_decl(create.primitive_type(PrimitiveSort.Integer), null, "length", new DeclarationStatement[0], null);
     seq.add_dynamic(len);
-    library.put(new ClassName("seq"),seq);
+    library.put(ClassName.intern("seq"),seq);
     //ASTClass var=create.ast_class("var", ClassKind.Plain, null, null);
     
   }
 
   public void library_add(ClassName name,ASTClass cl){
-    library.put(name,cl);
+    library.put(name.intern(),cl);
   }
 
   /**
@@ -106,6 +115,103 @@ public class ProgramUnit implements ASTSequence<ProgramUnit> {
     
   }
   
+  /**
+   * Declarations whose type annotations are up to date.
+   */
+  private Set<ASTDeclaration> checked=Collections.newSetFromMap(new IdentityHashMap<ASTDeclaration,Boolean>());
+  
+  /**
+   * Names declared by the declarations that have changed since the last type check.
+   */
+  private HashSet<String> changed_names=new HashSet<String>();
+  
+  public boolean isChecked(ASTDeclaration decl){
+    return checked.contains(decl);
+  }
+  
+  /**
+   * Record that all declarations have been type checked.
+   */
+  public void setChecked(){
+    checked.clear();
+    for(ASTDeclaration decl:program){
+      checked.add(decl);
+    }
+    changed_names.clear();
+  }
+  
+  /**
+   * Record that the given declaration has been type checked.
+   */
+  public void setChecked(ASTDeclaration decl){
+    checked.add(decl);
+  }
+  
+  /**
+   * Forget about previous type checks, for example because
+   * the declarations have been modified in place.
+   */
+  public void clearChecked(){
+    checked.clear();
+    changed_names.clear();
+    mentioned=null;
+  }
+
+  /**
+   * The names mentioned by checked declarations, as far as they are known.
+   */
+  private transient IdentityHashMap<ASTDeclaration,Set<String>> mentioned;
+
+  /**
+   * Get the names mentioned by a checked declaration, or null if they are not known.
+   */
+  public Set<String> getMentioned(ASTDeclaration decl){
+    return mentioned==null?null:mentioned.get(decl);
+  }
+
+  /**
+   * Record the names mentioned by a checked declaration.
+   */
+  public void setMentioned(ASTDeclaration decl,Set<String> names){
+    if (mentioned==null) mentioned=new IdentityHashMap<ASTDeclaration,Set<String>>();
+    mentioned.put(decl,names);
+  }
+  
+  public Set<String> changedNames(){
+    return changed_names;
+  }
+
+  /**
+   * For declarations that a rewriter made, the declaration of its source
+   * that they are the rewrite of. Only kept for incremental type checks.
+   */
+  private transient IdentityHashMap<ASTDeclaration,ASTDeclaration> sources;
+
+  /**
+   * Record that a declaration of this program is the rewrite of a declaration
+   * of another program, if type checks are incremental.
+   */
+  public synchronized void setSource(ASTDeclaration decl,ASTDeclaration source){
+    if (!Configuration.incremental_check.get()) return;
+    if (sources==null) sources=new IdentityHashMap<ASTDeclaration,ASTDeclaration>();
+    sources.put(decl,source);
+  }
+
+  /**
+   * Get the declaration that a declaration of this program is the rewrite of,
+   * or null if that is unknown.
+   */
+  public synchronized ASTDeclaration getSource(ASTDeclaration decl){
+    return sources==null?null:sources.get(decl);
+  }
+
+  /**
+   * Forget where the declarations of this program came from.
+   */
+  public synchronized void clearSources(){
+    sources=null;
+  }
+
   public void add(ASTDeclaration n){
     program.add(n);
     if (n instanceof NameSpace){
@@ -126,34 +232,42 @@ public class ProgramUnit implements ASTSequence<ProgramUnit> {
   }
 
   public void add(String prefix[],ASTDeclaration n){
+    if (n instanceof ASTClass){
+      ASTClass cl=(ASTClass)n;
+      cl.attach(this,cl.getDeclName().prepend(prefix).intern());
+    }
+    index(prefix,n,true);
+  }
+
+  /**
+   * Add a declaration to, or remove it from, the indexes of this program.
+   */
+  private void index(String prefix[],ASTDeclaration n,boolean add){
     ClassName n1=n.getDeclName();
     if (n1==null){
-      if (n instanceof ASTSpecial){
-        
-      } else {
+      if (add && !(n instanceof ASTSpecial)){
         System.err.printf("null named declaration %n%s%n",Configuration.getDiagSyntax().print(n));
       }
     } else {
-      ClassName n2=n1.prepend(prefix);
-      decl_map.put(n2,n);
+      update(decl_map,n1.prepend(prefix).intern(),n,add);
     }
     if (n instanceof Method){
       Method m=(Method)n;
-      proc_map.put(m.getDeclName().prepend(prefix),m);
+      update(proc_map,m.getDeclName().prepend(prefix).intern(),m,add);
     }
     if (n instanceof ASTClass){
       ASTClass cl=(ASTClass)n;
       Debug("indexing %s as %s",cl.name(), cl.getDeclName());
-      cl.attach(this,cl.getDeclName().prepend(prefix));
-      classes.put(cl.getDeclName().prepend(prefix),cl);
+      ClassName name=cl.getDeclName().prepend(prefix).intern();
+      update(classes,name,cl,add);
       for(Method m : cl.staticMethods()){
         if (m.kind==Method.Kind.Predicate){
-          decl_map.put(m.getDeclName().prepend(prefix),m);
+          update(decl_map,m.getDeclName().prepend(prefix).intern(),m,add);
         }          
       }
       for(Method m : cl.dynamicMethods()){
         if (m.kind==Method.Kind.Predicate){
-          decl_map.put(m.getDeclName().prepend(prefix),m);
+          update(decl_map,m.getDeclName().prepend(prefix).intern(),m,add);
         }
       }
     }
@@ -161,13 +275,79 @@ public class ProgramUnit implements ASTSequence<ProgramUnit> {
       AxiomaticDataType adt=(AxiomaticDataType)n;
       for(Method m:adt.constructorsJava()){
         Debug("putting adt entry %s",m.getDeclName().toString("."));
-        adt_map.put(m.getDeclName().prepend(prefix),m);
+        update(adt_map,m.getDeclName().prepend(prefix).intern(),m,add);
       }
       for(Method m:adt.mappingsJava()){
-        adt_map.put(m.getDeclName().prepend(prefix),m);
+        update(adt_map,m.getDeclName().prepend(prefix).intern(),m,add);
       }
     }    
   }
+
+  private static <V> void update(Map<ClassName,V> map,ClassName name,V value,boolean add){
+    if (add){
+      map.put(name,value);
+    } else if (map.get(name)==value) {
+      map.remove(name);
+    }
+  }
+
+  private void index(ASTDeclaration n,boolean add){
+    if (n instanceof NameSpace){
+      NameSpace ns=(NameSpace)n;
+      String prefix[]=ns.name().equals(NameSpace.NONAME)?new String[0]:ns.getDeclName().name;
+      for(ASTNode nn:ns){
+        index(prefix,(ASTDeclaration)nn,add);
+      }
+    } else {
+      index(new String[0],n,add);
+    }
+    if (n instanceof ASTClass){
+      index_nested((ASTClass)n,add);
+    }
+  }
+
+  private void index_nested(ASTSequence<?> seq,boolean add){
+    for(Object n:seq){
+      if(n instanceof ASTClass){
+        ASTClass cl=(ASTClass)n;
+        update(classes,cl.getDeclName(),cl,add);
+        index_nested(cl,add);
+      }
+    }
+  }
+
+  /**
+   * Create a program with the declarations of another program that does not
+   * become their parent. Such a view can be changed one declaration at a time
+   * with {@link #substitute(int, List)}, without changing the declarations.
+   */
+  public static ProgramUnit view(ProgramUnit source){
+    ProgramUnit res=new ProgramUnit();
+    res.setSpecificationFormat(source.getSpecificationFormat());
+    for(ASTDeclaration decl:source.get()){
+      res.program.add(decl);
+      res.index(decl,true);
+    }
+    res.indexed=true;
+    return res;
+  }
+
+  /**
+   * Replace the declaration at a position of a view by a list of declarations.
+   * Only the index entries of the declarations involved are updated.
+   */
+  public void substitute(int pos,List<ASTDeclaration> by){
+    index(program.get(pos),false);
+    if (by.size()==1){
+      program.set(pos,by.get(0));
+    } else {
+      program.remove(pos);
+      program.addAll(pos,by);
+    }
+    for(ASTDeclaration decl:by){
+      index(decl,true);
+    }
+  }
  
   public Iterable<ASTClass> classes() {
     return classes.values();
@@ -184,7 +364,7 @@ public class ProgramUnit implements ASTSequence<ProgramUnit> {
   }
 
   public ASTClass find(String ... name) {
-    return find(new ClassName(name));
+    return find(ClassName.lookup(name));
   }
 
   public ASTClass find(ClassName name) {
@@ -202,25 +382,25 @@ public class ProgramUnit implements ASTSequence<ProgramUnit> {
   }
 
   public ASTClass find(ClassType type) {
-    return find(new ClassName(type.getNameFull()));
+    return find(type.getClassName());
   }
 
   public Method find_predicate(String[] nameFull) {
-    String [] class_name=Arrays.copyOf(nameFull, nameFull.length-1);
+    ClassName class_name=ClassName.lookup(nameFull, nameFull.length-1);
     ASTClass cl=find(class_name);
     if (cl==null) {
-      Debug("class %s not found",class_name[class_name.length-1]);
+      Debug("class %s not found",nameFull[nameFull.length-2]);
       return null;
     }
     Method m=cl.find_predicate(nameFull[nameFull.length-1]);
     if (m==null){
-      Debug("predicate %s not found in class %s",nameFull[nameFull.length-1],class_name[0]);
+      Debug("predicate %s not found in class %s",nameFull[nameFull.length-1],nameFull[0]);
     }
     return m;
   }
 
   public ASTDeclaration find_decl(String[] nameFull) {
-    ClassName class_name=new ClassName(nameFull);
+    ClassName class_name=ClassName.lookup(nameFull);
     ASTDeclaration res=decl_map.get(class_name);
     if (res==null){
       res=library.get(class_name);
@@ -229,12 +409,12 @@ public class ProgramUnit implements ASTSequence<ProgramUnit> {
   }
   
   public Method find_adt(String ... nameFull) {
-    ClassName class_name=new ClassName(nameFull);
+    ClassName class_name=ClassName.lookup(nameFull);
     return adt_map.get(class_name);
   }
   
   public Method find_procedure(String ... nameFull) {
-    ClassName class_name=new ClassName(nameFull);
+    ClassName class_name=ClassName.lookup(nameFull);
     return proc_map.get(class_name);
   }
 
@@ -275,7 +455,13 @@ public class ProgramUnit implements ASTSequence<ProgramUnit> {
     }
   }
   
+  /**
+   * Records if nested classes have been indexed.
+   */
+  private boolean indexed=false;
+  
   public void index_classes(){
+    indexed=true;
     index_classes(this);
   }
 }
@@ -1,9 +1,9 @@
 package vct.col.ast
 
 import hre.lang.System.Abort
-import vct.col.util.VisitorHelper
 
 /** A single type entry of a record type (only used in `RecordType`). */
+@SerialVersionUID(1L)
 case class RecordTypeEntry(val fieldName:String, val fieldType:Type)
 
 /**
@@ -12,7 +12,8 @@ case class RecordTypeEntry(val fieldName:String, val fieldType:Type)
  * 
  * @todo I think `types` should be an immutable map
  */
-case class RecordType(val types:List[RecordTypeEntry]) extends Type with VisitorHelper {
+@SerialVersionUID(1L)
+case class RecordType(val types:List[RecordTypeEntry]) extends Type {
   require(types != null, "The record type is null")
   require(!types.isEmpty, "Record types must have at least one field entry.")
   
@@ -32,7 +33,7 @@ case class RecordType(val types:List[RecordTypeEntry]) extends Type with Visitor
   override def supertypeof(context:ProgramUnit, t:Type) = false
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
-  override def accept_simple[T](m:TypeMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
+  override def accept_simple[T](m:TypeMapping[T]) = m.map(this)
 }
@@ -66,8 +66,9 @@ public class RecursiveVisitor<T> extends ASTFrame<T> implements ASTVisitor<T> {
   
   @Override
   public void visit(OperatorExpression e) {
-    for (ASTNode arg : e.argsJava()) {
-      arg.accept(this);
+    int N=e.argslength();
+    for (int i=0;i<N;i++) {
+      e.arg(i).accept(this);
     }    
   }
 
@@ -2,7 +2,6 @@ package vct.col.ast
 
 import hre.ast.Origin
 import hre.ast.MessageOrigin
-import vct.col.util.VisitorHelper
 
 /**
  * AST node that represents a return statement, which is either
@@ -13,7 +12,8 @@ import vct.col.util.VisitorHelper
  * this return statement. Invariably, if {@code expression} equals 
  * "{@code Some(e)}", then "{@code e}" is not {@code null}.
  */
-class ReturnStatement(private[this] val expression:Option[ASTNode]) extends ASTNode with BeforeAfterAnnotations with VisitorHelper {
+@SerialVersionUID(1L)
+class ReturnStatement(private[this] val expression:Option[ASTNode]) extends ASTNode with BeforeAfterAnnotations {
   /**
    * A block of proof hints to be executed just before
    * evaluating the expression represented by this AST node.
@@ -129,6 +129,6 @@ class ReturnStatement(private[this] val expression:Option[ASTNode]) extends ASTN
   }
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
@@ -1,6 +1,5 @@
 package vct.col.ast
 
-import vct.col.util.VisitorHelper
 
 /**
   Simple class that wraps a `StandardOperator` as an AST node.
@@ -11,8 +10,9 @@ import vct.col.util.VisitorHelper
   @param `operator` The (standard) operator that is wrapped.
   @author sccblom, whmoortwijn
  */
-case class StandardProcedure(val operator:StandardOperator) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+case class StandardProcedure(val operator:StandardOperator) extends ASTNode {
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package vct.col.ast
 
 /** Represents a constant string with value "`value`". */
+@SerialVersionUID(1L)
 case class StringValue(val value:String) extends Value {
   override def equals(o:Any) = o.equals(value)
   override def toString = value
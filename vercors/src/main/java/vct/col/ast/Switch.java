@@ -5,6 +5,8 @@ import java.util.Arrays;
 
 public class Switch extends ASTNode {
 
+  private static final long serialVersionUID = 1L;
+
   public static class Case {
     public final ArrayList<ASTNode> cases=new ArrayList<ASTNode>();
     public final ArrayList<ASTNode> stats=new ArrayList<ASTNode>();
@@ -18,28 +20,12 @@ public class Switch extends ASTNode {
   
   @Override
   public <T> void accept_simple(ASTVisitor<T> visitor){
-    try {
-      visitor.visit(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-     }
-      throw t;
-    }
+    visitor.visit(this);
   }
   
   @Override
   public <T> T accept_simple(ASTMapping<T> map){
-    try {
-      return map.map(this);
-    } catch (Throwable t){
-      if (thrown.get()!=t){
-        System.err.printf("Triggered by %s:%n",getOrigin());
-        thrown.set(t);
-    }
-      throw t;
-    }
+    return map.map(this);
   }
  
   public final ASTNode expr;
@@ -2,7 +2,6 @@ package vct.col.ast
 
 import scala.collection.JavaConverters._
 import scala.collection.mutable.ArrayBuffer
-import vct.col.util.VisitorHelper
 
 /**
  * AST node that represents a try-catch-finally block.
@@ -12,7 +11,8 @@ import vct.col.util.VisitorHelper
  * @param after The body of the "finally" clause.
  * @param catchClauses An (ordered) list of "catch" clauses.
  */
-class TryCatchBlock(val main:BlockStatement, val after:BlockStatement, private[this] val catchClauses:ArrayBuffer[CatchClause]) extends ASTNode with VisitorHelper {
+@SerialVersionUID(1L)
+class TryCatchBlock(val main:BlockStatement, val after:BlockStatement, private[this] val catchClauses:ArrayBuffer[CatchClause]) extends ASTNode {
   /** Initialises a try-catch-finally block without any catch-clauses. */
   def this(main:BlockStatement, after:BlockStatement) = this(main, after, new ArrayBuffer[CatchClause]())
   
@@ -30,6 +30,6 @@ class TryCatchBlock(val main:BlockStatement, val after:BlockStatement, private[t
     catchClauses += new CatchClause(decl, block)
 
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
 }
@@ -1,7 +1,6 @@
 package vct.col.ast
 
 import scala.collection.JavaConverters._
-import vct.col.util.VisitorHelper
 
 /**
  * AST node that represents `n`-tuple types, where the type
@@ -10,7 +9,8 @@ import vct.col.util.VisitorHelper
  * @param types The (immutable) list of types that constitutes the tuple type.
  * @author sccblom, whmoortwijn
  */
-case class TupleType(val types:List[Type]) extends Type with VisitorHelper {
+@SerialVersionUID(1L)
+case class TupleType(val types:List[Type]) extends Type {
   require(types != null, "The tuple types list is null.")
   require(!types.isEmpty, "Tuple types must have at least one type entry.")
   
@@ -24,7 +24,7 @@ case class TupleType(val types:List[Type]) extends Type with VisitorHelper {
   override def supertypeof(context:ProgramUnit, t:Type) = false
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
-  override def accept_simple[T](m:TypeMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
+  override def accept_simple[T](m:TypeMapping[T]) = m.map(this)
 }
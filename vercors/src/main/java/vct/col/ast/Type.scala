@@ -12,6 +12,7 @@ import scala.collection.JavaConverters._
  * @param args A list of type arguments (e.g. class parameters)
  * @author sccblom, whmoortwijn
  */
+@SerialVersionUID(1L)
 abstract class Type(val args:List[ASTNode]) extends ASTNode {
   def this(args:Array[ASTNode]) = this(args.toList)
   def this() = this(List())
@@ -52,9 +53,15 @@ abstract class Type(val args:List[ASTNode]) extends ASTNode {
   }
   
   final def apply[T](map:TypeMapping[T]) : T = {
-    map.pre_map(this)
-    var result = accept_simple(map)
-    map.post_map(this, result)
+    try {
+      map.pre_map(this)
+      var result = accept_simple(map)
+      map.post_map(this, result)
+    } catch {
+      case t:Throwable =>
+        triggered(t)
+        throw t
+    }
   }
   
   def comparableWith(context:ProgramUnit, t:Type) = {
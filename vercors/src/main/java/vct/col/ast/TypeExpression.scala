@@ -1,9 +1,9 @@
 package vct.col.ast
 
 import scala.collection.JavaConverters._
-import vct.col.util.VisitorHelper
 
-case class TypeExpression(val operator:TypeOperator, val types:List[Type]) extends Type with VisitorHelper {
+@SerialVersionUID(1L)
+case class TypeExpression(val operator:TypeOperator, val types:List[Type]) extends Type {
   require(types != null, "The types list is null")
   
   /** Constructs a new type expression from an array of types */
@@ -21,8 +21,8 @@ case class TypeExpression(val operator:TypeOperator, val types:List[Type]) exten
   }
   
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
-  override def accept_simple[T](m:TypeMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
+  override def accept_simple[T](m:TypeMapping[T]) = m.map(this)
   override def supertypeof(context:ProgramUnit, t:Type) = false
 }
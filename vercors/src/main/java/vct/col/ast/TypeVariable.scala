@@ -1,16 +1,16 @@
 package vct.col.ast
 
-import vct.col.util.VisitorHelper
 
-case class TypeVariable(val name:String) extends Type with VisitorHelper {
+@SerialVersionUID(1L)
+case class TypeVariable(val name:String) extends Type {
   override def isNumeric() = false
   override def hashCode() = name.hashCode();
   override def supertypeof(context:ProgramUnit, t:Type) = false
 
   override def accept_simple[T,A](m:ASTMapping1[T,A], arg:A) = m.map(this, arg)
-  override def accept_simple[T](v:ASTVisitor[T]) = handle_standard(() => v.visit(this))
-  override def accept_simple[T](m:ASTMapping[T]) = handle_standard(() => m.map(this))
-  override def accept_simple[T](m:TypeMapping[T]) = handle_standard(() => m.map(this))
+  override def accept_simple[T](v:ASTVisitor[T]) = v.visit(this)
+  override def accept_simple[T](m:ASTMapping[T]) = m.map(this)
+  override def accept_simple[T](m:TypeMapping[T]) = m.map(this)
   
   override def equals(o:Any) = o match {
     case tv:TypeVariable => tv.name.equals(this.name)
@@ -2,13 +2,16 @@ package vct.col.rewrite;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import hre.ast.MessageOrigin;
 import hre.ast.Origin;
@@ -18,6 +21,7 @@ import vct.col.ast.Switch.Case;
 import vct.col.util.ASTFactory;
 import vct.col.util.ASTUtils;
 import vct.col.util.LambdaHelper;
+import vct.col.util.LeafInterner;
 import vct.col.util.NameScanner;
 
 /**
@@ -100,6 +104,49 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
    * Prevent automatic copying of labels.
    */
   protected boolean auto_labels=true;
+
+  /**
+   * The source nodes that have been returned as their own rewrite,
+   * or null if this rewriter always makes copies.
+   */
+  private Set<ASTNode> reused=null;
+
+  /**
+   * Let this rewriter return unchanged expressions of the source
+   * instead of copies, if enabled by the share-unchanged option.
+   *
+   * The default rewrite of an expression or type is the original node
+   * if the rewrites of all its children are the original children.
+   * Hence, the target shares all subtrees that were not changed with
+   * the source, which must not be used after the rewrite.
+   * Nodes that have a parent, such as statements and declarations, are
+   * always copied, because a node can only have one parent.
+   * A node is returned at most once, such that no node occurs twice
+   * in the target unless it occurs twice in the source.
+   *
+   * This is only meant for rewriters that perform a pass, not for
+   * rewriters that are used to copy parts of a program.
+   */
+  public void shareUnchanged(){
+    if (vct.util.Configuration.share_unchanged.get() && reused==null){
+      reused=Collections.newSetFromMap(new IdentityHashMap<ASTNode,Boolean>());
+    }
+  }
+
+  /**
+   * Check if the node being visited may be returned as its own rewrite,
+   * given that its children are unchanged.
+   */
+  private boolean reuse(ASTNode n){
+    if (reused==null) return false;
+    if (n.isShared()) return true;
+    if (n.getParent()!=null || n.labels()>0 || n.annotated()) return false;
+    if (n instanceof ExpressionNode){
+      ExpressionNode e=(ExpressionNode)n;
+      if (e.get_before()!=null || e.get_after()!=null) return false;
+    }
+    return reused.add(n);
+  }
   
   /**
    * This variable references an AST factory, whose Origin is set to
@@ -149,8 +196,11 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
     if (n.isSpecial(Kind.Fold)||n.isSpecial(Kind.Unfold)){
       fold_unfold=false;
     }
-    if (result==n) Debug("rewriter linked instead of making a copy"); 
+    if (result==n && reused==null) Debug("rewriter linked instead of making a copy"); 
     if (result!=null && result!=n) {
+      if (result.isShared() && (n.labels()>0 || n.hasFlags() || n.annotated())){
+        result=LeafInterner.copy(result);
+      }
       if (auto_labels){
         ASTNode tmp=result;
         copy_labels(tmp,n);
@@ -290,10 +340,18 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
     ASTNode object=rewrite(e.object);
     int N=e.getArity();
     ASTNode args[]=new ASTNode[N];
+    boolean same=object==e.object;
     for(int i=0;i<N;i++){
       args[i]=e.getArg(i).apply(this);
+      same=same && args[i]==e.getArg(i);
+    }
+    ClassType dispatch=rewrite(e.dispatch);
+    same=same && dispatch==e.dispatch;
+    if (same && reuse(e)){
+      result=e;
+      return;
     }
-    MethodInvokation res=create.invokation(object,rewrite(e.dispatch),e.method,args);
+    MethodInvokation res=create.invokation(object,dispatch,e.method,args);
     res.set_before(rewrite(e.get_before()));
     res.set_after(rewrite(e.get_after()));
     result=res;
@@ -357,6 +415,14 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
 
   public void visit(ClassType t){
     //checkPermission(t);
+    if (t.argsJava().isEmpty() && reuse(t)){
+      result=t;
+      return;
+    }
+    if (t.argsJava().isEmpty() && create.interning()){
+      result=create.class_type(t.getOrigin(),t.getNameFull());
+      return;
+    }
     ClassType res = new ClassType(t.getNameFull(), rewrite(t.argsJava()));
     res.setOrigin(t.getOrigin());
     result=res;
@@ -371,6 +437,10 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
   @Override
   public void visit(ConstantExpression e) {
     //checkPermission(e);
+    if (reuse(e)){
+      result=e;
+      return;
+    }
     result=new ConstantExpression(e.value(),e.getType(),e.getOrigin());
   }
   
@@ -478,6 +548,15 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
   @Override
   public void visit(NameExpression e) {
     //checkPermission(e);
+    if (reuse(e)){
+      result=e;
+      return;
+    }
+    if (e.getKind()==NameExpression.Kind.Reserved && create.interning()
+        && ASTFactory.shareable(e.reserved())){
+      result=create.reserved_name(e.reserved());
+      return;
+    }
     NameExpression res=new NameExpression(e.getKind(),e.reserved(),e.getName());
     res.setOrigin(e.getOrigin());
     result=res;
@@ -488,10 +567,16 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
     //checkPermission(e);
     StandardOperator op=e.operator();
     
-    List<ASTNode> args = new LinkedList<ASTNode>();
-    for (ASTNode arg : e.argsJava()) {
-			ASTNode aa = arg.apply(this);
-      args.add(aa);
+    int N=e.argslength();
+    ASTNode args[] = new ASTNode[N];
+    boolean same=true;
+    for (int i=0;i<N;i++) {
+      args[i] = e.arg(i).apply(this);
+      same=same && args[i]==e.arg(i);
+    }
+    if (same && reuse(e)){
+      result=e;
+      return;
     }
     
     OperatorExpression res = create.expression(op, args);
@@ -503,6 +588,14 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
 
   public void visit(PrimitiveType t){
     //checkPermission(t);
+    if (t.argsJava().isEmpty() && reuse(t)){
+      result=t;
+      return;
+    }
+    if (t.argsJava().isEmpty() && t.getOrigin()!=null && create.interning()){
+      result=create.primitive_type(t.getOrigin(),t.sort);
+      return;
+    }
     PrimitiveType res=new PrimitiveType(t.sort,rewrite(t.argsJava()));
     if (t.getOrigin()!=null){
       res.setOrigin(t);
@@ -540,10 +633,15 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
    * @return The result of the rewrite.
    */
   public ProgramUnit rewriteAll() {
+    shareUnchanged();
+    if (ParallelRewriter.enabled(this)){
+      return ParallelRewriter.rewriteAll(this);
+    }
     for(ASTDeclaration n:source().get()){
-        ASTNode tmp=rewrite(n);
+        ASTDeclaration tmp=rewrite(n);
         if (tmp!=null){
           target().add(tmp);
+          target().setSource(tmp,n);
         }
     }
     target().index_classes();
@@ -563,6 +661,7 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
       ASTClass tmp=rewrite(cl);
       if (tmp!=null){
         target().add(tmp);
+        target().setSource(tmp,cl);
       }
     }
   }
@@ -572,14 +671,16 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
    * @return The result of the rewrite.
    */
   public ProgramUnit rewriteOrdered() {
+    shareUnchanged();
     HashSet<ASTClass> done=new HashSet<ASTClass>();
     for(ASTNode n:source().get()){
         if (n instanceof ASTClass) {
           rewriteOrdered(done,(ASTClass)n);
         } else {
-          ASTNode tmp=rewrite(n);
+          ASTDeclaration tmp=rewrite((ASTDeclaration)n);
           if (tmp!=null){
             target().add(tmp);
+            target().setSource(tmp,(ASTDeclaration)n);
           }
         }
     }
@@ -588,7 +689,12 @@ public class AbstractRewriter extends AbstractVisitor<ASTNode> {
 
   @Override
   public void visit(Dereference e) {
-    result = create.dereference(e.obj().apply(this), e.field());
+    ASTNode obj=e.obj().apply(this);
+    if (obj==e.obj() && reuse(e)){
+      result=e;
+      return;
+    }
+    result = create.dereference(obj, e.field());
   }
   
   @Override
@@ -10,7 +10,7 @@ import vct.col.ast.StandardOperator;
  * 
  * @author Stefan Blom
  */ 
-public class AssignmentRewriter extends AbstractRewriter {
+public class AssignmentRewriter extends AbstractRewriter implements Fusible {
 
   public AssignmentRewriter(ProgramUnit source) {
     super(source);
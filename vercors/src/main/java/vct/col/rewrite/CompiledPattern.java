@@ -0,0 +1,239 @@
+package vct.col.rewrite;
+
+import java.util.HashMap;
+
+import hre.lang.HREError;
+import vct.col.ast.*;
+import vct.col.util.ASTUtils;
+
+/**
+ * Left-hand side of a rewrite rule, compiled into a tree of tests that are
+ * specialised to the constructs of the pattern.
+ *
+ * A compiled pattern makes the same tests in the same order as
+ * {@link MatchLinear}, but it does not dispatch through the visitor and it
+ * binds the variables of the rule in an array instead of a table.
+ * Patterns that {@link MatchLinear} would reject with an error are not
+ * compiled, so those rules keep failing in the same way.
+ */
+abstract class CompiledPattern {
+
+  /**
+   * Match a term.
+   *
+   * @param term The term.
+   * @param slots The values of the variables, which are null if unbound.
+   * @return true if the term matches.
+   */
+  abstract boolean match(ASTNode term,ASTNode slots[]);
+
+  /**
+   * Compile a left-hand side.
+   *
+   * @param lhs The left-hand side.
+   * @param vars The variables of the rule, in the order of their slots.
+   * @return The compiled pattern, or null if the pattern is not supported.
+   */
+  static CompiledPattern compile(ASTNode lhs,String vars[]){
+    HashMap<String,Integer> slots=new HashMap<String,Integer>();
+    for(int i=0;i<vars.length;i++){
+      slots.put(vars[i],i);
+    }
+    return compile(lhs,slots);
+  }
+
+  private static CompiledPattern compile(ASTNode lhs,HashMap<String,Integer> slots){
+    if (lhs instanceof ConstantExpression){
+      return new Constant((ConstantExpression)lhs);
+    }
+    if (lhs instanceof NameExpression){
+      String name=((NameExpression)lhs).getName();
+      Integer slot=slots.get(name);
+      if (slot==null) return new Name(name);
+      return new Variable(slot);
+    }
+    if (lhs instanceof OperatorExpression){
+      OperatorExpression e=(OperatorExpression)lhs;
+      if (e.isa(StandardOperator.IndependentOf)){
+        if (!(e.arg(1) instanceof NameExpression)) return null;
+        Integer slot=slots.get(((NameExpression)e.arg(1)).getName());
+        CompiledPattern arg=compile(e.arg(0),slots);
+        if (slot==null || arg==null) return null;
+        return new IndependentOf(slot,arg);
+      }
+      CompiledPattern args[]=compile(e.argsJava().toArray(new ASTNode[0]),slots);
+      if (args==null) return null;
+      return new Operator(e.operator(),args);
+    }
+    if (lhs instanceof MethodInvokation){
+      MethodInvokation e=(MethodInvokation)lhs;
+      if (e.object==null) return null;
+      CompiledPattern object=compile(e.object,slots);
+      CompiledPattern args[]=compile(e.getArgs(),slots);
+      if (object==null || args==null) return null;
+      return new Invokation(e.method,object,args);
+    }
+    if (lhs instanceof Dereference){
+      Dereference e=(Dereference)lhs;
+      CompiledPattern obj=compile(e.obj(),slots);
+      if (obj==null) return null;
+      return new Field(e.field(),obj);
+    }
+    if (lhs instanceof BindingExpression){
+      BindingExpression e=(BindingExpression)lhs;
+      if (e.getDeclCount()!=1 || e.select==null || e.main==null) return null;
+      Integer slot=slots.get(e.getDeclaration(0).name());
+      CompiledPattern select=compile(e.select,slots);
+      CompiledPattern main=compile(e.main,slots);
+      if (slot==null || select==null || main==null) return null;
+      return new Binding(e.binder,slot,select,main);
+    }
+    return null;
+  }
+
+  private static CompiledPattern[] compile(ASTNode lhs[],HashMap<String,Integer> slots){
+    CompiledPattern res[]=new CompiledPattern[lhs.length];
+    for(int i=0;i<lhs.length;i++){
+      res[i]=compile(lhs[i],slots);
+      if (res[i]==null) return null;
+    }
+    return res;
+  }
+
+  private static class Constant extends CompiledPattern {
+    private final ConstantExpression value;
+    Constant(ConstantExpression value){
+      this.value=value;
+    }
+    @Override
+    boolean match(ASTNode term,ASTNode slots[]){
+      return term.isConstant(value);
+    }
+  }
+
+  private static class Name extends CompiledPattern {
+    private final String name;
+    Name(String name){
+      this.name=name;
+    }
+    @Override
+    boolean match(ASTNode term,ASTNode slots[]){
+      return term.isName(name);
+    }
+  }
+
+  private static class Variable extends CompiledPattern {
+    private final int slot;
+    Variable(int slot){
+      this.slot=slot;
+    }
+    @Override
+    boolean match(ASTNode term,ASTNode slots[]){
+      ASTNode value=slots[slot];
+      if (value==null){
+        slots[slot]=term;
+        return true;
+      }
+      if (value instanceof DeclarationStatement){
+        return term.isName(((DeclarationStatement)value).name());
+      }
+      return value.match(term);
+    }
+  }
+
+  private static class IndependentOf extends CompiledPattern {
+    private final int slot;
+    private final CompiledPattern arg;
+    IndependentOf(int slot,CompiledPattern arg){
+      this.slot=slot;
+      this.arg=arg;
+    }
+    @Override
+    boolean match(ASTNode term,ASTNode slots[]){
+      ASTNode value=slots[slot];
+      if (value instanceof DeclarationStatement){
+        return !ASTUtils.find_name(term,((DeclarationStatement)value).name()) && arg.match(term,slots);
+      }
+      return false;
+    }
+  }
+
+  private static class Operator extends CompiledPattern {
+    private final StandardOperator op;
+    private final CompiledPattern args[];
+    Operator(StandardOperator op,CompiledPattern args[]){
+      this.op=op;
+      this.args=args;
+    }
+    @Override
+    boolean match(ASTNode term,ASTNode slots[]){
+      if (!term.isa(op)) return false;
+      OperatorExpression e=(OperatorExpression)term;
+      if (args.length!=e.argslength()) return false;
+      for(int i=0;i<args.length;i++){
+        if (!args[i].match(e.arg(i),slots)) return false;
+      }
+      return true;
+    }
+  }
+
+  private static class Invokation extends CompiledPattern {
+    private final String method;
+    private final CompiledPattern object;
+    private final CompiledPattern args[];
+    Invokation(String method,CompiledPattern object,CompiledPattern args[]){
+      this.method=method;
+      this.object=object;
+      this.args=args;
+    }
+    @Override
+    boolean match(ASTNode term,ASTNode slots[]){
+      if (!(term instanceof MethodInvokation)) return false;
+      MethodInvokation e=(MethodInvokation)term;
+      if (!method.equals(e.method)) return false;
+      if (!object.match(e.object,slots)) return false;
+      for(int i=0;i<args.length;i++){
+        if (!args[i].match(e.getArg(i),slots)) return false;
+      }
+      return true;
+    }
+  }
+
+  private static class Field extends CompiledPattern {
+    private final String field;
+    private final CompiledPattern obj;
+    Field(String field,CompiledPattern obj){
+      this.field=field;
+      this.obj=obj;
+    }
+    @Override
+    boolean match(ASTNode term,ASTNode slots[]){
+      if (!(term instanceof Dereference)) return false;
+      Dereference e=(Dereference)term;
+      return field.equals(e.field()) && obj.match(e.obj(),slots);
+    }
+  }
+
+  private static class Binding extends CompiledPattern {
+    private final Binder binder;
+    private final int slot;
+    private final CompiledPattern select;
+    private final CompiledPattern main;
+    Binding(Binder binder,int slot,CompiledPattern select,CompiledPattern main){
+      this.binder=binder;
+      this.slot=slot;
+      this.select=select;
+      this.main=main;
+    }
+    @Override
+    boolean match(ASTNode term,ASTNode slots[]){
+      if (slots[slot]!=null) throw new HREError("non-linear left-hand side");
+      if (!(term instanceof BindingExpression)) return false;
+      BindingExpression e=(BindingExpression)term;
+      if (e.getDeclCount()!=1) return false;
+      slots[slot]=e.getDeclaration(0);
+      if (e.binder!=binder) return false;
+      return select.match(e.select,slots) && main.match(e.main,slots);
+    }
+  }
+}
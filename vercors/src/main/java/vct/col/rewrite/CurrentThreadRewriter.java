@@ -10,6 +10,8 @@ import vct.col.util.OriginWrapper;
 
 class IllegalThreadLocalOrigin extends WrappingOrigin {
 
+  private static final long serialVersionUID = 1L;
+
   public final  Origin other;
   
   public IllegalThreadLocalOrigin(Origin other){
@@ -18,7 +18,7 @@ import vct.col.ast.Type;
  * @author Stefan Blom
  *
  */
-public class FinalizeArguments extends AbstractRewriter {
+public class FinalizeArguments extends AbstractRewriter implements Fusible {
 
   public FinalizeArguments(ProgramUnit source) {
     super(source);
@@ -6,7 +6,7 @@ import java.util.Stack;
 
 import vct.col.ast.*;
 
-public class Flatten extends AbstractRewriter {
+public class Flatten extends AbstractRewriter implements Fusible {
 
   public Flatten(ProgramUnit source) {
     super(source);
@@ -18,7 +18,52 @@ public class Flatten extends AbstractRewriter {
   private Stack<BlockStatement> block_stack=new Stack<BlockStatement>();
   private BlockStatement current_block=null;
   private BlockStatement declaration_block=null;
-  private static long counter=0;
+  
+  /**
+   * Number of the last name generated in the current method.
+   * Generated names are local variables, so they are numbered per method,
+   * after the generated names that the method already contains.
+   * Hence the numbering does not depend on the order in which
+   * methods are rewritten.
+   */
+  private long counter=0;
+  
+  private static final String prefix="__flatten_";
+  
+  /**
+   * Finds the highest number of a generated name in a declaration.
+   */
+  private static class NameScanner extends RecursiveVisitor<Object> {
+    
+    public long last=0;
+    
+    public NameScanner(){
+      super(null,null);
+    }
+    
+    @Override
+    public void visit(DeclarationStatement d){
+      String name=d.name();
+      if (name.startsWith(prefix)){
+        try {
+          last=Math.max(last,Long.parseLong(name.substring(prefix.length())));
+        } catch (NumberFormatException e) {
+          // not a generated name.
+        }
+      }
+      super.visit(d);
+    }
+  }
+  
+  private static long last_name(Method m){
+    NameScanner scanner=new NameScanner();
+    m.accept(scanner);
+    return scanner.last;
+  }
+  
+  private String fresh_name(){
+    return prefix+(++counter);
+  }
   
   @Override
   public void visit(ASTSpecial s){
@@ -40,7 +85,7 @@ public class Flatten extends AbstractRewriter {
     for(int i=0;i<N;i++){
       args[i]=e.getArg(i).apply(this);
     }
-    String name="__flatten_"+(++counter);
+    String name=fresh_name();
     if (e.getType()==null){
       Abort("result type of call unknown at %s",e.getOrigin());
     }
@@ -92,7 +137,7 @@ public class Flatten extends AbstractRewriter {
       ASTNode arg=e.arg(0);
       ASTNode arg_out=arg.apply(this);
       
-      String name="__flatten_"+(++counter);
+      String name=fresh_name();
       if (expression){
         declaration_block.addStatement(create.field_decl(name,e.getType(),null));
       }
@@ -112,7 +157,7 @@ public class Flatten extends AbstractRewriter {
       StandardOperator op=e.operator()==StandardOperator.PostIncr?StandardOperator.Plus:StandardOperator.Minus;
       ASTNode arg=e.arg(0);
       ASTNode arg_out=arg.apply(this);
-      String name="__flatten_"+(++counter);
+      String name=fresh_name();
       declaration_block.addStatement(create.field_decl(name,e.getType(),null));
       current_block.addStatement(create.assignment(create.local_name(name),arg_out));
       current_block.addStatement(create.assignment(arg_out,create.expression(op,arg_out,create.constant(1))));
@@ -201,7 +246,7 @@ public class Flatten extends AbstractRewriter {
   private ASTNode add_as_var(ASTNode e){
     create.enter();
     create(e);
-    String name="__flatten_"+(++counter);
+    String name=fresh_name();
     if (e.getType()==null){
       Abort("result type unknown at %s",e.getOrigin());
     }
@@ -289,6 +334,7 @@ public class Flatten extends AbstractRewriter {
     if (body!=null) {
       if (body instanceof BlockStatement) {
         // if block
+        counter=last_name(m);
         block_stack.push(current_block);
         current_block=create.block();
         declaration_block=current_block;
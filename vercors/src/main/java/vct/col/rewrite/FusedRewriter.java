@@ -0,0 +1,97 @@
+package vct.col.rewrite;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+import hre.lang.HREError;
+import vct.col.ast.ASTDeclaration;
+import vct.col.ast.ASTNode;
+import vct.col.ast.ProgramUnit;
+
+/**
+ * Runs a sequence of {@link Fusible} rewriters in one traversal of the program.
+ *
+ * Instead of rewriting the whole program with every rewriter in turn,
+ * each top-level declaration is passed through all rewriters before
+ * the next declaration is rewritten. Hence, the intermediate programs
+ * are never built in full and the intermediate declarations become
+ * garbage as soon as the next rewriter has processed them.
+ *
+ * Every rewriter, except the first, sees a view of the source program in which
+ * the declarations that have been processed are replaced by the output of the
+ * previous rewriter, while the declarations that have not been processed yet
+ * are still the original ones. Views do not take over the declarations, so the
+ * source program is not changed. Because fusible rewriters only depend on the
+ * names of other declarations, the result is the same as running the rewriters
+ * one after another.
+ */
+public class FusedRewriter {
+
+  /**
+   * Check if a rewriter class may be fused.
+   */
+  public static boolean fusible(Class<? extends AbstractRewriter> rewriter){
+    return Fusible.class.isAssignableFrom(rewriter);
+  }
+
+  /**
+   * Rewrite a program with a sequence of fusible rewriters.
+   *
+   * @param source The program to be rewritten.
+   * @param stages The classes of the rewriters, in the order in which they are applied.
+   * @return The result of the last rewriter.
+   */
+  public static ProgramUnit rewriteAll(ProgramUnit source,List<Class<? extends AbstractRewriter>> stages){
+    int N=stages.size();
+    AbstractRewriter rewriters[]=new AbstractRewriter[N];
+    // the position of the current declaration in the source of every stage.
+    int pos[]=new int[N];
+    for(int i=0;i<N;i++){
+      rewriters[i]=create(stages.get(i),i==0?source:ProgramUnit.view(source));
+    }
+    for(ASTDeclaration decl:source.get()){
+      List<ASTDeclaration> items=new ArrayList<ASTDeclaration>();
+      items.add(decl);
+      for(int i=0;i<N;i++){
+        ProgramUnit target=rewriters[i].target();
+        int first=target.size();
+        for(ASTDeclaration item:items){
+          ASTNode tmp=rewriters[i].rewrite(item);
+          if (tmp!=null){
+            target.add(tmp);
+          }
+        }
+        items=new ArrayList<ASTDeclaration>();
+        for(int j=first;j<target.size();j++){
+          items.add(target.get(j));
+        }
+        if (i+1<N){
+          rewriters[i+1].source().substitute(pos[i+1],items);
+          pos[i+1]+=items.size();
+        }
+      }
+      if (items.size()==1){
+        rewriters[N-1].target().setSource(items.get(0),decl);
+      }
+    }
+    for(int i=0;i<N;i++){
+      rewriters[i].target().index_classes();
+    }
+    return rewriters[N-1].target();
+  }
+
+  private static AbstractRewriter create(Class<? extends AbstractRewriter> stage,ProgramUnit source){
+    if (!fusible(stage)){
+      throw new HREError("rewriter %s cannot be fused",stage.getName());
+    }
+    try {
+      Constructor<? extends AbstractRewriter> cons=stage.getConstructor(ProgramUnit.class);
+      AbstractRewriter res=cons.newInstance(source);
+      res.shareUnchanged();
+      return res;
+    } catch (Exception e) {
+      throw new HREError("cannot create rewriter %s: %s",stage.getName(),e);
+    }
+  }
+}
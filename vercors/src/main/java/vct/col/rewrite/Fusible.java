@@ -0,0 +1,19 @@
+package vct.col.rewrite;
+
+/**
+ * Marks rewriters that may be fused with other rewriters by
+ * {@link FusedRewriter}.
+ *
+ * A fusible rewriter must satisfy the following contract:
+ * <ul>
+ * <li>It rewrites each top-level declaration independently:
+ *     the result may depend on the declaration itself and on the names
+ *     of the other declarations in the source program, but not on their
+ *     contents.</li>
+ * <li>It does not override {@link AbstractRewriter#rewriteAll()}.</li>
+ * <li>It has a constructor that takes the source program as its only argument.</li>
+ * </ul>
+ */
+public interface Fusible {
+
+}
@@ -19,7 +19,8 @@ public class InlineMarking extends RecursiveVisitor<Object> {
   public void enter(ASTNode n){
     super.enter(n);
     Origin o=n.getOrigin();
-    if (o!=null){
+    // shared leaves keep their original origin.
+    if (o!=null && !n.isShared()){
       n.clearOrigin();
       n.setOrigin(new InlineOrigin(location,o));
     }
@@ -22,6 +22,21 @@ public class InlineMethod extends Substitution {
 
   private static AtomicInteger count=new AtomicInteger();
   
+  /**
+   * Get the number of prefixes generated so far.
+   */
+  public static int getCount(){
+    return count.get();
+  }
+  
+  /**
+   * Make sure that generated prefixes are numbered after the given count,
+   * for example after resuming from a snapshot.
+   */
+  public static void skipCount(int n){
+    count.accumulateAndGet(n,Math::max);
+  }
+  
   public void inline(BlockStatement block, String return_name, String return_label, Method m,ASTNode object, ASTNode[] args,Origin source) {
     create.enter();
     BranchOrigin branch=new BranchOrigin("inlined code at "+source,source);
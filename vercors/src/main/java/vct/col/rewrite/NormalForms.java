@@ -0,0 +1,165 @@
+package vct.col.rewrite;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hre.ast.MessageOrigin;
+import hre.ast.Origin;
+import hre.config.BooleanSetting;
+import hre.config.IntegerSetting;
+import vct.col.ast.ASTNode;
+import vct.col.util.StructuralEquality;
+
+/**
+ * Bounded table of the normal forms of terms with respect to one rule set,
+ * shared by the normalizations of whole programs with that rule set.
+ *
+ * A normal form is only used for a term with the same origins, because
+ * the origins of a normal form are taken from the term.
+ * Passes copy terms with their origins, so this still finds
+ * the terms that are duplicated by passes or normalized more than once.
+ * Message origins with the same text count as the same origin, because
+ * they cannot be told apart and they are created for every hint block.
+ * Likewise, an empty block of hints counts as no block, because
+ * asking an expression for its hints creates an empty block.
+ * The table only stores private copies, because terms that are part of a
+ * program may be changed later on. When it is full, the least recently used
+ * term is forgotten.
+ *
+ * A table is thread-safe. The statistics are global.
+ */
+public class NormalForms {
+
+  /**
+   * Let normalizations reuse the normal forms of terms that they have seen before.
+   */
+  public static final BooleanSetting enabled=new BooleanSetting(false);
+
+  /**
+   * The number of terms kept per rule set across normalizations.
+   */
+  public static final IntegerSetting size=new IntegerSetting(10000);
+
+  private static final AtomicLong hits=new AtomicLong();
+
+  private static final AtomicLong misses=new AtomicLong();
+
+  private static final AtomicLong evictions=new AtomicLong();
+
+  /**
+   * Considers message origins with the same text and empty blocks of hints
+   * and missing blocks of hints to be equal.
+   */
+  private static final StructuralEquality.Equivalence lenient=new StructuralEquality.Equivalence(){
+    @Override
+    public Boolean equivalent(Object o1,Object o2){
+      if (o1 instanceof MessageOrigin && o2 instanceof MessageOrigin){
+        return o1.toString().equals(o2.toString());
+      }
+      if (StructuralEquality.no_hints(o1) && StructuralEquality.no_hints(o2)) return true;
+      return null;
+    }
+  };
+
+  /**
+   * A term, which is compared including origins. Its hash only depends
+   * on the origin of the term itself, so that it can be computed from the
+   * cached structural hash.
+   */
+  static final class Key {
+
+    final ASTNode term;
+
+    private final int hash;
+
+    Key(ASTNode term){
+      this(term,StructuralEquality.hash(term)*31+hash(term.getOrigin()));
+    }
+
+    private static int hash(Origin origin){
+      if (origin instanceof MessageOrigin) return origin.toString().hashCode();
+      return origin==null?0:origin.hashCode();
+    }
+
+    /**
+     * Create a key for a copy of a term.
+     *
+     * @param hash The hash of the key of the original term.
+     */
+    Key(ASTNode term,int hash){
+      this.term=term;
+      this.hash=hash;
+    }
+
+    @Override
+    public int hashCode(){
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o){
+      if (!(o instanceof Key)) return false;
+      Key other=(Key)o;
+      return hash==other.hash && StructuralEquality.equal(term,other.term,lenient);
+    }
+  }
+
+  private final LinkedHashMap<Key,ASTNode> table=new LinkedHashMap<Key,ASTNode>(16,0.75f,true){
+    private static final long serialVersionUID = 1L;
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key,ASTNode> eldest){
+      if (size()>NormalForms.size.get()){
+        evictions.incrementAndGet();
+        return true;
+      }
+      return false;
+    }
+  };
+
+  /**
+   * Find the normal form of a term.
+   *
+   * @return The normal form, which must be copied before use, or null if it is unknown.
+   */
+  synchronized ASTNode get(Key key){
+    return table.get(key);
+  }
+
+  /**
+   * Remember the normal form of a term.
+   *
+   * @param key The key of a private copy of the term.
+   * @param normal A private copy of the normal form.
+   */
+  synchronized void put(Key key,ASTNode normal){
+    table.put(key,normal);
+  }
+
+  /**
+   * Forget all normal forms.
+   */
+  public synchronized void clear(){
+    table.clear();
+  }
+
+  /**
+   * Count a look up of a term.
+   *
+   * @param hit The term was found in a table.
+   */
+  static void count(boolean hit){
+    if (hit) hits.incrementAndGet();
+    else misses.incrementAndGet();
+  }
+
+  /**
+   * Describe how effective the tables have been so far.
+   */
+  public static String statistics(){
+    long reused=hits.get();
+    long total=reused+misses.get();
+    return String.format("reused %d of %d (%.1f%%), %d forgotten",
+        reused,total,total==0?0.0:(100.0*reused)/total,evictions.get());
+  }
+}
@@ -33,7 +33,36 @@ public class ParallelBlockEncoder extends AbstractRewriter {
         ErrorCode.InvariantBroken);
   }
 
-  private int count=0;
+  /**
+   * Counts the parallel blocks, barriers and regions encoded so far.
+   * The counters are global, so names stay unique when the encoding is
+   * done more than once, and they are saved in snapshots.
+   */
+  private static final AtomicInteger count=new AtomicInteger();
+  
+  /**
+   * Get the number of blocks, barriers and regions encoded so far.
+   */
+  public static int getCount(){
+    return count.get();
+  }
+  
+  /**
+   * Get the number of send and receive statements encoded so far.
+   */
+  public static int getCounter(){
+    return counter.get();
+  }
+  
+  /**
+   * Make sure that generated names are numbered after the given counts,
+   * for example after resuming from a snapshot.
+   */
+  public static void skipCounts(int count,int counter){
+    ParallelBlockEncoder.count.accumulateAndGet(count,Math::max);
+    ParallelBlockEncoder.counter.accumulateAndGet(counter,Math::max);
+  }
+  
   private Stack<ASTNode> inv_blocks=new Stack<ASTNode>();
   private Stack<ParallelBlock> blocks=new Stack<ParallelBlock>();
   
@@ -188,9 +217,9 @@ public class ParallelBlockEncoder extends AbstractRewriter {
       }
     }
     check_cb.appendInvariant(pb.contract().invariant);
-    count++;
-    String main_name="barrier_main_"+count;
-    String check_name="barrier_check_"+count;
+    int N=count.incrementAndGet();
+    String main_name="barrier_main_"+N;
+    String check_name="barrier_check_"+N;
     rewrite(pb.contract(), main_cb);
     for(ASTNode ib:inv_blocks){
       if (ib instanceof ParallelInvariant){
@@ -222,8 +251,7 @@ public class ParallelBlockEncoder extends AbstractRewriter {
 
   @Override
   public void visit(ParallelRegion region){
-    count++;
-    String main_name = "parrallel_region_main_" + count;
+    String main_name = "parrallel_region_main_" + count.incrementAndGet();
     ContractBuilder main_cb=new ContractBuilder();
     Hashtable<String,Type> main_vars=free_vars(region.blocksJava());
     BlockStatement body;
@@ -244,7 +272,7 @@ public class ParallelBlockEncoder extends AbstractRewriter {
       rewrite(region.contract(), main_cb);
       body=create.block();
       for (ParallelBlock pb : region.blocksJava()) {
-        String block_name="block_check_"+(++count);
+        String block_name="block_check_"+count.incrementAndGet();
         Hashtable<String,Type> block_vars=free_vars(pb);
         
         Contract c=(Contract)rewrite((ASTNode)pb);     
@@ -527,7 +555,7 @@ public class ParallelBlockEncoder extends AbstractRewriter {
 
   /********************* From Iteration Contract Encoder *******************/
   
-  private AtomicInteger counter=new AtomicInteger();
+  private static final AtomicInteger counter=new AtomicInteger();
 
   
   private int ConstantExpToInt(ConstantExpression e)
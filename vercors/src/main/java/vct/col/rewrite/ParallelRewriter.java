@@ -0,0 +1,125 @@
+package vct.col.rewrite;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import hre.lang.HREError;
+import vct.col.ast.ASTDeclaration;
+import vct.col.ast.ProgramUnit;
+
+/**
+ * Rewrites the top-level declarations of a program in parallel.
+ *
+ * Only {@link Fusible} rewriters are rewritten in parallel, because they
+ * rewrite every declaration independently. Every declaration is rewritten
+ * by a fresh instance of the rewriter, which has its own state and
+ * its own target. The results are added to the target of the original
+ * rewriter in the order of the source program, so the result is the
+ * same as that of a sequential rewrite. Rewriters that generate names must
+ * number them per declaration, rather than with a global counter, for this
+ * to hold.
+ */
+public class ParallelRewriter {
+
+  /**
+   * Check if the rewriteAll of the given rewriter may be done in parallel.
+   */
+  public static boolean enabled(AbstractRewriter rw){
+    return vct.util.Configuration.parallel_rewrite.get()
+        && FusedRewriter.fusible(rw.getClass())
+        && rw.source().size()>1;
+  }
+
+  /**
+   * Rewrite all declarations of the source of a rewriter into its target.
+   *
+   * @param rw The rewriter, whose class is used to create the workers.
+   * @return The target of the rewriter.
+   */
+  public static ProgramUnit rewriteAll(AbstractRewriter rw){
+    Constructor<? extends AbstractRewriter> cons;
+    try {
+      cons=rw.getClass().getConstructor(ProgramUnit.class);
+    } catch (NoSuchMethodException e) {
+      throw new HREError("rewriter %s has no constructor for parallel use",rw.getClass().getName());
+    }
+    ArrayList<ASTDeclaration> decls=new ArrayList<ASTDeclaration>();
+    for(ASTDeclaration decl:rw.source().get()){
+      decls.add(decl);
+    }
+    @SuppressWarnings("unchecked")
+    List<ASTDeclaration> results[]=new List[decls.size()];
+    ASTDeclaration rewrites[]=new ASTDeclaration[decls.size()];
+    ForkJoinPool.commonPool().invoke(new Task(cons,rw.source(),decls,results,rewrites,0,decls.size()));
+    ProgramUnit target=rw.target();
+    for(int i=0;i<results.length;i++){
+      for(ASTDeclaration item:results[i]){
+        target.add(item);
+      }
+      if (rewrites[i]!=null){
+        target.setSource(rewrites[i],decls.get(i));
+      }
+    }
+    target.index_classes();
+    return target;
+  }
+
+  /**
+   * Rewrites the declarations in a range, by splitting it until
+   * single declarations remain.
+   */
+  private static class Task extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Constructor<? extends AbstractRewriter> cons;
+    private final ProgramUnit source;
+    private final List<ASTDeclaration> decls;
+    private final List<ASTDeclaration> results[];
+    private final ASTDeclaration rewrites[];
+    private final int from;
+    private final int upto;
+
+    public Task(Constructor<? extends AbstractRewriter> cons,ProgramUnit source,
+        List<ASTDeclaration> decls,List<ASTDeclaration> results[],ASTDeclaration rewrites[],int from,int upto){
+      this.cons=cons;
+      this.source=source;
+      this.decls=decls;
+      this.results=results;
+      this.rewrites=rewrites;
+      this.from=from;
+      this.upto=upto;
+    }
+
+    @Override
+    protected void compute() {
+      if (upto-from>1){
+        int mid=(from+upto)/2;
+        invokeAll(new Task(cons,source,decls,results,rewrites,from,mid),
+                  new Task(cons,source,decls,results,rewrites,mid,upto));
+        return;
+      }
+      AbstractRewriter rw;
+      try {
+        rw=cons.newInstance(source);
+      } catch (Exception e) {
+        throw new HREError("cannot create rewriter %s: %s",cons.getDeclaringClass().getName(),e);
+      }
+      rw.shareUnchanged();
+      ASTDeclaration tmp=rw.rewrite(decls.get(from));
+      // declarations added by the rewriter itself precede the result.
+      ArrayList<ASTDeclaration> items=new ArrayList<ASTDeclaration>();
+      for(ASTDeclaration item:rw.target().get()){
+        items.add(item);
+      }
+      if (tmp!=null){
+        items.add(tmp);
+      }
+      results[from]=items;
+      rewrites[from]=tmp;
+    }
+  }
+}
@@ -6,7 +6,7 @@ import vct.col.ast.BlockStatement;
 import vct.col.ast.DeclarationStatement;
 import vct.col.ast.ProgramUnit;
 
-public class ReorderAssignments extends AbstractRewriter {
+public class ReorderAssignments extends AbstractRewriter implements Fusible {
   public ReorderAssignments(ProgramUnit source) {
     super(source);
   }
@@ -7,6 +7,7 @@ import hre.lang.HREError;
 import hre.lang.Ref;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
@@ -22,21 +23,82 @@ class RewriteRule {
   public final Set<String> vars;
   public final ASTNode lhs;
   public final ASTNode rhs;
+  /** The variables in the order of their slots. */
+  private final String names[];
+  /** The compiled left-hand side, or null if it could not be compiled. */
+  private final CompiledPattern pattern;
+  /** The values of the variables for the compiled left-hand side. */
+  private final ASTNode slots[];
+  /** The matcher for the left-hand side, if it could not be compiled. */
+  private final MatchLinear matcher;
   public RewriteRule(String name,Set<String> vars,ASTNode lhs,ASTNode rhs){
     this.name=name;
     this.vars=vars;
     this.lhs=lhs;
     this.rhs=rhs;
+    names=vars.toArray(new String[vars.size()]);
+    pattern=CompiledPattern.compile(lhs,names);
+    if (pattern!=null){
+      slots=new ASTNode[names.length];
+      matcher=null;
+    } else {
+      slots=null;
+      matcher=new MatchLinear(vars);
+    }
+  }
+
+  /**
+   * Match the left-hand side against a term, forgetting any previous match.
+   */
+  public boolean matches(ASTNode term){
+    if (pattern!=null){
+      Arrays.fill(slots,null);
+      return pattern.match(term,slots);
+    } else {
+      matcher.reset();
+      return lhs.apply(matcher,term);
+    }
+  }
+
+  /**
+   * Get a copy of the bindings of the last successful match.
+   */
+  public Hashtable<String,Ref<ASTNode>> bindings(){
+    if (pattern!=null){
+      Hashtable<String,Ref<ASTNode>> res=new Hashtable<String,Ref<ASTNode>>();
+      for(int i=0;i<names.length;i++){
+        res.put(names[i],new Ref<ASTNode>(slots[i]));
+      }
+      return res;
+    } else {
+      return new Hashtable<String,Ref<ASTNode>>(matcher.match);
+    }
   }
 }
 
 class MatchLinear implements ASTMapping1<Boolean,ASTNode> {
   
   public Hashtable<String,Ref<ASTNode>> match=new Hashtable<String, Ref<ASTNode>>();
+
+  private final Ref<ASTNode> refs[];
   
+  @SuppressWarnings("unchecked")
   public MatchLinear(Set<String> vars){
+    refs=new Ref[vars.size()];
+    int i=0;
     for(String name:vars){
-      match.put(name,new Ref<ASTNode>());
+      refs[i]=new Ref<ASTNode>();
+      match.put(name,refs[i]);
+      i++;
+    }
+  }
+
+  /**
+   * Forget the result of the previous match.
+   */
+  public void reset(){
+    for(Ref<ASTNode> ref:refs){
+      ref.set(null);
     }
   }
 
@@ -75,11 +137,10 @@ class MatchLinear implements ASTMapping1<Boolean,ASTNode> {
     }
     if (a.isa(e1.operator())){
       OperatorExpression e2=(OperatorExpression)a;
-      ASTNode[] args1 = e1.argsJava().toArray(new ASTNode[0]);
-      ASTNode[] args2 = e2.argsJava().toArray(new ASTNode[0]);
-      if (args1.length!=args2.length) return false;
-      for(int i=0;i<args1.length;i++){
-        if (!args1[i].apply(this,args2[i])){
+      int N=e1.argslength();
+      if (N!=e2.argslength()) return false;
+      for(int i=0;i<N;i++){
+        if (!e1.arg(i).apply(this,e2.arg(i))){
           return false;
         }
       }
@@ -209,10 +270,12 @@ class MatchLinear implements ASTMapping1<Boolean,ASTNode> {
       BindingExpression ee=(BindingExpression)a;
       if (ee.getDeclCount()!=1) return false;
       DeclarationStatement ee_decl=ee.getDeclaration(0);
-      Debug("attempting %s -> %s for",name, ee_decl.name());
-      Debug(" %s%n match with%n  %s",
-          Configuration.getDiagSyntax().print(e),
-          Configuration.getDiagSyntax().print(a));
+      if (hre.lang.System.Debugging()){
+        Debug("attempting %s -> %s for",name, ee_decl.name());
+        Debug(" %s%n match with%n  %s",
+            Configuration.getDiagSyntax().print(e),
+            Configuration.getDiagSyntax().print(a));
+      }
       ref.set(ee_decl);
       if (ee.binder!=e.binder) return false;
       return e.select.apply(this,ee.select) && e.main.apply(this,ee.main);
@@ -459,14 +522,81 @@ class MatchSubstitution extends AbstractRewriter {
 class Normalizer extends AbstractRewriter {
 
   private RewriteSystem trs;
-  
-  public Normalizer(ProgramUnit source,RewriteSystem trs) {
+
+  /** The normal forms shared with other normalizations, if any. */
+  private final NormalForms forms;
+
+  /** The term whose normal form is being reused. */
+  private ASTNode reused_term;
+
+  /** The number of enclosing terms that are being normalized. */
+  private int depth;
+
+  public Normalizer(ProgramUnit source,RewriteSystem trs,NormalForms forms) {
     super(source);
     this.trs=trs;
+    this.forms=forms;
   }
-  
+
+  /**
+   * Check if the normal form of a term may be reused.
+   * Terms with labels, flags or annotations are excluded, because those
+   * are copied by {@link #post_visit(ASTNode)}.
+   */
+  private boolean memo(ASTNode node){
+    return forms!=null
+        && (node instanceof OperatorExpression || node instanceof BindingExpression
+            || node instanceof MethodInvokation || node instanceof Dereference)
+        && node.labels()==0 && !node.hasFlags() && !node.annotated();
+  }
+
+  /**
+   * Copy the normal form of a term instead of normalizing it, if it is known.
+   */
+  private boolean reuse_normal(ASTNode e){
+    if (!memo(e)) return false;
+    ASTNode res=forms.get(new NormalForms.Key(e));
+    NormalForms.count(res!=null);
+    if (res==null) return false;
+    result=copy_rw.rewrite(res);
+    reused_term=e;
+    return true;
+  }
+
+  @Override
+  public void visit(OperatorExpression e){
+    if (!reuse_normal(e)) super.visit(e);
+  }
+
+  @Override
+  public void visit(BindingExpression e){
+    if (!reuse_normal(e)) super.visit(e);
+  }
+
+  @Override
+  public void visit(MethodInvokation e){
+    if (!reuse_normal(e)) super.visit(e);
+  }
+
+  @Override
+  public void visit(Dereference e){
+    if (!reuse_normal(e)) super.visit(e);
+  }
+
+  @Override
+  public void pre_visit(ASTNode node){
+    super.pre_visit(node);
+    if (memo(node)) depth++;
+  }
+
   @Override
   public void post_visit(ASTNode node){
+    if (node==reused_term){
+      reused_term=null;
+      super.post_visit(node);
+      depth--;
+      return;
+    }
     Ref<ASTNode> ref=new Ref<ASTNode>(result);
     boolean again=(node instanceof ExpressionNode) && trs.step(ref);
     super.post_visit(node);
@@ -475,6 +605,13 @@ class Normalizer extends AbstractRewriter {
     } else {
       result=ref.get();
     }
+    if (memo(node)){
+      if (depth==1){
+        int hash=new NormalForms.Key(node).hashCode();
+        forms.put(new NormalForms.Key(copy_rw.rewrite(node),hash),copy_rw.rewrite(result));
+      }
+      depth--;
+    }
   }
 
 }
@@ -482,7 +619,7 @@ class Normalizer extends AbstractRewriter {
 public class RewriteSystem {
 
   public ProgramUnit normalize(ProgramUnit pu){
-    Normalizer n=new Normalizer(pu,this);
+    Normalizer n=new Normalizer(pu,this,forms);
     ProgramUnit res=n.rewriteAll();
     for(Method m:methods){
       res.add(n.copy_rw.rewrite(m));
@@ -495,22 +632,157 @@ public class RewriteSystem {
   private ArrayList<Method> methods=new ArrayList<Method>();
   
   private AbstractRewriter normalize;
-  
-  public boolean step(Ref<ASTNode> term){
+
+  /** The normal forms shared by normalizations of programs, if any. */
+  private final NormalForms forms;
+
+  /**
+   * The rules whose left-hand side can match any term, in order.
+   */
+  private RewriteRule any_rules[];
+
+  /**
+   * For every kind and head of a term, the rules that may match it, in order.
+   * See {@link #kind(ASTNode)} and {@link #head(ASTNode)}.
+   */
+  private HashMap<Class<?>,HashMap<Object,RewriteRule[]>> head_rules;
+
+  /**
+   * The kind of term by which the matcher distinguishes it,
+   * or null if it does not distinguish the term from others.
+   */
+  private static Class<?> kind(ASTNode n){
+    if (n instanceof OperatorExpression) return OperatorExpression.class;
+    if (n instanceof NameExpression) return NameExpression.class;
+    if (n instanceof ConstantExpression) return ConstantExpression.class;
+    if (n instanceof MethodInvokation) return MethodInvokation.class;
+    if (n instanceof Dereference) return Dereference.class;
+    if (n instanceof BindingExpression) return BindingExpression.class;
+    return null;
+  }
+
+  /**
+   * The head of a term, which the matcher compares before looking at the
+   * arguments. Constants are not distinguished by value.
+   */
+  private static Object head(ASTNode n){
+    if (n instanceof OperatorExpression) return ((OperatorExpression)n).operator();
+    if (n instanceof NameExpression) return ((NameExpression)n).getName();
+    if (n instanceof MethodInvokation) return ((MethodInvokation)n).method;
+    if (n instanceof Dereference) return ((Dereference)n).field();
+    if (n instanceof BindingExpression) return ((BindingExpression)n).binder;
+    return null;
+  }
+
+  /**
+   * Check if a left-hand side must be tried for every term.
+   * These are rules that start with a variable, rules that start with a
+   * construct the matcher does not know, and rules that the matcher
+   * would reject with an error.
+   */
+  private static boolean matches_any(RewriteRule rule){
+    ASTNode lhs=rule.lhs;
+    if (kind(lhs)==null) return true;
+    if (lhs.isa(StandardOperator.IndependentOf)) return true;
+    if (lhs instanceof NameExpression) return rule.vars.contains(((NameExpression)lhs).getName());
+    if (lhs instanceof BindingExpression){
+      BindingExpression e=(BindingExpression)lhs;
+      return e.getDeclCount()!=1 || !rule.vars.contains(e.getDeclaration(0).name());
+    }
+    return false;
+  }
+
+  /**
+   * Index the rules by the kind and head of their left-hand sides.
+   * Every list keeps the rules in the order of the rule set, including
+   * the rules that match any term.
+   */
+  private void index(){
+    ArrayList<RewriteRule> any=new ArrayList<RewriteRule>();
+    HashMap<Class<?>,HashMap<Object,ArrayList<RewriteRule>>> heads=new HashMap<Class<?>,HashMap<Object,ArrayList<RewriteRule>>>();
     for(RewriteRule rule:rules){
-      MatchLinear matcher=new MatchLinear(rule.vars);
-      if (rule.lhs.apply(matcher,term.get())){
-        MatchSubstitution sigma=new MatchSubstitution(matcher.match,term.get().getOrigin());
+      if (matches_any(rule)){
+        any.add(rule);
+        for(HashMap<Object,ArrayList<RewriteRule>> map:heads.values()){
+          for(ArrayList<RewriteRule> list:map.values()){
+            list.add(rule);
+          }
+        }
+      } else {
+        HashMap<Object,ArrayList<RewriteRule>> map=heads.get(kind(rule.lhs));
+        if (map==null){
+          map=new HashMap<Object,ArrayList<RewriteRule>>();
+          heads.put(kind(rule.lhs),map);
+        }
+        Object head=head(rule.lhs);
+        ArrayList<RewriteRule> list=map.get(head);
+        if (list==null){
+          list=new ArrayList<RewriteRule>(any);
+          map.put(head,list);
+        }
+        list.add(rule);
+      }
+    }
+    any_rules=any.toArray(new RewriteRule[any.size()]);
+    head_rules=new HashMap<Class<?>,HashMap<Object,RewriteRule[]>>();
+    for(Class<?> kind:heads.keySet()){
+      HashMap<Object,RewriteRule[]> map=new HashMap<Object,RewriteRule[]>();
+      for(Object head:heads.get(kind).keySet()){
+        ArrayList<RewriteRule> list=heads.get(kind).get(head);
+        map.put(head,list.toArray(new RewriteRule[list.size()]));
+      }
+      head_rules.put(kind,map);
+    }
+  }
+
+  /**
+   * Get the rules that may match a term, in order.
+   */
+  private RewriteRule[] candidates(ASTNode term){
+    HashMap<Object,RewriteRule[]> map=head_rules.get(kind(term));
+    if (map==null) return any_rules;
+    RewriteRule res[]=map.get(head(term));
+    return res==null?any_rules:res;
+  }
+
+  /**
+   * Apply the first rule that matches a term, if any.
+   * Only the rules whose left-hand sides have the same head as the term
+   * are tried. A rewrite system must not be used by several threads at once,
+   * because the rules reuse their matchers.
+   *
+   * @param term The term, which is replaced by the result.
+   * @return true if a rule was applied.
+   */
+  public boolean step(Ref<ASTNode> term){
+    boolean debug=hre.lang.System.Debugging();
+    for(RewriteRule rule:candidates(term.get())){
+      if (rule.matches(term.get())){
+        // the substitution may add bindings, which must not stay in the rule.
+        MatchSubstitution sigma=new MatchSubstitution(rule.bindings(),term.get().getOrigin());
         Debug("++ match axiom %s",rule.name);
         term.set(sigma.rewrite(rule.rhs));
         return true;
       }
-      Debug("-- no match axiom %s",rule.name);
+      if (debug) Debug("-- no match axiom %s",rule.name);
     }
     return false;
   }
   
   public RewriteSystem(ProgramUnit pu,String sys){
+    this(pu,sys,null);
+  }
+
+  /**
+   * Create a rewrite system.
+   *
+   * @param pu The program unit that contains the rule set.
+   * @param sys The name of the rule set.
+   * @param forms The normal forms shared with other rewrite systems
+   *              for the same rule set, or null.
+   */
+  public RewriteSystem(ProgramUnit pu,String sys,NormalForms forms){
+    this.forms=forms;
     normalize=new AbstractRewriter(pu){
       @Override
       public void post_visit(ASTNode node){
@@ -560,7 +832,7 @@ public class RewriteSystem {
       d.getOrigin().report("fatal","unexpected item in rewrite system: %s",d);
       Fail("Fatal");
     }
-
+    index();
   }
 
   public ASTNode normalize(ASTNode tmp) {
@@ -7,7 +7,7 @@ import vct.col.ast.NameExpression;
 import vct.col.ast.ProgramUnit;
 import vct.util.ClassName;
 
-public class SimplifyCalls extends AbstractRewriter {
+public class SimplifyCalls extends AbstractRewriter implements Fusible {
 
   public SimplifyCalls(ProgramUnit source) {
     super(source);
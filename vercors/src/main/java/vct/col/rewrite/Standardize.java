@@ -26,7 +26,7 @@ import vct.util.ClassName;
  * @author Stefan Blom
  *
  */
-public class Standardize extends AbstractRewriter {
+public class Standardize extends AbstractRewriter implements Fusible {
 
   public Standardize(ProgramUnit source) {
     super(source,true);
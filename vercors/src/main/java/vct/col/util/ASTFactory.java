@@ -58,6 +58,13 @@ public class ASTFactory<E> implements FrameControl {
   
 
   private final AbstractRewriter copy_rw;
+
+  /**
+   * Shared leaf nodes of this factory, or null if leaves are not shared.
+   * Only the factories of rewriters share leaves, because parsers
+   * still modify the nodes they create.
+   */
+  private final LeafInterner interner;
   
   /**
    * Create a new AST factory.
@@ -65,6 +72,7 @@ public class ASTFactory<E> implements FrameControl {
    */
   public ASTFactory(AbstractRewriter copy_rw){
     this.copy_rw=copy_rw;
+    this.interner=LeafInterner.enabled.get()?new LeafInterner():null;
   }
   
   /**
@@ -72,6 +80,14 @@ public class ASTFactory<E> implements FrameControl {
    */
   public ASTFactory(){
     this.copy_rw=new AbstractRewriter(null,null);
+    this.interner=null;
+  }
+
+  /**
+   * Check if this factory shares leaf nodes.
+   */
+  public boolean interning(){
+    return interner!=null;
   }
 
   /**
@@ -235,6 +251,16 @@ public BlockStatement block(Origin origin, ASTNode ... args) {
    * Create a new class type node.
    */
   public ClassType class_type(Origin origin,String name[],ASTNode ... args){
+    if (interner!=null && args.length==0){
+      ClassType res=(ClassType)interner.find(origin,ClassType.class,Arrays.asList(name));
+      if (res==null){
+        res=new ClassType(name,args);
+        res.setOrigin(origin);
+        res.accept_if(post);
+        interner.add(origin,ClassType.class,new ArrayList<String>(Arrays.asList(name)),res);
+      }
+      return res;
+    }
     ClassType res=new ClassType(name,args);
     res.setOrigin(origin);
     res.accept_if(post);
@@ -242,6 +268,9 @@ public BlockStatement block(Origin origin, ASTNode ... args) {
   }
   
   public ClassType class_type(Origin origin, String name[], List<ASTNode> args){
+    if (interner!=null && args.isEmpty()){
+      return class_type(origin,name);
+    }
     ClassType res = new ClassType(name, args);
     res.setOrigin(origin);
     res.accept_if(post);
@@ -306,6 +335,15 @@ public BlockStatement block(Origin origin, ASTNode ... args) {
    * Create a new boolean constant.
    */
   public ConstantExpression constant(Origin origin, boolean b) {
+    if (interner!=null){
+      ConstantExpression res=(ConstantExpression)interner.find(origin,Boolean.class,b);
+      if (res==null){
+        res=new ConstantExpression(b,origin);
+        res.accept_if(post);
+        interner.add(origin,Boolean.class,b,res);
+      }
+      return res;
+    }
     ConstantExpression res=new ConstantExpression(b,origin);
     res.accept_if(post);
     return res;    
@@ -339,6 +377,15 @@ public BlockStatement block(Origin origin, ASTNode ... args) {
    * Create a new string constant.
    */
   public ConstantExpression constant(Origin origin, String s) {
+    if (interner!=null){
+      ConstantExpression res=(ConstantExpression)interner.find(origin,String.class,s);
+      if (res==null){
+        res=new ConstantExpression(s,origin);
+        res.accept_if(post);
+        interner.add(origin,String.class,s,res);
+      }
+      return res;
+    }
     ConstantExpression res=new ConstantExpression(s,origin);
     res.accept_if(post);
     return res;    
@@ -879,6 +926,16 @@ public BlockStatement block(Origin origin, ASTNode ... args) {
    * Create a new primitive type.
    */
   public PrimitiveType primitive_type(Origin origin,PrimitiveSort sort,ASTNode ... args){
+    if (interner!=null && args.length==0){
+      PrimitiveType res=(PrimitiveType)interner.find(origin,PrimitiveType.class,sort);
+      if (res==null){
+        res=new PrimitiveType(sort,args);
+        res.setOrigin(origin);
+        res.accept_if(post);
+        interner.add(origin,PrimitiveType.class,sort,res);
+      }
+      return res;
+    }
     PrimitiveType res=new PrimitiveType(sort,args);
     res.setOrigin(origin);
     res.accept_if(post);
@@ -886,6 +943,9 @@ public BlockStatement block(Origin origin, ASTNode ... args) {
   }
   
   public PrimitiveType primitive_type(Origin origin,PrimitiveSort sort, List<ASTNode> args){
+    if (interner!=null && args.isEmpty()){
+      return primitive_type(origin,sort);
+    }
     PrimitiveType res=new PrimitiveType(sort,args);
     res.setOrigin(origin);
     res.accept_if(post);
@@ -900,6 +960,25 @@ public BlockStatement block(Origin origin, ASTNode ... args) {
   return primitive_type(origin_stack.get(),sort,args);
 }
 
+  /**
+   * Check if a reserved name may be shared. The type of names such as
+   * this, super and \result depends on their context, and the type checker
+   * gives null and None the option type that is expected in their context,
+   * so they cannot be shared.
+   */
+  public static boolean shareable(ASTReserved name){
+    switch(name){
+    case FullPerm:
+    case ReadPerm:
+    case NoPerm:
+    case EmptyProcess:
+    case CurrentThread:
+      return true;
+    default:
+      return false;
+    }
+  }
+
   /**
    * Create a new reserved name expression.
    * 
@@ -909,6 +988,17 @@ public BlockStatement block(Origin origin, ASTNode ... args) {
    * yield a constant expression instead of a name expression.
    */
   public NameExpression reserved_name(ASTReserved name){
+    if (interner!=null && shareable(name)){
+      Origin origin=origin_stack.get();
+      NameExpression res=(NameExpression)interner.find(origin,ASTReserved.class,name);
+      if (res==null){
+        res=new NameExpression(name);
+        res.setOrigin(origin);
+        res.accept_if(post);
+        interner.add(origin,ASTReserved.class,name,res);
+      }
+      return res;
+    }
     NameExpression res=new NameExpression(name);
     res.setOrigin(origin_stack.get());
     res.accept_if(post);
@@ -0,0 +1,262 @@
+package vct.col.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import vct.col.ast.ClassType;
+import vct.col.ast.Contract;
+import vct.col.ast.IfStatement;
+import vct.col.ast.ProgramUnit;
+import vct.col.ast.VariableDeclaration;
+import vct.col.rewrite.InlineMethod;
+import vct.col.rewrite.ParallelBlockEncoder;
+
+/**
+ * Snapshot of a program in the middle of a pass sequence,
+ * from which the sequence can be resumed.
+ *
+ * A snapshot file consists of a short header, followed by a Deflate
+ * compressed Java serialization stream: the name of the last pass, the passes that
+ * remain to be done, the input files and the program. The program is stored
+ * as a graph, so all sharing between nodes, including parents, types and
+ * the definitions of names, is preserved. The counters that rewriters use to
+ * generate fresh names are stored as well, such that names generated after
+ * resuming do not clash with names in the program.
+ * Nodes that are shared constants of the AST classes, such as the default
+ * contract condition, are stored by name, because they are compared by identity.
+ *
+ * There is no dedicated encoding of the nodes. Java serialization follows
+ * the references between nodes recursively, so snapshots are written and
+ * read on a thread with a large stack, and the program can only be read as
+ * a whole.
+ *
+ * All serializable AST classes declare a serialVersionUID, so a snapshot can
+ * be read by a later build as long as these classes keep their fields.
+ * The version of the format must be increased whenever they do not.
+ */
+public class ASTSnapshot {
+
+  private static final String magic="VCT-AST";
+
+  /**
+   * Shared constants of the AST, by name.
+   */
+  private static final Hashtable<String,Object> constants=new Hashtable<String,Object>();
+
+  /**
+   * Names of the shared constants.
+   */
+  private static final IdentityHashMap<Object,String> constant_names=new IdentityHashMap<Object,String>();
+
+  private static void constant(String name,Object value){
+    constants.put(name,value);
+    constant_names.put(value,name);
+  }
+
+  static {
+    constant("Contract.default_true",Contract.default_true);
+    constant("IfStatement.elseGuard",IfStatement.elseGuard());
+    constant("VariableDeclaration.common_type",VariableDeclaration.common_type);
+    constant("ClassType.nullType",ClassType.nullType());
+    constant("ClassType.labelType",ClassType.labelType());
+  }
+
+  /**
+   * Stands for a shared constant in a snapshot.
+   */
+  private static class Constant implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public final String name;
+    public Constant(String name){
+      this.name=name;
+    }
+  }
+
+  private static class SnapshotOutputStream extends ObjectOutputStream {
+    public SnapshotOutputStream(OutputStream out) throws IOException {
+      super(out);
+      enableReplaceObject(true);
+    }
+    @Override
+    protected Object replaceObject(Object obj){
+      String name=constant_names.get(obj);
+      return name==null?obj:new Constant(name);
+    }
+  }
+
+  private static class SnapshotInputStream extends ObjectInputStream {
+    public SnapshotInputStream(InputStream in) throws IOException {
+      super(in);
+      enableResolveObject(true);
+    }
+    @Override
+    protected Object resolveObject(Object obj){
+      if (obj instanceof Constant){
+        return constants.get(((Constant)obj).name);
+      }
+      return obj;
+    }
+  }
+
+  /**
+   * Version of the snapshot format.
+   */
+  private static final int version=3;
+
+  /**
+   * Stack size of the thread that writes or reads a snapshot.
+   */
+  private static final long stack_size=1L<<30;
+
+  /**
+   * The pass after which the snapshot was taken.
+   */
+  public final String pass;
+
+  /**
+   * The passes that remain to be done.
+   */
+  public final List<String> passes;
+
+  /**
+   * The input files of the run that took the snapshot.
+   */
+  public final List<String> files;
+
+  public final ProgramUnit program;
+
+  public ASTSnapshot(String pass,Iterable<String> passes,Iterable<String> files,ProgramUnit program){
+    this.pass=pass;
+    this.passes=new ArrayList<String>();
+    for(String p:passes) this.passes.add(p);
+    this.files=new ArrayList<String>();
+    for(String f:files) this.files.add(f);
+    this.program=program;
+  }
+
+  /**
+   * Work that is done on a thread with a large stack.
+   */
+  private interface Job<T> {
+    T run() throws IOException;
+  }
+
+  private static <T> T run(final Job<T> job) throws IOException {
+    final ArrayList<T> result=new ArrayList<T>();
+    final Throwable failure[]=new Throwable[1];
+    Thread thread=new Thread(null,new Runnable(){
+      @Override
+      public void run(){
+        try {
+          result.add(job.run());
+        } catch (Throwable e) {
+          failure[0]=e;
+        }
+      }
+    },"snapshot",stack_size);
+    thread.start();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      throw new IOException("interrupted while waiting for snapshot",e);
+    }
+    if (failure[0] instanceof IOException) throw (IOException)failure[0];
+    if (failure[0] instanceof RuntimeException) throw (RuntimeException)failure[0];
+    if (failure[0] instanceof Error) throw (Error)failure[0];
+    return result.get(0);
+  }
+
+  /**
+   * Write this snapshot to a file.
+   */
+  public void save(final File file) throws IOException {
+    run(new Job<Object>(){
+      @Override
+      public Object run() throws IOException {
+        write(file);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Read a snapshot from a file.
+   */
+  public static ASTSnapshot load(final File file) throws IOException {
+    return run(new Job<ASTSnapshot>(){
+      @Override
+      public ASTSnapshot run() throws IOException {
+        return read(file);
+      }
+    });
+  }
+
+  private void write(File file) throws IOException {
+    OutputStream out=new BufferedOutputStream(new FileOutputStream(file),1<<16);
+    try {
+      DataOutputStream header=new DataOutputStream(out);
+      header.writeUTF(magic);
+      header.writeInt(version);
+      header.flush();
+      DeflaterOutputStream zip=new DeflaterOutputStream(out,new Deflater(Deflater.BEST_SPEED),1<<16);
+      ObjectOutputStream oos=new SnapshotOutputStream(zip);
+      oos.writeUTF(pass);
+      oos.writeInt(InlineMethod.getCount());
+      oos.writeInt(ParallelBlockEncoder.getCount());
+      oos.writeInt(ParallelBlockEncoder.getCounter());
+      oos.writeObject(new ArrayList<String>(passes));
+      oos.writeObject(new ArrayList<String>(files));
+      oos.writeObject(program);
+      oos.flush();
+      zip.finish();
+    } finally {
+      out.close();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ASTSnapshot read(File file) throws IOException {
+    InputStream in=new BufferedInputStream(new FileInputStream(file),1<<16);
+    try {
+      DataInputStream header=new DataInputStream(in);
+      if (!header.readUTF().equals(magic)){
+        throw new IOException(file+" is not an AST snapshot");
+      }
+      int v=header.readInt();
+      if (v!=version){
+        throw new IOException(String.format("snapshot %s has version %d instead of %d",file,v,version));
+      }
+      ObjectInputStream ois=new SnapshotInputStream(new InflaterInputStream(in,new Inflater(),1<<16));
+      String pass=ois.readUTF();
+      InlineMethod.skipCount(ois.readInt());
+      ParallelBlockEncoder.skipCounts(ois.readInt(),ois.readInt());
+      List<String> passes=(List<String>)ois.readObject();
+      List<String> files=(List<String>)ois.readObject();
+      ProgramUnit program=(ProgramUnit)ois.readObject();
+      return new ASTSnapshot(pass,passes,files,program);
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IOException(String.format("snapshot %s was written by another version: %s",file,e));
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package vct.col.util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,9 +24,23 @@ import vct.util.Configuration;
 public class AbstractTypeCheck extends RecursiveVisitor<Type> {
   
   public void check(){
+    boolean incremental=Configuration.incremental_check.get();
+    ArrayList<ASTDeclaration> entries=new ArrayList<ASTDeclaration>();
     for(ASTDeclaration entry:source().get()){
-      entry.accept(this);
+      if (incremental && ChangeTracker.clean(source(),entry)) continue;
+      entries.add(entry);
     }
+    if (ParallelTypeCheck.enabled(this)){
+      ParallelTypeCheck.check(this,entries);
+    } else {
+      for(ASTDeclaration entry:entries){
+        entry.accept(this);
+      }
+    }
+    if (incremental){
+      hre.lang.System.Progress("checked %d of %d declarations",entries.size(),source().size());
+    }
+    source().setChecked();
   }
 
   @Override
@@ -0,0 +1,215 @@
+package vct.col.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import vct.col.ast.ASTClass;
+import vct.col.ast.ASTDeclaration;
+import vct.col.ast.ASTNode;
+import vct.col.ast.AxiomaticDataType;
+import vct.col.ast.ClassType;
+import vct.col.ast.Method;
+import vct.col.ast.MethodInvokation;
+import vct.col.ast.NameExpression;
+import vct.col.ast.NameSpace;
+import vct.col.ast.ProgramUnit;
+import vct.col.ast.VariableDeclaration;
+
+/**
+ * Tracks which declarations of a program are changed by a pass,
+ * such that the type checker only has to check those declarations and
+ * the declarations that depend on them.
+ *
+ * After a pass, every declaration of the result is compared to the
+ * declaration that the rewriter recorded as its source, or, if there is
+ * none, to the checked declarations of the input with the same name.
+ * If they are structurally equal modulo origins, the declaration of the
+ * result gets the type annotations of the input declaration and is not
+ * checked again. It keeps its own origins, which passes often create anew.
+ * The names declared by all other declarations of the input and the output
+ * are recorded as changed. A checked declaration must be checked again if
+ * it mentions a changed name.
+ */
+public class ChangeTracker {
+
+  /**
+   * Records which nodes are compared to which, for as long as they are equal.
+   * An empty block of hints counts as no block, because the type checker
+   * creates empty blocks when it asks expressions for their hints.
+   */
+  private static class Pairs implements StructuralEquality.Equivalence {
+    private final IdentityHashMap<ASTNode,ASTNode> map=new IdentityHashMap<ASTNode,ASTNode>();
+    @Override
+    public Boolean equivalent(Object o1,Object o2){
+      if (StructuralEquality.no_hints(o1) && StructuralEquality.no_hints(o2)) return true;
+      if (o1 instanceof ASTNode && o2 instanceof ASTNode){
+        map.put((ASTNode)o1,(ASTNode)o2);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Mark the declarations of the output of a pass that equal checked
+   * declarations of its input as checked.
+   *
+   * @param before The program before the pass.
+   * @param after The program after the pass, which is modified.
+   */
+  public static void track(ProgramUnit before,ProgramUnit after){
+    Hashtable<String,List<ASTDeclaration>> candidates=null;
+    Set<ASTDeclaration> reused=Collections.newSetFromMap(new IdentityHashMap<ASTDeclaration,Boolean>());
+    IdentityHashMap<ASTDeclaration,ASTDeclaration> unchanged=new IdentityHashMap<ASTDeclaration,ASTDeclaration>();
+    IdentityHashMap<ASTNode,ASTNode> pairs=new IdentityHashMap<ASTNode,ASTNode>();
+    HashSet<String> changed=new HashSet<String>(before.changedNames());
+    for(ASTDeclaration decl:after.get()){
+      ASTDeclaration old=after.getSource(decl);
+      if (old!=null){
+        if (!before.isChecked(old) || reused.contains(old) || !equal(old,decl,pairs)) old=null;
+      } else if (decl.name()!=null) {
+        // the pass did not say where decl came from.
+        if (candidates==null) candidates=candidates(before);
+        List<ASTDeclaration> list=candidates.get(decl.name());
+        if (list!=null){
+          for(ASTDeclaration candidate:list){
+            if (!reused.contains(candidate) && equal(candidate,decl,pairs)){
+              old=candidate;
+              break;
+            }
+          }
+        }
+      }
+      if (old==null){
+        declared(decl,changed);
+      } else {
+        reused.add(old);
+        unchanged.put(decl,old);
+      }
+    }
+    for(ASTDeclaration decl:before.get()){
+      if (!reused.contains(decl)) declared(decl,changed);
+    }
+    transfer(pairs);
+    after.clearSources();
+    after.clearChecked();
+    for(Map.Entry<ASTDeclaration,ASTDeclaration> entry:unchanged.entrySet()){
+      after.setChecked(entry.getKey());
+      Set<String> names=before.getMentioned(entry.getValue());
+      if (names!=null) after.setMentioned(entry.getKey(),names);
+    }
+    after.changedNames().addAll(changed);
+  }
+
+  /**
+   * The checked declarations of a program by name.
+   */
+  private static Hashtable<String,List<ASTDeclaration>> candidates(ProgramUnit program){
+    Hashtable<String,List<ASTDeclaration>> res=new Hashtable<String,List<ASTDeclaration>>();
+    for(ASTDeclaration decl:program.get()){
+      if (decl.name()==null || !program.isChecked(decl)) continue;
+      List<ASTDeclaration> list=res.get(decl.name());
+      if (list==null){
+        list=new ArrayList<ASTDeclaration>();
+        res.put(decl.name(),list);
+      }
+      list.add(decl);
+    }
+    return res;
+  }
+
+  /**
+   * Compare an old and a new declaration and if they are equal,
+   * add the pairs of nodes that correspond to each other.
+   */
+  private static boolean equal(ASTDeclaration old,ASTDeclaration decl,IdentityHashMap<ASTNode,ASTNode> pairs){
+    if (old==decl) return true;
+    Pairs eq=new Pairs();
+    if (!StructuralEquality.equalModuloOrigin(old,decl,eq)) return false;
+    pairs.putAll(eq.map);
+    return true;
+  }
+
+  /**
+   * Give new nodes the types and definitions of the old nodes that they
+   * are equal to. Definitions that have a new counterpart are replaced by it.
+   */
+  private static void transfer(IdentityHashMap<ASTNode,ASTNode> pairs){
+    for(Map.Entry<ASTNode,ASTNode> entry:pairs.entrySet()){
+      ASTNode old=entry.getKey();
+      ASTNode node=entry.getValue();
+      if (old.getType()!=null) node.setType(old.getType());
+      if (old instanceof MethodInvokation){
+        Method m=((MethodInvokation)old).getDefinition();
+        if (m!=null) ((MethodInvokation)node).setDefinition(counterpart(pairs,m));
+      } else if (old instanceof NameExpression){
+        ASTNode site=((NameExpression)old).getSite();
+        if (site!=null) ((NameExpression)node).setSite(counterpart(pairs,site));
+      } else if (old instanceof ClassType){
+        ASTDeclaration def=((ClassType)old).definition();
+        if (def!=null) ((ClassType)node).setDefinition(counterpart(pairs,def));
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends ASTNode> T counterpart(IdentityHashMap<ASTNode,ASTNode> pairs,T node){
+    ASTNode res=pairs.get(node);
+    return res==null?node:(T)res;
+  }
+
+  /**
+   * Check if the type annotations of a declaration are up to date.
+   */
+  public static boolean clean(ProgramUnit program,ASTDeclaration decl){
+    if (!program.isChecked(decl)) return false;
+    Set<String> changed=program.changedNames();
+    if (changed.isEmpty()) return true;
+    Set<String> names=program.getMentioned(decl);
+    if (names==null){
+      names=new HashSet<String>();
+      StructuralEquality.strings(decl,names);
+      program.setMentioned(decl,names);
+    }
+    for(String name:changed){
+      if (names.contains(name)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Collect the names that a declaration makes available to other declarations.
+   */
+  private static void declared(ASTNode node,Set<String> names){
+    if (node instanceof ASTDeclaration){
+      String name=((ASTDeclaration)node).name();
+      if (name!=null) names.add(name);
+    }
+    if (node instanceof ASTClass){
+      for(ASTNode entry:(ASTClass)node){
+        declared(entry,names);
+      }
+    } else if (node instanceof NameSpace){
+      for(ASTNode entry:(NameSpace)node){
+        declared(entry,names);
+      }
+    } else if (node instanceof AxiomaticDataType){
+      AxiomaticDataType adt=(AxiomaticDataType)node;
+      for(Method m:adt.constructorsJava()){
+        declared(m,names);
+      }
+      for(Method m:adt.mappingsJava()){
+        declared(m,names);
+      }
+    } else if (node instanceof VariableDeclaration){
+      for(ASTDeclaration decl:((VariableDeclaration)node).flatten_decl()){
+        declared(decl,names);
+      }
+    }
+  }
+}
@@ -4,12 +4,14 @@ import java.util.EnumSet;
 import java.util.HashSet;
 
 import vct.col.ast.ASTClass;
+import vct.col.ast.ASTFlags;
 import vct.col.ast.ASTNode;
 import vct.col.ast.ASTSpecial;
 import vct.col.ast.ASTSpecial.Kind;
 import vct.col.ast.Binder;
 import vct.col.ast.BindingExpression;
 import vct.col.ast.Contract;
+import vct.col.ast.Dereference;
 import vct.col.ast.ForEachLoop;
 import vct.col.ast.LoopStatement;
 import vct.col.ast.Method;
@@ -17,6 +19,7 @@ import vct.col.ast.OperatorExpression;
 import vct.col.ast.ParallelBlock;
 import vct.col.ast.ParallelInvariant;
 import vct.col.ast.PrimitiveSort;
+import vct.col.ast.PrimitiveType;
 import vct.col.ast.RecursiveVisitor;
 import vct.col.ast.StandardOperator;
 import vct.col.ast.Type;
@@ -25,9 +28,21 @@ import vct.col.ast.VectorBlock;
 public class FeatureScanner extends RecursiveVisitor<Object> {
 
   public FeatureScanner(){
+    this(true);
+  }
+  
+  /**
+   * Create a feature scanner.
+   * 
+   * @param report Report notable features, such as inheritance, as warnings.
+   */
+  public FeatureScanner(boolean report){
     super(null,null);
+    this.report=report;
   }
   
+  private final boolean report;
+  
   private boolean has_parallel_blocks=false;
   private boolean has_statics=false;
   private boolean has_dynamics=false;
@@ -38,12 +53,42 @@ public class FeatureScanner extends RecursiveVisitor<Object> {
   private boolean has_kernels=false;
   private boolean has_iteration_contracts=false;
   private boolean uses_csl=false;
+  private boolean has_arrays=false;
+  private boolean has_inline_definitions=false;
+  private boolean has_contract_invariants=false;
   private EnumSet<StandardOperator> ops_used=EnumSet.noneOf(StandardOperator.class);
   private EnumSet<ASTSpecial.Kind> specials_used=EnumSet.noneOf(ASTSpecial.Kind.class);
   private EnumSet<Binder> binders_used=EnumSet.noneOf(Binder.class);
   
+  private HashSet<String> fields_used=new HashSet<String>();
+  
   private HashSet<Class<? extends ASTNode>> nodes=new HashSet<Class<? extends ASTNode>>();
   
+  /**
+   * Add the features found by another scanner to the features of this scanner.
+   */
+  public void add(FeatureScanner other){
+    has_parallel_blocks|=other.has_parallel_blocks;
+    has_statics|=other.has_statics;
+    has_dynamics|=other.has_dynamics;
+    has_doubles|=other.has_doubles;
+    has_longs|=other.has_longs;
+    has_processes|=other.has_processes;
+    has_inheritance|=other.has_inheritance;
+    has_kernels|=other.has_kernels;
+    has_iteration_contracts|=other.has_iteration_contracts;
+    uses_csl|=other.uses_csl;
+    has_arrays|=other.has_arrays;
+    has_inline_definitions|=other.has_inline_definitions;
+    has_contract_invariants|=other.has_contract_invariants;
+    ops_used.addAll(other.ops_used);
+    specials_used.addAll(other.specials_used);
+    binders_used.addAll(other.binders_used);
+    fields_used.addAll(other.fields_used);
+    nodes.addAll(other.nodes);
+    pragmas.addAll(other.pragmas);
+  }
+  
   public boolean hasVectorBlocks(){
     return nodes.contains(VectorBlock.class);
   }
@@ -98,6 +143,31 @@ public class FeatureScanner extends RecursiveVisitor<Object> {
   public boolean usesIterationContracts(){
     return has_iteration_contracts;
   }
+  
+  public boolean usesArrays(){
+    return has_arrays;
+  }
+  
+  /**
+   * Check if the program contains predicates or pure methods marked inline.
+   */
+  public boolean usesInlineDefinitions(){
+    return has_inline_definitions;
+  }
+  
+  /**
+   * Check if the program contains method contracts with an invariant.
+   */
+  public boolean usesContractInvariants(){
+    return has_contract_invariants;
+  }
+  
+  /**
+   * Check if the program dereferences a field with the given name.
+   */
+  public boolean usesField(String name){
+    return fields_used.contains(name);
+  }
 
   public void pre_visit(ASTNode node){
     super.pre_visit(node);
@@ -106,6 +176,7 @@ public class FeatureScanner extends RecursiveVisitor<Object> {
       if (t.isDouble()) has_doubles=true;
       if (t.isPrimitive(PrimitiveSort.Long)) has_longs=true;
       if (t.isPrimitive(PrimitiveSort.Process)) has_processes=true;
+      if (t.isPrimitive(PrimitiveSort.Array)) has_arrays=true;
     }
     nodes.add(node.getClass());
   }
@@ -125,8 +196,29 @@ public class FeatureScanner extends RecursiveVisitor<Object> {
   @Override
   public void visit(Method m){
     uses_csl = uses_csl || m.name().equals("csl_invariant");
+    if ((m.kind==Method.Kind.Predicate || m.kind==Method.Kind.Pure)
+        && m.isValidFlag(ASTFlags.INLINE) && m.getFlag(ASTFlags.INLINE)){
+      has_inline_definitions=true;
+    }
+    Contract c=m.getContract();
+    if (c!=null && c.invariant!=Contract.default_true){
+      has_contract_invariants=true;
+    }
+    if (m.getReturnType()!=null) m.getReturnType().accept(this);
     super.visit(m);
   }
+  
+  @Override
+  public void visit(PrimitiveType t){
+    if (t.sort==PrimitiveSort.Array) has_arrays=true;
+    super.visit(t);
+  }
+  
+  @Override
+  public void visit(Dereference e){
+    fields_used.add(e.field());
+    super.visit(e);
+  }
   @Override
   public void visit(BindingExpression e){
     binders_used.add(e.binder);
@@ -140,7 +232,7 @@ public class FeatureScanner extends RecursiveVisitor<Object> {
       return;
     }
     if (c.super_classes.length > 0 || c.implemented_classes.length > 0) {
-      Warning("detected inheritance");
+      if (report) Warning("detected inheritance");
       has_inheritance=true;
     }
     int N=c.getStaticCount();
@@ -0,0 +1,71 @@
+package vct.col.util;
+
+import java.util.IdentityHashMap;
+
+import vct.col.ast.ASTDeclaration;
+import vct.col.ast.ProgramUnit;
+
+/**
+ * Summary of the features of a program that changes while passes run.
+ *
+ * The features of every top-level declaration are scanned separately
+ * and remembered for as long as the declaration is part of the program.
+ * Hence, after a pass only the declarations that were replaced by that pass
+ * have to be scanned again. The summary is computed on demand, so passes
+ * that do not need it do not pay for it.
+ *
+ * Declarations are assumed not to be modified in place, unless the program
+ * is reported as changed with {@link #changed(ProgramUnit)}.
+ */
+public class FeatureSummary {
+
+  private ProgramUnit program;
+
+  private FeatureScanner summary;
+
+  /**
+   * The features of the declarations of the last summarized program.
+   */
+  private IdentityHashMap<ASTDeclaration,FeatureScanner> scanned=new IdentityHashMap<ASTDeclaration,FeatureScanner>();
+
+  /**
+   * Set the current program.
+   */
+  public void set(ProgramUnit program){
+    if (program!=this.program){
+      this.program=program;
+      summary=null;
+    }
+  }
+
+  /**
+   * Set the current program, which may share declarations with the previous
+   * program that have been modified.
+   */
+  public void changed(ProgramUnit program){
+    this.program=program;
+    summary=null;
+    scanned.clear();
+  }
+
+  /**
+   * Get the features of the current program.
+   */
+  public FeatureScanner get(){
+    if (summary==null){
+      IdentityHashMap<ASTDeclaration,FeatureScanner> current=new IdentityHashMap<ASTDeclaration,FeatureScanner>();
+      summary=new FeatureScanner(false);
+      for(ASTDeclaration decl:program.get()){
+        FeatureScanner features=scanned.get(decl);
+        if (features==null){
+          features=new FeatureScanner(false);
+          decl.accept(features);
+        }
+        current.put(decl,features);
+        summary.add(features);
+      }
+      scanned=current;
+    }
+    return summary;
+  }
+}
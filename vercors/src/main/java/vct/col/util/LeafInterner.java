@@ -0,0 +1,180 @@
+package vct.col.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hre.ast.Origin;
+import hre.config.BooleanSetting;
+import vct.col.ast.ASTNode;
+import vct.col.ast.ClassType;
+import vct.col.ast.ConstantExpression;
+import vct.col.ast.NameExpression;
+import vct.col.ast.PrimitiveType;
+
+import static hre.lang.System.Abort;
+
+/**
+ * Table of shared leaf nodes, used by an {@link ASTFactory} to hand out
+ * the same node for repeated requests for the same leaf.
+ *
+ * A leaf is only shared between requests with the same origin object,
+ * so sharing does not change the origin of any node in the program.
+ * Shared nodes are marked with {@link ASTNode#share()}, which makes them
+ * immutable, except that the type checker sets their type. Hence only leaves
+ * whose type does not depend on their context are shared: boolean and string
+ * constants, types and the reserved names accepted by
+ * {@link ASTFactory#shareable}. Numeric constants are not shared, because
+ * the type checker turns them into fractions where a fraction is expected.
+ * Shared nodes do not know their parent. Code that needs to modify such a
+ * node must use a {@link #copy(ASTNode)} instead.
+ *
+ * A table is not thread-safe, but the statistics are global.
+ */
+public class LeafInterner {
+
+  /**
+   * Let AST factories share identical leaf nodes.
+   */
+  public static final BooleanSetting enabled=new BooleanSetting(false);
+
+  private static final AtomicLong requests=new AtomicLong();
+
+  private static final AtomicLong hits=new AtomicLong();
+
+  private static final AtomicLong bytes_saved=new AtomicLong();
+
+  private static class Key {
+    private final Origin origin;
+    private final Object kind;
+    private final Object value;
+
+    public Key(Origin origin,Object kind,Object value){
+      this.origin=origin;
+      this.kind=kind;
+      this.value=value;
+    }
+
+    @Override
+    public int hashCode(){
+      return System.identityHashCode(origin)*31*31+kind.hashCode()*31+value.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o){
+      if (!(o instanceof Key)) return false;
+      Key other=(Key)o;
+      return origin==other.origin && kind.equals(other.kind) && value.equals(other.value);
+    }
+  }
+
+  private final HashMap<Key,ASTNode> table=new HashMap<Key,ASTNode>();
+
+  /**
+   * Find the shared leaf for a request.
+   *
+   * @param origin The origin of the requested leaf.
+   * @param kind The kind of leaf, such as its class.
+   * @param value The value that determines the leaf within its kind.
+   * @return The shared leaf, or null if there is none yet.
+   */
+  public ASTNode find(Origin origin,Object kind,Object value){
+    requests.incrementAndGet();
+    ASTNode res=table.get(new Key(origin,kind,value));
+    if (res!=null){
+      hits.incrementAndGet();
+      bytes_saved.addAndGet(size(res));
+    }
+    return res;
+  }
+
+  /**
+   * Share a newly created leaf for future requests.
+   *
+   * @param value The value that determines the leaf, which must not change later.
+   * @return The leaf.
+   */
+  public <N extends ASTNode> N add(Origin origin,Object kind,Object value,N node){
+    node.share();
+    table.put(new Key(origin,kind,value),node);
+    return node;
+  }
+
+  /**
+   * Make an unshared copy of a shared leaf.
+   */
+  public static ASTNode copy(ASTNode node){
+    ASTNode res;
+    if (node instanceof ConstantExpression){
+      res=new ConstantExpression(((ConstantExpression)node).value());
+    } else if (node instanceof PrimitiveType){
+      res=new PrimitiveType(((PrimitiveType)node).sort);
+    } else if (node instanceof ClassType){
+      ClassType t=(ClassType)node;
+      ClassType tmp=new ClassType(t.getNameFull());
+      tmp.definition_$eq(t.definition());
+      res=tmp;
+    } else if (node instanceof NameExpression){
+      res=new NameExpression(((NameExpression)node).reserved());
+    } else {
+      Abort("cannot copy shared %s",node.getClass());
+      return null;
+    }
+    res.setOrigin(node.getOrigin());
+    res.setType(node.getType());
+    return res;
+  }
+
+  /**
+   * Describe how much sharing has happened so far.
+   */
+  public static String statistics(){
+    long req=requests.get();
+    long hit=hits.get();
+    return String.format("shared %d of %d leaf nodes (%.1f%%), saving about %d bytes",
+        hit,req,req==0?0.0:(100.0*hit)/req,bytes_saved.get());
+  }
+
+  /**
+   * Estimated size of a leaf, including the parts that are not shared
+   * with other nodes.
+   */
+  private static long size(ASTNode node){
+    long res=shallow_size(node.getClass());
+    if (node instanceof ConstantExpression){
+      // every constant has its own value and type.
+      res+=shallow_size(((ConstantExpression)node).value().getClass());
+      if (node.getType()!=null) res+=shallow_size(node.getType().getClass());
+    }
+    return res;
+  }
+
+  private static final Hashtable<Class<?>,Long> shallow_sizes=new Hashtable<Class<?>,Long>();
+
+  /**
+   * Estimate the size of an object of the given class, for a 64 bit JVM
+   * with compressed references.
+   */
+  private static long shallow_size(Class<?> cl){
+    Long res=shallow_sizes.get(cl);
+    if (res==null){
+      long size=12;
+      for(Class<?> c=cl;c!=null;c=c.getSuperclass()){
+        for(Field f:c.getDeclaredFields()){
+          if (Modifier.isStatic(f.getModifiers())) continue;
+          Class<?> t=f.getType();
+          if (t==long.class || t==double.class) size+=8;
+          else if (t==int.class || t==float.class) size+=4;
+          else if (t==short.class || t==char.class) size+=2;
+          else if (t==byte.class || t==boolean.class) size+=1;
+          else size+=4;
+        }
+      }
+      res=(size+7)/8*8;
+      shallow_sizes.put(cl,res);
+    }
+    return res;
+  }
+}
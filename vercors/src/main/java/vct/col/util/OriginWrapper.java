@@ -19,6 +19,8 @@ public class OriginWrapper extends RecursiveVisitor<Object> {
   @Override
   public void enter(ASTNode n){
     super.enter(n);
+    // shared leaves keep their original origin.
+    if (n.isShared()) return;
     Origin o=n.getOrigin();
     if (o!=null){
       n.clearOrigin();
@@ -0,0 +1,126 @@
+package vct.col.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import hre.lang.HREError;
+import vct.col.ast.ASTDeclaration;
+import vct.col.ast.ProgramUnit;
+
+/**
+ * Type checks the top-level declarations of a program in parallel.
+ *
+ * Checking a declaration only annotates the nodes of that declaration and
+ * only reads the indexes of the program, so every declaration is checked
+ * by a fresh instance of the type checker. The messages of every
+ * declaration are captured separately and replayed on the error stream in
+ * the order of the program, up to the first declaration that fails, whose
+ * failure is then rethrown. Hence the result is the same as that of a
+ * sequential check. Only messages sent through {@link hre.lang.System}
+ * are captured.
+ *
+ * Nodes that occur in more than one declaration, such as
+ * {@link vct.col.ast.Contract#default_true} and the leaves shared by a
+ * {@link LeafInterner}, may be visited by several tasks at once. This is
+ * benign: constants get their type when they are created and the checker
+ * does not change the type of a boolean constant, and a shared node keeps
+ * the first of the equal types that it is given, see
+ * {@link vct.col.ast.ASTNode#setType}.
+ */
+public class ParallelTypeCheck {
+
+  /**
+   * Check if the declarations of the source of the given checker may be
+   * checked in parallel.
+   */
+  public static boolean enabled(AbstractTypeCheck check){
+    return vct.util.Configuration.parallel_check.get()
+        && check.source().size()>1;
+  }
+
+  /**
+   * Check a list of declarations.
+   *
+   * @param check The type checker, whose class is used to create the workers.
+   * @param decls The declarations to check.
+   */
+  public static void check(AbstractTypeCheck check,List<ASTDeclaration> decls){
+    Constructor<? extends AbstractTypeCheck> cons;
+    try {
+      cons=check.getClass().getConstructor(ProgramUnit.class);
+    } catch (NoSuchMethodException e) {
+      throw new HREError("type checker %s has no constructor for parallel use",check.getClass().getName());
+    }
+    int N=decls.size();
+    if (N==0) return;
+    ByteArrayOutputStream output[]=new ByteArrayOutputStream[N];
+    Throwable failures[]=new Throwable[N];
+    ForkJoinPool.commonPool().invoke(new Task(cons,check.source(),decls,output,failures,0,N));
+    PrintStream err=System.err;
+    for(int i=0;i<N;i++){
+      byte bytes[]=output[i].toByteArray();
+      err.write(bytes,0,bytes.length);
+      Throwable t=failures[i];
+      if (t!=null){
+        err.flush();
+        if (t instanceof RuntimeException) throw (RuntimeException)t;
+        if (t instanceof Error) throw (Error)t;
+        throw new HREError("type check failed: %s",t);
+      }
+    }
+    err.flush();
+  }
+
+  /**
+   * Checks the declarations in a range, by splitting it until
+   * single declarations remain.
+   */
+  private static class Task extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Constructor<? extends AbstractTypeCheck> cons;
+    private final ProgramUnit source;
+    private final List<ASTDeclaration> decls;
+    private final ByteArrayOutputStream output[];
+    private final Throwable failures[];
+    private final int from;
+    private final int upto;
+
+    public Task(Constructor<? extends AbstractTypeCheck> cons,ProgramUnit source,
+        List<ASTDeclaration> decls,ByteArrayOutputStream output[],Throwable failures[],
+        int from,int upto){
+      this.cons=cons;
+      this.source=source;
+      this.decls=decls;
+      this.output=output;
+      this.failures=failures;
+      this.from=from;
+      this.upto=upto;
+    }
+
+    @Override
+    protected void compute() {
+      if (upto-from>1){
+        int mid=(from+upto)/2;
+        invokeAll(new Task(cons,source,decls,output,failures,from,mid),
+                  new Task(cons,source,decls,output,failures,mid,upto));
+        return;
+      }
+      output[from]=new ByteArrayOutputStream();
+      hre.lang.System.setCapture(new PrintStream(output[from],true));
+      try {
+        AbstractTypeCheck check=cons.newInstance(source);
+        decls.get(from).accept(check);
+      } catch (Throwable t) {
+        failures[from]=t;
+      } finally {
+        hre.lang.System.setCapture(null);
+      }
+    }
+  }
+}
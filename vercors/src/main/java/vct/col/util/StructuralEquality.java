@@ -0,0 +1,406 @@
+package vct.col.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import hre.lang.HREError;
+import vct.col.ast.ASTNode;
+import vct.col.ast.BlockStatement;
+import vct.col.ast.NonStructural;
+
+/**
+ * Structural comparison of AST trees.
+ *
+ * Two trees are equal if they consist of the same classes of nodes,
+ * with equal fields. The comparison is generic: every field of a node
+ * is compared, except for the fields that are marked as
+ * {@link NonStructural}, such as node identities, parents, types and
+ * the definitions of names.
+ * Origins are compared with equals, which for most origins means
+ * that they must be the same object. Callers can relax the comparison
+ * of values, such as origins, with an {@link Equivalence}.
+ *
+ * The comparison is conservative: unequal trees are never reported as
+ * equal, but equal trees may be reported as unequal, for instance
+ * if they use hash sets of nodes.
+ *
+ * Trees can also be compared modulo origins, in which case they have
+ * the same structural hash if they are equal. The hash of a node is computed
+ * from the hashes of its children and cached in the node, so it is computed
+ * once for every node. The cached hash is only valid as long as the tree is
+ * not modified in place, except that an empty block of hints hashes like no
+ * block, because asking an expression for its hints creates an empty block,
+ * and a node with only non-structural rarely used data hashes like one without.
+ * Use {@link Key} to use trees as keys of hash maps.
+ */
+public class StructuralEquality {
+
+  /**
+   * A weaker equality of the values that occur in trees.
+   */
+  public interface Equivalence {
+    /**
+     * Compare two values.
+     *
+     * @return Whether the values are equivalent, or null if they must be
+     *         compared as usual.
+     */
+    Boolean equivalent(Object o1,Object o2);
+  }
+
+  /**
+   * Fields that are compared, indexed by class.
+   */
+  private static final ClassValue<Field[]> fields=new ClassValue<Field[]>(){
+    @Override
+    protected Field[] computeValue(Class<?> cl){
+      return fields(cl,true);
+    }
+  };
+
+  /**
+   * Fields that are compared modulo origins, indexed by class.
+   */
+  private static final ClassValue<Field[]> fields_modulo_origin=new ClassValue<Field[]>(){
+    @Override
+    protected Field[] computeValue(Class<?> cl){
+      return fields(cl,false);
+    }
+  };
+
+  private static Field[] fields(Class<?> cl,boolean origins){
+    ArrayList<Field> list=new ArrayList<Field>();
+    for(Class<?> c=cl;c!=null && c.getName().startsWith("vct.");c=c.getSuperclass()){
+      for(Field f:c.getDeclaredFields()){
+        if (Modifier.isStatic(f.getModifiers())) continue;
+        if (f.isAnnotationPresent(NonStructural.class)) continue;
+        if (!origins && c==ASTNode.class && f.getName().equals("origin")) continue;
+        f.setAccessible(true);
+        list.add(f);
+      }
+    }
+    return list.toArray(new Field[0]);
+  }
+
+  /**
+   * Check if a value is an empty block of hints, which hashes like no block.
+   */
+  private static boolean empty_hints(Object o){
+    if (o instanceof scala.Some){
+      Object block=((scala.Some<?>)o).get();
+      return block instanceof BlockStatement && ((BlockStatement)block).size()==0;
+    }
+    return false;
+  }
+
+  /**
+   * Check if a value is no block of hints or an empty one, for equivalences
+   * that do not distinguish the two.
+   */
+  public static boolean no_hints(Object o){
+    return o==scala.None$.MODULE$ || empty_hints(o);
+  }
+
+  /**
+   * Check if a value is a holder of data, such as the rarely used data
+   * of a node, that holds nothing structural. It compares and hashes like
+   * no holder, because a holder may have been created for non-structural data.
+   */
+  private static boolean empty_holder(Object o){
+    if (o==null || o instanceof ASTNode || o instanceof Enum) return false;
+    Class<?> cl=o.getClass();
+    if (!cl.getName().startsWith("vct.")) return false;
+    try {
+      for(Field f:fields_modulo_origin.get(cl)){
+        if (f.get(o)!=null) return false;
+      }
+    } catch (IllegalAccessException e) {
+      throw new HREError("cannot inspect field of %s: %s",cl,e);
+    }
+    return true;
+  }
+
+  /**
+   * Check if two trees are structurally equal.
+   */
+  public static boolean equal(ASTNode n1,ASTNode n2){
+    return equal((Object)n1,(Object)n2,true,null);
+  }
+
+  /**
+   * Check if two trees are structurally equal, where values that are
+   * equivalent according to the given equivalence are considered equal.
+   */
+  public static boolean equal(ASTNode n1,ASTNode n2,Equivalence eq){
+    return equal((Object)n1,(Object)n2,true,eq);
+  }
+
+  /**
+   * Check if two trees are structurally equal, ignoring their origins.
+   */
+  public static boolean equalModuloOrigin(ASTNode n1,ASTNode n2){
+    return equal((Object)n1,(Object)n2,false,null);
+  }
+
+  /**
+   * Check if two trees are structurally equal, ignoring their origins,
+   * where values that are equivalent according to the given equivalence
+   * are considered equal.
+   */
+  public static boolean equalModuloOrigin(ASTNode n1,ASTNode n2,Equivalence eq){
+    return equal((Object)n1,(Object)n2,false,eq);
+  }
+
+  private static boolean equal(Object o1,Object o2,boolean origins,Equivalence eq){
+    if (o1==o2) return true;
+    if (eq!=null && o1!=null && o2!=null){
+      Boolean res=eq.equivalent(o1,o2);
+      if (res!=null) return res;
+    }
+    if (o1==null || o2==null) return empty_holder(o1==null?o2:o1);
+    Class<?> cl=o1.getClass();
+    if (cl!=o2.getClass()) return false;
+    if (o1 instanceof Enum) return false;
+    if (cl.getName().startsWith("vct.")){
+      if (o1 instanceof ASTNode){
+        int h1=((ASTNode)o1).getStructuralHash();
+        int h2=((ASTNode)o2).getStructuralHash();
+        if (h1!=0 && h2!=0 && h1!=h2) return false;
+      }
+      // AST nodes and the values that they contain.
+      try {
+        for(Field f:(origins?fields:fields_modulo_origin).get(cl)){
+          if (!equal(f.get(o1),f.get(o2),origins,eq)) return false;
+        }
+      } catch (IllegalAccessException e) {
+        throw new HREError("cannot compare field of %s: %s",cl,e);
+      }
+      return true;
+    }
+    if (o1 instanceof Object[]){
+      Object a1[]=(Object[])o1;
+      Object a2[]=(Object[])o2;
+      if (a1.length!=a2.length) return false;
+      for(int i=0;i<a1.length;i++){
+        if (!equal(a1[i],a2[i],origins,eq)) return false;
+      }
+      return true;
+    }
+    if (cl.isArray()){
+      int len=Array.getLength(o1);
+      if (len!=Array.getLength(o2)) return false;
+      for(int i=0;i<len;i++){
+        if (!equal(Array.get(o1,i),Array.get(o2,i),origins,eq)) return false;
+      }
+      return true;
+    }
+    if (o1 instanceof Map){
+      Map<?,?> m1=(Map<?,?>)o1;
+      Map<?,?> m2=(Map<?,?>)o2;
+      if (m1.size()!=m2.size()) return false;
+      for(Object key:m1.keySet()){
+        if (!m2.containsKey(key) || !equal(m1.get(key),m2.get(key),origins,eq)) return false;
+      }
+      return true;
+    }
+    if (o1 instanceof Iterable){
+      return equal(((Iterable<?>)o1).iterator(),((Iterable<?>)o2).iterator(),origins,eq);
+    }
+    if (o1 instanceof scala.collection.Iterable){
+      return equal(((scala.collection.Iterable<?>)o1).iterator(),
+                   ((scala.collection.Iterable<?>)o2).iterator(),origins,eq);
+    }
+    if (o1 instanceof scala.Product){
+      // options and tuples.
+      scala.Product p1=(scala.Product)o1;
+      scala.Product p2=(scala.Product)o2;
+      if (p1.productArity()!=p2.productArity()) return false;
+      for(int i=0;i<p1.productArity();i++){
+        if (!equal(p1.productElement(i),p2.productElement(i),origins,eq)) return false;
+      }
+      return true;
+    }
+    return o1.equals(o2);
+  }
+
+  private static boolean equal(Iterator<?> i1,Iterator<?> i2,boolean origins,Equivalence eq){
+    while(i1.hasNext() && i2.hasNext()){
+      if (!equal(i1.next(),i2.next(),origins,eq)) return false;
+    }
+    return !i1.hasNext() && !i2.hasNext();
+  }
+
+  private static boolean equal(scala.collection.Iterator<?> i1,scala.collection.Iterator<?> i2,boolean origins,Equivalence eq){
+    while(i1.hasNext() && i2.hasNext()){
+      if (!equal(i1.next(),i2.next(),origins,eq)) return false;
+    }
+    return !i1.hasNext() && !i2.hasNext();
+  }
+
+  /**
+   * Get the structural hash of a tree, which ignores origins.
+   * Trees that are equal modulo origins have the same hash.
+   */
+  public static int hash(ASTNode node){
+    return hash((Object)node);
+  }
+
+  private static int hash(Object o){
+    if (empty_hints(o)) o=scala.None$.MODULE$;
+    if (o==null || empty_holder(o)) return 0;
+    if (o instanceof ASTNode){
+      ASTNode node=(ASTNode)o;
+      int res=node.getStructuralHash();
+      if (res==0){
+        res=fields_hash(o);
+        // 0 means that the hash has not been computed.
+        if (res==0) res=1;
+        node.setStructuralHash(res);
+      }
+      return res;
+    }
+    Class<?> cl=o.getClass();
+    if (o instanceof Enum) return ((Enum<?>)o).name().hashCode();
+    if (cl.getName().startsWith("vct.")) return fields_hash(o);
+    int res=1;
+    if (o instanceof Object[]){
+      for(Object item:(Object[])o){
+        res=31*res+hash(item);
+      }
+      return res;
+    }
+    if (cl.isArray()){
+      int len=Array.getLength(o);
+      for(int i=0;i<len;i++){
+        res=31*res+hash(Array.get(o,i));
+      }
+      return res;
+    }
+    if (o instanceof Map){
+      // independent of the order of the entries.
+      res=0;
+      for(Map.Entry<?,?> entry:((Map<?,?>)o).entrySet()){
+        res+=entry.getKey().hashCode()^hash(entry.getValue());
+      }
+      return res;
+    }
+    if (o instanceof Iterable){
+      for(Object item:(Iterable<?>)o){
+        res=31*res+hash(item);
+      }
+      return res;
+    }
+    if (o instanceof scala.collection.Iterable){
+      for(Object item:scala.collection.JavaConverters.asJavaIterableConverter(
+                        (scala.collection.Iterable<?>)o).asJava()){
+        res=31*res+hash(item);
+      }
+      return res;
+    }
+    if (o instanceof scala.Product){
+      scala.Product p=(scala.Product)o;
+      for(int i=0;i<p.productArity();i++){
+        res=31*res+hash(p.productElement(i));
+      }
+      return res;
+    }
+    return o.hashCode();
+  }
+
+  private static int fields_hash(Object o){
+    Class<?> cl=o.getClass();
+    int res=cl.getName().hashCode();
+    try {
+      for(Field f:fields_modulo_origin.get(cl)){
+        res=31*res+hash(f.get(o));
+      }
+    } catch (IllegalAccessException e) {
+      throw new HREError("cannot hash field of %s: %s",cl,e);
+    }
+    return res;
+  }
+
+  /**
+   * Wraps a tree for use as a key in hash maps and sets,
+   * where keys are compared modulo origins.
+   */
+  public static final class Key {
+
+    public final ASTNode node;
+
+    private final int hash;
+
+    public Key(ASTNode node){
+      this.node=node;
+      this.hash=StructuralEquality.hash(node);
+    }
+
+    @Override
+    public int hashCode(){
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o){
+      if (!(o instanceof Key)) return false;
+      Key other=(Key)o;
+      return hash==other.hash && equalModuloOrigin(node,other.node);
+    }
+  }
+
+  /**
+   * Collect all strings that occur in a tree. These include all names
+   * that the tree mentions.
+   */
+  public static void strings(ASTNode node,Set<String> res){
+    strings((Object)node,res);
+  }
+
+  private static void strings(Object o,Set<String> res){
+    if (o==null) return;
+    if (o instanceof String){
+      res.add((String)o);
+      return;
+    }
+    Class<?> cl=o.getClass();
+    if (o instanceof Enum) return;
+    if (cl.getName().startsWith("vct.")){
+      try {
+        for(Field f:fields.get(cl)){
+          strings(f.get(o),res);
+        }
+      } catch (IllegalAccessException e) {
+        throw new HREError("cannot scan field of %s: %s",cl,e);
+      }
+    } else if (cl.isArray()){
+      if (cl.getComponentType().isPrimitive()) return;
+      for(Object item:(Object[])o){
+        strings(item,res);
+      }
+    } else if (o instanceof Map){
+      for(Map.Entry<?,?> entry:((Map<?,?>)o).entrySet()){
+        strings(entry.getKey(),res);
+        strings(entry.getValue(),res);
+      }
+    } else if (o instanceof Iterable){
+      for(Object item:(Iterable<?>)o){
+        strings(item,res);
+      }
+    } else if (o instanceof scala.collection.Iterable){
+      for(Object item:scala.collection.JavaConverters.asJavaIterableConverter(
+                        (scala.collection.Iterable<?>)o).asJava()){
+        strings(item,res);
+      }
+    } else if (o instanceof scala.Product){
+      scala.Product p=(scala.Product)o;
+      for(int i=0;i<p.productArity();i++){
+        strings(p.productElement(i),res);
+      }
+    }
+  }
+}
@@ -10,7 +10,7 @@ public class PassReport {
   
   private ArrayList<Message> entries=new ArrayList<Message>();
   
-  public void add(Message m){
+  public synchronized void add(Message m){
     entries.add(m);
     if (m.isFatal()) fatal++;
     for(MessageVisitor v:visitors){
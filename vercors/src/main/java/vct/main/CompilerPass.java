@@ -1,6 +1,8 @@
 package vct.main;
 
 import vct.col.ast.ProgramUnit;
+import vct.col.rewrite.AbstractRewriter;
+import vct.col.util.FeatureScanner;
 import vct.logging.PassAddVisitor;
 import vct.logging.PassReport;
 
@@ -29,6 +31,23 @@ public abstract class CompilerPass {
     return apply(arg,args);
   }
   
+  /**
+   * Get the class of the rewriter that implements this pass,
+   * if the pass consists of a single rewriter. Otherwise, return null.
+   */
+  public Class<? extends AbstractRewriter> getRewriter(){
+    return null;
+  }
+  
+  /**
+   * Check if this pass can change a program with the given features.
+   * Passes that act on specific constructs only override this method,
+   * such that they can be skipped for programs without those constructs.
+   */
+  public boolean applies(FeatureScanner features){
+    return true;
+  }
+  
   protected ProgramUnit apply(ProgramUnit arg, String ... args){
     throw new hre.lang.HREError("Class %s failed to override both apply method.",getClass());
   }
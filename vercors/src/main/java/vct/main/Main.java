@@ -11,6 +11,7 @@ import static hre.lang.System.Warning;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
@@ -27,6 +28,7 @@ import java.util.concurrent.LinkedBlockingDeque;
 
 import hre.ast.FileOrigin;
 import hre.config.BooleanSetting;
+import hre.config.IntegerSetting;
 import hre.config.Option;
 import hre.config.OptionParser;
 import hre.config.StringListSetting;
@@ -64,12 +66,14 @@ import vct.col.rewrite.FilterClass;
 import vct.col.rewrite.FinalizeArguments;
 import vct.col.rewrite.Flatten;
 import vct.col.rewrite.FlattenBeforeAfter;
+import vct.col.rewrite.FusedRewriter;
 import vct.col.rewrite.GenericPass1;
 import vct.col.rewrite.GhostLifter;
 import vct.col.rewrite.GlobalizeStaticsParameter;
 import vct.col.rewrite.InlinePredicatesRewriter;
 import vct.col.rewrite.JavaEncoder;
 import vct.col.rewrite.KernelRewriter;
+import vct.col.rewrite.NormalForms;
 import vct.col.rewrite.OpenMPtoPVL;
 import vct.col.rewrite.OptimizeQuantifiers;
 import vct.col.rewrite.PVLCompiler;
@@ -99,15 +103,21 @@ import vct.col.rewrite.WandEncoder;
 import vct.col.syntax.JavaDialect;
 import vct.col.syntax.JavaSyntax;
 import vct.col.syntax.Syntax;
+import vct.col.util.ASTSnapshot;
+import vct.col.util.ChangeTracker;
 import vct.col.util.FeatureScanner;
+import vct.col.util.FeatureSummary;
 import vct.col.util.JavaTypeCheck;
+import vct.col.util.LeafInterner;
 import vct.col.util.SimpleTypeCheck;
 import vct.logging.ErrorMapping;
 import vct.logging.ExceptionMessage;
+import vct.logging.PassAddVisitor;
 import vct.logging.PassReport;
 import vct.silver.ErrorDisplayVisitor;
 import vct.util.ClassName;
 import vct.util.Configuration;
+import vct.util.PerformanceReport;
 
 /**
  * VerCors Tool main verifier.
@@ -143,10 +153,54 @@ public class Main
     
   }
 
+  /**
+   * The table of compiler passes.
+   * It is built once, so a verification server can reuse it between jobs.
+   */
+  private static Hashtable<String,CompilerPass> defined_passes;
+  
+  /**
+   * The table of validation passes.
+   */
+  private static Hashtable<String,ValidationPass> defined_checks;
+  
+  /**
+   * The Silver back-end selected for the current run.
+   */
+  private static StringSetting silver;
+  
+  /**
+   * Validate classes separately in the current run.
+   */
+  private static BooleanSetting separate_checks;
+  
+  /**
+   * Set while a verification server is processing jobs.
+   */
+  private static boolean in_server=false;
+
   public static void main(String[] args) throws Throwable
+  {
+    int exit=0;
+    try {
+      exit=run(args);
+    } finally {
+      System.exit(exit);
+    }
+  }
+  
+  /**
+   * Perform a single run of the tool.
+   * 
+   * @param args The command line arguments.
+   * @return The exit code of the run.
+   */
+  public static int run(String[] args) throws Throwable
   {
     int exit=0;
     long globalStart = System.currentTimeMillis();
+    ClassName.clear();
+    program=new ProgramUnit();
     try {
       OptionParser clops=new OptionParser();
       clops.add(clops.getHelpOption(),'h',"help");
@@ -157,7 +211,7 @@ public class Main
       clops.add(chalice.getEnable("select Chalice backend"),"chalice");
       BooleanSetting chalice2sil=new BooleanSetting(false);
       clops.add(chalice2sil.getEnable("select Silicon backend via chalice2sil"),"chalice2sil");
-      final StringSetting silver=new StringSetting("silver");
+      silver=new StringSetting("silver");
       clops.add(silver.getAssign("select Silver backend (silicon/carbon)"),"silver");
       clops.add(silver.getAssign("select Silicon backend","silicon"),"silicon");
       clops.add(silver.getAssign("select Carbon backend","carbon"),"carbon");
@@ -175,7 +229,7 @@ public class Main
       final BooleanSetting check_history=new BooleanSetting(false);
       clops.add(check_history.getEnable("check if defined processes satisfy their contracts."),"check-history");   
       
-      final BooleanSetting separate_checks=new BooleanSetting(false);
+      separate_checks=new BooleanSetting(false);
       clops.add(separate_checks.getEnable("validate classes separately"),"separate");
       BooleanSetting help_passes=new BooleanSetting(false);
       clops.add(help_passes.getEnable("print help on available passes"),"help-passes");
@@ -192,6 +246,10 @@ public class Main
       clops.add(show_file.getAssign("redirect show output to files instead of stdout"),"save-show");
       StringListSetting stop_after=new StringListSetting();
       clops.add(stop_after.getAppendOption("Stop after given passes"),"stop-after");
+      StringListSetting save_ast_after=new StringListSetting();
+      clops.add(save_ast_after.getAppendOption("Save a snapshot of the program to <pass>.ast after given passes"),"save-ast-after");
+      StringSetting resume_from=new StringSetting(null);
+      clops.add(resume_from.getAssign("resume the passes from a snapshot saved with --save-ast-after"),"resume-from");
       
       
       BooleanSetting explicit_encoding=new BooleanSetting(false);
@@ -219,6 +277,17 @@ public class Main
       BooleanSetting sat_check=new BooleanSetting(true);
       clops.add(sat_check.getDisable("Disable checking if method pre-conditions are satisfiable"), "disable-sat");
       
+      BooleanSetting fuse_passes=new BooleanSetting(true);
+      clops.add(fuse_passes.getDisable("run consecutive fusible rewriter passes one by one instead of in one traversal"),"no-fusion");
+      
+      BooleanSetting skip_passes=new BooleanSetting(true);
+      clops.add(skip_passes.getDisable("run passes even if the program has none of the features that they act on"),"no-skip");
+      
+      BooleanSetting server=new BooleanSetting(false);
+      clops.add(server.getEnable("run as a verification server that reads jobs from standard input"),"server");
+      IntegerSetting server_port=new IntegerSetting(0);
+      clops.add(server_port.getAssign("run as a verification server that accepts jobs on the given local port"),"server-port");
+      
       Configuration.add_options(clops);
       
       String input[]=clops.parse(args);
@@ -228,11 +297,34 @@ public class Main
         hre.lang.System.EnableDebug(name,java.lang.System.err,"vct("+name+")");
       }
       hre.lang.System.EnableWhere(where.get());
+      PerformanceReport.open();
   
-      Hashtable<String,CompilerPass> defined_passes=new Hashtable<String,CompilerPass>();
-      Hashtable<String,ValidationPass> defined_checks=new Hashtable<String,ValidationPass>();
-
-      define_passes(silver, separate_checks, defined_passes, defined_checks);
+      if (defined_passes==null){
+        defined_passes=new Hashtable<String,CompilerPass>();
+        defined_checks=new Hashtable<String,ValidationPass>();
+        define_passes(defined_passes, defined_checks);
+      }
+      
+      if (server.get() || server_port.get()!=0){
+        if (in_server){
+          Fail("cannot start a server from within a job");
+        }
+        if (input.length>0){
+          Fail("a server does not accept input files");
+        }
+        in_server=true;
+        try {
+          VerificationServer vs=new VerificationServer();
+          if (server_port.get()!=0){
+            vs.listen(server_port.get());
+          } else {
+            vs.serve(System.in,System.out);
+          }
+        } finally {
+          in_server=false;
+        }
+        return exit;
+      }
       
       if (help_passes.get()) {
         System.out.println("The following passes are available:"); 
@@ -248,7 +340,7 @@ public class Main
         CommandLineTesting.run_testsuites();
         throw new HREExitException(0);
       }
-      if (!(boogie.get() || chalice.get() || chalice2sil.get() || silver.used() || dafny.get() || verifast.get() || pass_list.iterator().hasNext())) {
+      if (!(boogie.get() || chalice.get() || chalice2sil.get() || silver.used() || dafny.get() || verifast.get() || pass_list.iterator().hasNext() || resume_from.get()!=null)) {
         Fail("no back-end or passes specified");
       }
       if (silver.used()){
@@ -264,21 +356,48 @@ public class Main
           Fail("unknown silver backend: %s",silver.get());
         }
       }
+      ASTSnapshot snapshot=null;
+      ArrayList<String> files=new ArrayList<String>();
+      long startTime = System.currentTimeMillis();
+      if (resume_from.get()!=null){
+        if (input.length>0){
+          Fail("cannot combine input files with a snapshot");
+        }
+        Progress("loading snapshot...");
+        try {
+          snapshot=ASTSnapshot.load(new File(resume_from.get()));
+        } catch (IOException e) {
+          Fail("could not load snapshot: %s",e.getMessage());
+        }
+        program=snapshot.program;
+        for(String name:snapshot.files){
+          if (!no_context.get() && new File(name).isFile()){
+            FileOrigin.add(name,gui_context.get());
+          }
+          files.add(name);
+        }
+        System.err.printf("Loaded snapshot taken after %s in: %dms%n",snapshot.pass,System.currentTimeMillis() - startTime);
+      }
       Progress("parsing inputs...");
       PassReport report=new PassReport(program);
       report.setOutput(program);
       report.add(new ErrorDisplayVisitor());
       int cnt = 0;
-      long startTime = System.currentTimeMillis();
+      ArrayList<String> paths=new ArrayList<String>();
       for(String name : input){
-        File f=new File(name);
-        if (!no_context.get()){
-          FileOrigin.add(name,gui_context.get());
-        }
-        program.add(Parsers.parseFile(f.getPath()));
+        paths.add(new File(name).getPath());
+      }
+      // files are parsed concurrently, but added in command line order.
+      for(ProgramUnit unit : Parsers.parseFiles(paths,!no_context.get(),gui_context.get())){
+        program.add(unit);
         cnt++;
       }
-      System.err.printf("Parsed %d file(s) in: %dms%n",cnt,System.currentTimeMillis() - startTime);
+      for(String name : input){
+        files.add(name);
+      }
+      if (snapshot==null){
+        System.err.printf("Parsed %d file(s) in: %dms%n",cnt,System.currentTimeMillis() - startTime);
+      }
   
       if (boogie.get() || sequential_spec.get()) {
         program.setSpecificationFormat(SpecificationFormat.Sequential);
@@ -295,6 +414,8 @@ public class Main
         for(String s:pass_list){
           passes.add(s);
         }
+      } else if (snapshot!=null) {
+        passes=new LinkedBlockingDeque<String>(snapshot.passes);
       } else if (boogie.get()) {
       	passes=new LinkedBlockingDeque<String>();
       	passes.add("java_resolve"); // inspect class path for retreiving signatures of called methods. Will add files necessary to understand the Java code.
@@ -567,6 +688,13 @@ public class Main
         int fatal_errs=0;
         @SuppressWarnings("unused")
         ArrayList<PassReport> reports=new ArrayList<PassReport>();
+        FeatureSummary summary=new FeatureSummary();
+        // the program has not changed since the last type check.
+        boolean checked=false;
+        // the duration of the last run of each pass.
+        Hashtable<String,Long> durations=new Hashtable<String,Long>();
+        ArrayList<String> skipped=new ArrayList<String>();
+        long saved=0;
         while(!passes.isEmpty() && fatal_errs==0){
           String pass=passes.removeFirst();
           String[] pass_args=pass.split("=");
@@ -578,6 +706,26 @@ public class Main
           }
           Progress("Pass %s %s ...",pass,new ArrayShow(" ",(Object[])pass_args));
           CompilerPass task=defined_passes.get(pass);
+          if (task!=null && skip_passes.get() && program!=null
+              && !show_before.contains(pass) && !show_after.contains(pass) && !stop_after.contains(pass)
+              && !save_ast_after.contains(pass)){
+            summary.set(program);
+            // kernels are not scanned, so their features are unknown.
+            if (!summary.get().usesKernels() && !task.applies(summary.get())){
+              Progress("Skipping %s: the program has none of the features it acts on",pass);
+              skipped.add(pass);
+              saved+=estimate(durations,pass);
+              if (checked){
+                // the program is still standardized and checked.
+                while(!passes.isEmpty() && (passes.getFirst().equals("standardize") || passes.getFirst().equals("check"))){
+                  String next=passes.removeFirst();
+                  skipped.add(next);
+                  saved+=estimate(durations,next);
+                }
+              }
+              continue;
+            }
+          }
           if (show_before.contains(pass)){
             String name=show_file.get();
             if (name!=null){
@@ -590,19 +738,62 @@ public class Main
             }
           }
           if (task!=null){
+            ArrayList<Class<? extends AbstractRewriter>> group=new ArrayList<Class<? extends AbstractRewriter>>();
+            String step=pass;
+            if (fuse_passes.get() && pass_args.length==0 && fusible(task)){
+              group.add(task.getRewriter());
+              while(!passes.isEmpty() && !show_after.contains(pass) && !stop_after.contains(pass)
+                  && !save_ast_after.contains(pass)){
+                String next=passes.getFirst();
+                CompilerPass next_task=defined_passes.get(next);
+                if (next_task==null || !fusible(next_task) || show_before.contains(next)) break;
+                passes.removeFirst();
+                Progress("Fusing %s with %s ...",pass,next);
+                group.add(next_task.getRewriter());
+                pass=next;
+                step=step+"+"+next;
+              }
+            }
             Progress("Applying %s ...",pass);
+            long nodes_in=PerformanceReport.nodes(program);
+            PerformanceReport.Sample sample=new PerformanceReport.Sample();
             startTime = System.currentTimeMillis();
-            report=task.apply_pass(report,pass_args);
+            ProgramUnit before=program;
+            if (group.size()>1){
+              PassReport fused=new PassReport(program);
+              fused.add(new PassAddVisitor(report));
+              fused.setOutput(FusedRewriter.rewriteAll(program,group));
+              report=fused;
+            } else {
+              report=task.apply_pass(report,pass_args);
+            }
             fatal_errs=report.getFatal();
             program=report.getOutput();
+            PerformanceReport.record("pass",step,null,sample,new PerformanceReport.Sample(),nodes_in,PerformanceReport.nodes(program));
+            if (vct.util.Configuration.incremental_check.get() && program!=null){
+              if (program!=before){
+                ChangeTracker.track(before,program);
+              } else if (!pass.equals("check") && !pass.equals("java-check")){
+                // the pass may have modified the program in place.
+                program.clearChecked();
+              }
+            }
+            if (program==before && !pass.equals("check") && !pass.equals("java-check")){
+              summary.changed(program);
+            }
+            checked=pass.equals("check");
+            durations.put(pass,System.currentTimeMillis()-startTime);
             Progress(" ... pass took %d ms",System.currentTimeMillis()-startTime);
           } else {
             ValidationPass check=defined_checks.get(pass);
             if (check!=null){
               Progress("Applying %s ...", pass);
+              long nodes_in=PerformanceReport.nodes(program);
+              PerformanceReport.Sample sample=new PerformanceReport.Sample();
               startTime = System.currentTimeMillis();
               report=check.apply_pass(report,pass_args);
               fatal_errs=report.getFatal();
+              PerformanceReport.record("pass",pass,null,sample,new PerformanceReport.Sample(),nodes_in,-1);
               Progress(" ... pass took %d ms",System.currentTimeMillis()-startTime);
             } else {
               Fail("unknown pass %s",pass);
@@ -619,10 +810,24 @@ public class Main
               vct.util.Configuration.getDiagSyntax().print(System.out,program);
             }
           }
+          if (save_ast_after.contains(pass) && fatal_errs==0){
+            File file=new File(pass+".ast");
+            startTime = System.currentTimeMillis();
+            try {
+              new ASTSnapshot(pass,passes,files,program).save(file);
+            } catch (IOException e) {
+              Fail("could not save snapshot: %s",e.getMessage());
+            }
+            Progress("Saved snapshot %s in %d ms",file,System.currentTimeMillis()-startTime);
+          }
           if (stop_after.contains(pass)){
             Fail("exit after pass %s",pass);
           }
         }
+        if (!skipped.isEmpty()){
+          Progress("Skipped %d passes (%s), saving an estimated %d ms",
+              skipped.size(),new ArrayShow(" ",skipped.toArray()),saved);
+        }
         Output("The final verdict is %s",fatal_errs==0?"Pass":"Fail");
         //report.listFatals();
       }
@@ -633,14 +838,19 @@ public class Main
       e.printStackTrace();
       throw e;
     } finally {
+      PerformanceReport.close();
+      if (LeafInterner.enabled.get()){
+        Progress("Interning %s",LeafInterner.statistics());
+      }
+      if (NormalForms.enabled.get()){
+        Progress("Normal forms: %s",NormalForms.statistics());
+      }
       Output("entire run took %d ms",System.currentTimeMillis()-globalStart);
-      System.exit(exit);
     }
+    return exit;
   }
 
   private static void define_passes(
-      final StringSetting silver,
-      final BooleanSetting separate_checks,
       Hashtable<String, CompilerPass> defined_passes,
       Hashtable<String, ValidationPass> defined_checks) {
     defined_passes.put("java",new CompilerPass("print AST in java syntax"){
@@ -668,11 +878,7 @@ public class Main
       }
     });   
     compiler_pass(defined_passes,"access","convert access expressions for histories/futures",AccessIntroduce.class);
-    defined_passes.put("assign",new CompilerPass("change inline assignments to statements"){
-      public ProgramUnit apply(ProgramUnit arg,String ... args){
-        return new AssignmentRewriter(arg).rewriteAll();
-      }
-    });
+    compiler_pass(defined_passes,"assign","change inline assignments to statements",AssignmentRewriter.class);
     defined_checks.put("boogie",new ValidationPass("verify with Boogie"){
       public TestReport apply(ProgramUnit arg,String ... args){
         return vct.boogie.Main.TestBoogie(arg);
@@ -853,16 +1059,8 @@ public class Main
         return new ExplicitPermissionEncoding(arg).rewriteAll();
       }
     });
-    defined_passes.put("finalize_args",new CompilerPass("???"){
-      public ProgramUnit apply(ProgramUnit arg,String ... args){
-        return new FinalizeArguments(arg).rewriteAll();
-      }
-    });
-    defined_passes.put("flatten",new CompilerPass("remove nesting of expression"){
-      public ProgramUnit apply(ProgramUnit arg,String ... args){
-        return new Flatten(arg).rewriteAll();
-      }
-    });
+    compiler_pass(defined_passes,"finalize_args","???",FinalizeArguments.class);
+    compiler_pass(defined_passes,"flatten","remove nesting of expression",Flatten.class);
     defined_passes.put("ghost-lift",new CompilerPass("Lift ghost code to real code"){
       public ProgramUnit apply(ProgramUnit arg,String ... args){
         return new GhostLifter(arg).rewriteAll();
@@ -887,6 +1085,9 @@ public class Main
       public ProgramUnit apply(ProgramUnit arg,String ... args){
         return new InlinePredicatesRewriter(arg).rewriteAll();
       }
+      public boolean applies(FeatureScanner features){
+        return features.usesInlineDefinitions();
+      }
     });
     defined_passes.put("kernel-split",new CompilerPass("Split kernels into main, thread and barrier."){
       public ProgramUnit apply(ProgramUnit arg,String ... args){
@@ -936,12 +1137,11 @@ public class Main
       public ProgramUnit apply(ProgramUnit arg,String ... args){
         return new RecognizeMultiDim(arg).rewriteAll();
       }
-    });
-    defined_passes.put("reorder",new CompilerPass("reorder statements (e.g. all declarations at the start of a bock"){
-      public ProgramUnit apply(ProgramUnit arg,String ... args){
-        return new ReorderAssignments(arg).rewriteAll();
+      public boolean applies(FeatureScanner features){
+        return features.usesArrays();
       }
     });
+    compiler_pass(defined_passes,"reorder","reorder statements (e.g. all declarations at the start of a bock",ReorderAssignments.class);
    defined_passes.put("standardize-functions",new CompilerPass("translate pure methods to function syntax."){
      public ProgramUnit apply(ProgramUnit arg,String ... args){
        return new PureMethodsAsFunctions(arg).rewriteAll();
@@ -956,6 +1156,9 @@ public class Main
      public ProgramUnit apply(ProgramUnit arg,String ... args){
        return new PropagateInvariants(arg).rewriteAll();
      }
+     public boolean applies(FeatureScanner features){
+       return features.usesContractInvariants() || features.usesParallelBlocks();
+     }
    });
    defined_passes.put("quant-optimize",new CompilerPass("insert satisfyability checks for all methods"){
      public ProgramUnit apply(ProgramUnit arg,String ... args){
@@ -972,6 +1175,14 @@ public class Main
       public ProgramUnit apply(ProgramUnit arg,String ... args){
         return new RewriteArrayRef(arg).rewriteAll();
       }
+      public boolean applies(FeatureScanner features){
+        return features.usesArrays() || features.usesField("length")
+            || features.usesOperator(StandardOperator.ValidArray)
+            || features.usesOperator(StandardOperator.ValidMatrix)
+            || features.usesOperator(StandardOperator.Length)
+            || features.usesOperator(StandardOperator.Values)
+            || features.usesOperator(StandardOperator.NewArray);
+      }
     });
     defined_passes.put("rm_cons",new CompilerPass("???"){
       public ProgramUnit apply(ProgramUnit arg,String ... args){
@@ -1020,11 +1231,7 @@ public class Main
         return trs.normalize(arg);
       }
     });
-    defined_passes.put("simplify_calls",new CompilerPass("???"){
-      public ProgramUnit apply(ProgramUnit arg,String ... args){
-        return new SimplifyCalls(arg).rewriteAll();
-      }
-    });
+    compiler_pass(defined_passes,"simplify_calls","???",SimplifyCalls.class);
     defined_passes.put("simplify_expr",new CompilerPass("Simplify expressions"){
       public ProgramUnit apply(ProgramUnit arg,String ... args){
         RewriteSystem trs=RewriteSystems.getRewriteSystem("simplify_expr");
@@ -1047,11 +1254,7 @@ public class Main
         return trs.normalize(arg);
       }
     });
-    defined_passes.put("standardize",new CompilerPass("Standardize representation"){
-      public ProgramUnit apply(ProgramUnit arg,String ... args){
-        return new Standardize(arg).rewriteAll();
-      }
-    });
+    compiler_pass(defined_passes,"standardize","Standardize representation",Standardize.class);
     defined_passes.put("strip_constructors",new CompilerPass("Strip constructors from classes"){
       public ProgramUnit apply(ProgramUnit arg,String ... args){
         return new StripConstructors(arg).rewriteAll();
@@ -1078,6 +1281,21 @@ public class Main
   }
 
   
+  /**
+   * Estimate the time that a pass would take, based on its last run.
+   * A pass that did not run yet is estimated to cost as much as the last
+   * standardization, which is a plain copy of the program.
+   */
+  private static long estimate(Hashtable<String,Long> durations,String pass){
+    Long res=durations.get(pass);
+    if (res==null) res=durations.get("standardize");
+    return res==null?0:res;
+  }
+  
+  private static boolean fusible(CompilerPass pass){
+    return pass.getRewriter()!=null && FusedRewriter.fusible(pass.getRewriter());
+  }
+  
   private static void branching_pass(Hashtable<String, CompilerPass> defined_passes,
   String key, String description, final Class<? extends AbstractRewriter> class1) {
 try {
@@ -1114,6 +1332,11 @@ try {
         
         Constructor<? extends AbstractRewriter> cons=class1.getConstructor(ProgramUnit.class);
         
+        @Override
+        public Class<? extends AbstractRewriter> getRewriter(){
+          return class1;
+        }
+        
         @Override
         public ProgramUnit apply(ProgramUnit arg, String... args) {
           AbstractRewriter rw;
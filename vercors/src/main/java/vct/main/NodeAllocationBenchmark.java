@@ -0,0 +1,87 @@
+package vct.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import vct.col.ast.ASTNode;
+import vct.col.ast.NameExpression;
+
+/**
+ * Measures how fast AST nodes can be created by several threads at once.
+ *
+ * Usage: NodeAllocationBenchmark [max threads] [nodes per thread]
+ *
+ * For 1, 2, 4, ... up to the maximum number of threads, every thread
+ * creates the given number of nodes. The throughput is reported per
+ * thread count, after some warm up rounds. The sequence numbers of the nodes
+ * are checked to be unique.
+ */
+public class NodeAllocationBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int max_threads=args.length>0?Integer.parseInt(args[0]):Runtime.getRuntime().availableProcessors();
+    final int count=args.length>1?Integer.parseInt(args[1]):2000000;
+    for(int i=0;i<3;i++) run(max_threads,count);
+    for(int threads=1;threads<=max_threads;threads*=2){
+      long time=run(threads,count);
+      System.out.printf("%2d threads: %6d ms, %8.2f million nodes/s%n",
+          threads,time/1000000,(threads*(double)count)/(time/1000.0));
+    }
+  }
+
+  /**
+   * Let every thread create nodes.
+   *
+   * @return The elapsed time in nanoseconds.
+   */
+  private static long run(int threads,final int count) throws Exception {
+    ExecutorService pool=Executors.newFixedThreadPool(threads);
+    try {
+      ArrayList<Callable<long[]>> tasks=new ArrayList<Callable<long[]>>();
+      for(int i=0;i<threads;i++){
+        tasks.add(new Callable<long[]>(){
+          @Override
+          public long[] call(){
+            long res[]=new long[count];
+            for(int j=0;j<count;j++){
+              ASTNode node=new NameExpression("x");
+              res[j]=node.getUniqueID();
+            }
+            return res;
+          }
+        });
+      }
+      long start=System.nanoTime();
+      ArrayList<long[]> ids=new ArrayList<long[]>();
+      for(Future<long[]> f:pool.invokeAll(tasks)){
+        ids.add(f.get());
+      }
+      long time=System.nanoTime()-start;
+      check(ids);
+      return time;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void check(ArrayList<long[]> ids){
+    int total=0;
+    for(long[] part:ids) total+=part.length;
+    long all[]=new long[total];
+    int pos=0;
+    for(long[] part:ids){
+      System.arraycopy(part,0,all,pos,part.length);
+      pos+=part.length;
+    }
+    Arrays.sort(all);
+    for(int i=1;i<all.length;i++){
+      if (all[i]==all[i-1]){
+        throw new Error("duplicate node id "+all[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package vct.main;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import hre.ast.MessageOrigin;
+import vct.col.ast.ASTClass;
+import vct.col.ast.ASTClass.ClassKind;
+import vct.col.ast.ASTNode;
+import vct.col.ast.DeclarationStatement;
+import vct.col.ast.PrimitiveSort;
+import vct.col.ast.ProgramUnit;
+import vct.col.ast.StandardOperator;
+import vct.col.rewrite.AbstractRewriter;
+import vct.col.rewrite.NormalForms;
+import vct.col.rewrite.RewriteSystem;
+import vct.col.util.ASTFactory;
+import vct.util.Configuration;
+
+/**
+ * Measures how fast the rule sets in the config directory normalize expressions.
+ *
+ * Usage: RewriteSystemBenchmark [terms] [depth] [rounds]
+ *
+ * A fixed pseudo-random set of arithmetic, boolean and quantified expressions
+ * of the given depth is built. Every rule set is used to normalize all of them,
+ * and the time per term is reported after some warm up rounds.
+ *
+ * The terms are also normalized as the bodies of a program, in which every
+ * term is copied twice, like the contracts of the methods in an encoding. This
+ * program is normalized without memoisation of normal forms, with memoisation
+ * within every normalization, and with normal forms shared between rounds.
+ */
+public class RewriteSystemBenchmark {
+
+  private static final StandardOperator int_ops[]={
+    StandardOperator.Plus,StandardOperator.Minus,StandardOperator.Mult,StandardOperator.Div
+  };
+
+  private static final StandardOperator cmp_ops[]={
+    StandardOperator.LT,StandardOperator.LTE,StandardOperator.GT,StandardOperator.GTE,StandardOperator.EQ
+  };
+
+  private static final StandardOperator bool_ops[]={
+    StandardOperator.And,StandardOperator.Or,StandardOperator.Implies,StandardOperator.Star
+  };
+
+  public static void main(String[] args) {
+    int count=args.length>0?Integer.parseInt(args[0]):500;
+    int depth=args.length>1?Integer.parseInt(args[1]):5;
+    int rounds=args.length>2?Integer.parseInt(args[2]):10;
+    ASTFactory<Object> create=new ASTFactory<Object>();
+    create.setOrigin(new MessageOrigin("benchmark"));
+    Random random=new Random(42);
+    ArrayList<ASTNode> terms=new ArrayList<ASTNode>();
+    for(int i=0;i<count;i++){
+      terms.add(bool(create,random,depth));
+    }
+    ProgramUnit program=new ProgramUnit();
+    AbstractRewriter copy=new AbstractRewriter(program);
+    ASTClass cl=create.ast_class("Benchmark",ClassKind.Plain,null,null,null);
+    for(int i=0;i<count;i++){
+      for(String prefix:new String[]{"method_","internal_"}){
+        cl.add(create.predicate(prefix+i,copy.rewrite(terms.get(i)),new DeclarationStatement[0]));
+      }
+    }
+    program.add(cl);
+    File config[]=new File(Configuration.getHome().toFile(),"config").listFiles();
+    if (config==null) return;
+    Arrays.sort(config);
+    System.out.printf("%-22s %8s %8s %8s %8s (us/term)%n","rule set","term","program","memo","shared");
+    for(File file:config){
+      String name=file.getName();
+      if (!name.endsWith(".jspec")) continue;
+      String sys=name.substring(0,name.length()-6);
+      RewriteSystem trs=RewriteSystems.getRewriteSystem(sys,null);
+      double term=time(rounds,count,()->normalize(trs,terms));
+      double plain=time(rounds,count,()->trs.normalize(program));
+      NormalForms forms=new NormalForms();
+      RewriteSystem memo_trs=RewriteSystems.getRewriteSystem(sys,forms);
+      double memo=time(rounds,count,()->{ forms.clear(); memo_trs.normalize(program); });
+      double shared=time(rounds,count,()->memo_trs.normalize(program));
+      System.out.printf("%-22s %8.2f %8.2f %8.2f %8.2f%n",sys,term,plain,memo,shared);
+    }
+    System.out.printf("Normal forms: %s%n",NormalForms.statistics());
+  }
+
+  /**
+   * Time a task after some warm up rounds.
+   *
+   * @return The time per term in micro seconds.
+   */
+  private static double time(int rounds,int count,Runnable task){
+    for(int i=0;i<rounds;i++){
+      task.run();
+    }
+    long start=System.nanoTime();
+    for(int i=0;i<rounds;i++){
+      task.run();
+    }
+    long time=System.nanoTime()-start;
+    return time/(1000.0*rounds*count);
+  }
+
+  private static void normalize(RewriteSystem trs,ArrayList<ASTNode> terms){
+    for(ASTNode term:terms){
+      trs.normalize(term);
+    }
+  }
+
+  private static ASTNode integer(ASTFactory<Object> create,Random random,int depth){
+    if (depth==0 || random.nextInt(4)==0){
+      switch(random.nextInt(3)){
+      case 0: return create.constant(random.nextInt(3));
+      case 1: return create.local_name("i");
+      default: return create.local_name("n"+random.nextInt(3));
+      }
+    }
+    return create.expression(int_ops[random.nextInt(int_ops.length)],
+        integer(create,random,depth-1),integer(create,random,depth-1));
+  }
+
+  private static ASTNode bool(ASTFactory<Object> create,Random random,int depth){
+    if (depth==0 || random.nextInt(5)==0){
+      switch(random.nextInt(3)){
+      case 0: return create.constant(random.nextBoolean());
+      case 1: return create.local_name("b"+random.nextInt(3));
+      default: return create.expression(cmp_ops[random.nextInt(cmp_ops.length)],
+          integer(create,random,1),integer(create,random,1));
+      }
+    }
+    if (random.nextInt(4)==0){
+      ASTNode guard=create.expression(StandardOperator.And,
+          create.expression(StandardOperator.LTE,create.constant(0),create.local_name("i")),
+          create.expression(StandardOperator.LT,create.local_name("i"),create.local_name("n0")));
+      return create.forall(guard,bool(create,random,depth-1),
+          create.field_decl("i",create.primitive_type(PrimitiveSort.Integer)));
+    }
+    return create.expression(bool_ops[random.nextInt(bool_ops.length)],
+        bool(create,random,depth-1),bool(create,random,depth-1));
+  }
+}
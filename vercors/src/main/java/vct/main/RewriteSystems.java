@@ -6,6 +6,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import vct.antlr4.parser.Parsers;
 import vct.col.ast.ProgramUnit;
+import vct.col.rewrite.NormalForms;
 import vct.col.rewrite.RewriteSystem;
 import vct.util.Configuration;
 
@@ -20,11 +21,18 @@ public class RewriteSystems {
   
   static Map<File,ProgramUnit> systems=new ConcurrentHashMap<File,ProgramUnit>();
   
+  static Map<File,NormalForms> normal_forms=new ConcurrentHashMap<File,NormalForms>();
+  
   public static RewriteSystem getRewriteSystem(String name){
-    File f=new File(name+".jspec");
-    if (!f.exists()){
-      f=new File(new File(Configuration.getHome().toFile(),"config"),name+".jspec");
+    NormalForms forms=null;
+    if (NormalForms.enabled.get()){
+      forms=normal_forms.computeIfAbsent(file(name),k->new NormalForms());
     }
+    return getRewriteSystem(name,forms);
+  }
+
+  static RewriteSystem getRewriteSystem(String name,NormalForms forms){
+    File f=file(name);
     ProgramUnit unit=systems.get(f);
     if (unit==null) synchronized(systems){
       unit=systems.get(f);
@@ -33,7 +41,15 @@ public class RewriteSystems {
         systems.put(f, unit);
       }
     }
-    return new RewriteSystem(unit,name);
+    return new RewriteSystem(unit,name,forms);
+  }
+
+  private static File file(String name){
+    File f=new File(name+".jspec");
+    if (!f.exists()){
+      f=new File(new File(Configuration.getHome().toFile(),"config"),name+".jspec");
+    }
+    return f;
   }
 
 }
@@ -0,0 +1,125 @@
+package vct.main;
+
+import static hre.lang.System.Output;
+import static hre.lang.System.Warning;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+
+import hre.config.Setting;
+import hre.lang.HREExitException;
+
+/**
+ * Verification server, which keeps the tool set loaded between runs.
+ *
+ * Starting the tool costs JVM start-up, initialization of the parsers
+ * and loading of the back-end verifier. A server pays these costs once
+ * and then runs jobs on the warm tool set.
+ *
+ * Jobs are read one per line, either from standard input or from
+ * connections to a local port. A job is a white space separated list of
+ * command line arguments, exactly as they would be passed to vct. The output
+ * of a job, including the method verdicts, is sent back while it is produced
+ * and is followed by the line <code>job N finished with exit code E</code>.
+ * Jobs are processed one at a time.
+ *
+ * All settings, such as those in {@link vct.util.Configuration}, are
+ * restored after every job, so the options of a job only apply to that job.
+ * Settings given on the command line of the server itself apply to all jobs.
+ */
+public class VerificationServer {
+
+  /**
+   * Number of jobs processed so far.
+   */
+  private int jobs=0;
+
+  /**
+   * Accept connections on a port of the loopback interface, until the
+   * server is killed.
+   *
+   * @param port The port to listen on.
+   */
+  public void listen(int port) throws IOException {
+    ServerSocket socket=new ServerSocket(port,0,InetAddress.getLoopbackAddress());
+    try {
+      Output("verification server listening on port %d",socket.getLocalPort());
+      for(;;){
+        Socket client=socket.accept();
+        try {
+          PrintStream out=new PrintStream(client.getOutputStream(),true);
+          serve(client.getInputStream(),out);
+        } catch (IOException e) {
+          Warning("connection failed: %s",e);
+        } finally {
+          client.close();
+        }
+      }
+    } finally {
+      socket.close();
+    }
+  }
+
+  /**
+   * Process the jobs on the given input until end of file.
+   *
+   * While a job is running both the standard output and the standard error
+   * of the tool are redirected to the given stream.
+   *
+   * @param in Stream of jobs.
+   * @param out Stream to which the output of each job is written.
+   */
+  public void serve(InputStream in,PrintStream out) throws IOException {
+    BufferedReader reader=new BufferedReader(new InputStreamReader(in));
+    String line;
+    while((line=reader.readLine())!=null){
+      String args[]=arguments(line);
+      if (args.length==0) continue;
+      jobs++;
+      int exit=run_job(args,out);
+      out.printf("job %d finished with exit code %d%n",jobs,exit);
+      out.flush();
+    }
+  }
+
+  private int run_job(String[] args,PrintStream out){
+    PrintStream old_out=System.out;
+    PrintStream old_err=System.err;
+    Setting.Snapshot settings=Setting.snapshot();
+    Object debug=hre.lang.System.SaveDebug();
+    System.setOut(out);
+    System.setErr(out);
+    try {
+      return Main.run(args);
+    } catch (HREExitException e) {
+      return e.exit;
+    } catch (Throwable e) {
+      e.printStackTrace();
+      return 1;
+    } finally {
+      System.out.flush();
+      System.setOut(old_out);
+      System.setErr(old_err);
+      settings.restore();
+      hre.lang.System.RestoreDebug(debug);
+    }
+  }
+
+  /**
+   * Split a job line into its arguments.
+   */
+  static String[] arguments(String line){
+    ArrayList<String> res=new ArrayList<String>();
+    for(String arg:line.trim().split("\\s+")){
+      if (arg.length()>0) res.add(arg);
+    }
+    return res.toArray(new String[0]);
+  }
+}
@@ -0,0 +1,106 @@
+package vct.main;
+
+import hre.ast.MessageOrigin;
+import vct.col.ast.ASTClass;
+import vct.col.ast.ASTClass.ClassKind;
+import vct.col.ast.ASTDeclaration;
+import vct.col.ast.ASTNode;
+import vct.col.ast.BlockStatement;
+import vct.col.ast.DeclarationStatement;
+import vct.col.ast.PrimitiveSort;
+import vct.col.ast.ProgramUnit;
+import vct.col.ast.RecursiveVisitor;
+import vct.col.ast.StandardOperator;
+import vct.col.rewrite.AbstractRewriter;
+import vct.col.util.ASTFactory;
+
+/**
+ * Measures how fast ASTs can be traversed and copied.
+ *
+ * Usage: VisitorBenchmark [methods] [statements per method] [rounds]
+ *
+ * A synthetic class is built with the given number of methods, whose bodies
+ * consist of assignments of nested sums. The class is traversed with a
+ * {@link RecursiveVisitor} and copied with an {@link AbstractRewriter}.
+ * The time per node is reported for both, after some warm up rounds.
+ */
+public class VisitorBenchmark {
+
+  public static void main(String[] args) {
+    int methods=args.length>0?Integer.parseInt(args[0]):200;
+    int statements=args.length>1?Integer.parseInt(args[1]):100;
+    int rounds=args.length>2?Integer.parseInt(args[2]):10;
+    ProgramUnit program=build(methods,statements);
+    long nodes=traverse(program);
+    System.out.printf("program of %d nodes%n",nodes);
+    for(int i=0;i<rounds;i++){
+      traverse(program);
+      copy(program);
+    }
+    long traverse_time=0;
+    long copy_time=0;
+    for(int i=0;i<rounds;i++){
+      long start=System.nanoTime();
+      traverse(program);
+      long mid=System.nanoTime();
+      copy(program);
+      long end=System.nanoTime();
+      traverse_time+=mid-start;
+      copy_time+=end-mid;
+    }
+    System.out.printf("traverse: %6.1f ns/node%n",traverse_time/(double)(rounds*nodes));
+    System.out.printf("copy:     %6.1f ns/node%n",copy_time/(double)(rounds*nodes));
+  }
+
+  private static ProgramUnit build(int methods,int statements){
+    ASTFactory<Object> create=new ASTFactory<Object>();
+    create.setOrigin(new MessageOrigin("benchmark"));
+    ASTClass cl=create.ast_class("Benchmark",ClassKind.Plain,null,null,null);
+    for(int i=0;i<methods;i++){
+      BlockStatement body=create.block();
+      for(int j=0;j<statements;j++){
+        ASTNode sum=create.local_name("y");
+        for(int k=0;k<j%8;k++){
+          sum=create.expression(StandardOperator.Plus,sum,create.constant(k));
+        }
+        body.add(create.assignment(create.local_name("x"),sum));
+      }
+      cl.add_dynamic(create.method_decl(create.primitive_type(PrimitiveSort.Void),
+          null,"m"+i,new DeclarationStatement[0],body));
+    }
+    ProgramUnit res=new ProgramUnit();
+    res.add(cl);
+    return res;
+  }
+
+  private static class Counter extends RecursiveVisitor<Object> {
+    public long count=0;
+    public Counter(ProgramUnit source){
+      super(source,null);
+    }
+    @Override
+    public void pre_visit(ASTNode node){
+      super.pre_visit(node);
+      count++;
+    }
+  }
+
+  /**
+   * Visit every node of a program.
+   *
+   * @return The number of nodes.
+   */
+  private static long traverse(ProgramUnit program){
+    Counter counter=new Counter(program);
+    program.accept(counter);
+    return counter.count;
+  }
+
+  private static ProgramUnit copy(ProgramUnit program){
+    AbstractRewriter rw=new AbstractRewriter(program);
+    for(ASTDeclaration decl:program.get()){
+      rw.target().add(rw.rewrite(decl));
+    }
+    return rw.target();
+  }
+}
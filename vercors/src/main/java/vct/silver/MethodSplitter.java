@@ -0,0 +1,273 @@
+package vct.silver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import vct.antlr4.parser.RemoveBodies;
+import vct.col.ast.ASTDeclaration;
+import vct.col.ast.ASTNode;
+import vct.col.ast.ASTSpecial;
+import vct.col.ast.AxiomaticDataType;
+import vct.col.ast.ClassType;
+import vct.col.ast.Method;
+import vct.col.ast.MethodInvokation;
+import vct.col.ast.OperatorExpression;
+import vct.col.ast.ProgramUnit;
+import vct.col.ast.RecursiveVisitor;
+import vct.col.ast.StandardOperator;
+import vct.col.util.ASTFactory;
+
+/**
+ * Split a program, as it is passed to Silver, into verification units.
+ *
+ * Every unit contains one method to be verified together with
+ * the functions, predicates and ADTs that it depends on and the fields.
+ * Methods that are called by the method are included without their body,
+ * and so are the predicates that the unit never folds or unfolds, because
+ * an abstract predicate behaves the same as long as it is not opened.
+ * The functions and predicates in such a unit are only needed to check the
+ * method, they are verified once in a separate unit that contains all
+ * declarations except the methods. Function bodies stay in the method units,
+ * because the method may need their definitions, so back ends that ignore the
+ * go/no-go hooks of the Viper API check those again.
+ * The declarations of the original program are shared by the units,
+ * only the methods and predicates without body are copies.
+ * Hence, units must be built on one thread, but may be verified concurrently.
+ */
+public class MethodSplitter {
+
+  /**
+   * Collects the names of the declarations that a declaration refers to.
+   */
+  private static class DependencyScanner extends RecursiveVisitor<Object> {
+
+    public final HashSet<String> names=new HashSet<String>();
+
+    /**
+     * The predicates that are folded or unfolded, as far as they are known.
+     * Any predicate mentioned in the argument of a fold or unfold counts.
+     */
+    public final HashSet<String> opened=new HashSet<String>();
+
+    private boolean opening=false;
+
+    public DependencyScanner(){
+      super(null,null);
+    }
+
+    @Override
+    public void visit(MethodInvokation e){
+      names.add(e.method);
+      if (opening) opened.add(e.method);
+      super.visit(e);
+    }
+
+    @Override
+    public void visit(ASTSpecial s){
+      if (s.isSpecial(ASTSpecial.Kind.Fold) || s.isSpecial(ASTSpecial.Kind.Unfold)){
+        open(s.args[0]);
+      }
+      super.visit(s);
+    }
+
+    @Override
+    public void visit(OperatorExpression e){
+      if (e.isa(StandardOperator.Unfolding)){
+        open(e.arg(0));
+      }
+      super.visit(e);
+    }
+
+    private void open(ASTNode predicate){
+      boolean old=opening;
+      opening=true;
+      predicate.accept(this);
+      opening=old;
+    }
+
+    @Override
+    public void visit(ClassType t){
+      names.add(t.getName());
+      super.visit(t);
+    }
+
+    @Override
+    public void visit(Method m){
+      if (m.getReturnType()!=null) m.getReturnType().accept(this);
+      super.visit(m);
+    }
+  }
+
+  private final ProgramUnit program;
+
+  /**
+   * Methods, functions, predicates and ADTs, indexed by name.
+   */
+  private final Hashtable<String,ASTDeclaration> index=new Hashtable<String,ASTDeclaration>();
+
+  /**
+   * The methods for which a unit is created, in program order.
+   */
+  private final ArrayList<Method> methods=new ArrayList<Method>();
+
+  private final RemoveBodies strip;
+
+  /**
+   * Abstract versions of predicates, which are made on demand.
+   */
+  private final Hashtable<String,Method> abstract_predicates=new Hashtable<String,Method>();
+
+  public MethodSplitter(ProgramUnit program){
+    this.program=program;
+    strip=new RemoveBodies(program);
+    for(ASTDeclaration decl:program.get()){
+      if (decl instanceof Method){
+        Method m=(Method)decl;
+        index.put(m.name(),m);
+        if (m.kind==Method.Kind.Plain){
+          methods.add(m);
+        }
+      } else if (decl instanceof AxiomaticDataType){
+        AxiomaticDataType adt=(AxiomaticDataType)decl;
+        index.put(adt.name(),adt);
+        for(Method m:adt.constructorsJava()){
+          index.put(m.name(),adt);
+        }
+        for(Method m:adt.mappingsJava()){
+          index.put(m.name(),adt);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the methods that will be verified as separate units.
+   */
+  public List<Method> methods(){
+    return methods;
+  }
+
+  /**
+   * Build the verification unit of a method.
+   *
+   * @param method The method to be verified.
+   * @return A program containing the method and all its dependencies.
+   */
+  public ProgramUnit unit(Method method){
+    // maps included declarations to the version that is put in the unit.
+    IdentityHashMap<ASTDeclaration,ASTDeclaration> included=new IdentityHashMap<ASTDeclaration,ASTDeclaration>();
+    HashSet<String> opened=new HashSet<String>();
+    LinkedList<ASTDeclaration> todo=new LinkedList<ASTDeclaration>();
+    included.put(method,method);
+    todo.add(method);
+    while(!todo.isEmpty()){
+      ASTDeclaration decl=todo.removeFirst();
+      DependencyScanner scanner=new DependencyScanner();
+      decl.accept(scanner);
+      for(String name:scanner.opened){
+        if (!opened.add(name)) continue;
+        ASTDeclaration dep=index.get(name);
+        if (dep!=null && included.containsKey(dep) && included.get(dep)!=dep){
+          // the predicate was included without body, but its body is needed after all.
+          included.put(dep,dep);
+          todo.add(dep);
+        }
+      }
+      for(String name:scanner.names){
+        ASTDeclaration dep=index.get(name);
+        if (dep==null || included.containsKey(dep)) continue;
+        ASTDeclaration version=dep;
+        if (dep instanceof Method){
+          Method m=(Method)dep;
+          if (m.kind==Method.Kind.Plain){
+            // Only the contract of a called method is needed.
+            version=strip.rewrite(dep);
+          } else if (m.kind==Method.Kind.Predicate && !opened.contains(name)){
+            // A predicate that is never folded or unfolded may be abstract.
+            version=abstract_predicate(m);
+          }
+        }
+        included.put(dep,version);
+        todo.add(version);
+      }
+    }
+    ProgramUnit res=new ProgramUnit();
+    for(ASTDeclaration decl:program.get()){
+      if (decl instanceof Method || decl instanceof AxiomaticDataType){
+        ASTDeclaration version=included.get(decl);
+        if (version!=null) res.add(version);
+      } else {
+        // fields and comments are included in every unit.
+        res.add(decl);
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Get a copy of a predicate without body.
+   */
+  private Method abstract_predicate(Method m){
+    Method res=abstract_predicates.get(m.name());
+    if (res==null){
+      ASTFactory<?> create=new ASTFactory<Object>();
+      create.setOrigin(m.getOrigin());
+      res=create.predicate(m.name(),null,strip.rewrite(m.getArgs()));
+      abstract_predicates.put(m.name(),res);
+    }
+    return res;
+  }
+
+  /**
+   * Build the unit in which the functions, predicates and ADTs are verified.
+   *
+   * @return A program containing everything but the methods,
+   *         or null if there are no functions and predicates to verify.
+   */
+  public ProgramUnit members(){
+    ProgramUnit res=new ProgramUnit();
+    boolean found=false;
+    for(ASTDeclaration decl:program.get()){
+      if (decl instanceof Method){
+        if (((Method)decl).kind==Method.Kind.Plain) continue;
+        found=true;
+      }
+      res.add(decl);
+    }
+    return found?res:null;
+  }
+
+  /**
+   * Build a copy of the program, in which the given methods have no body.
+   * The verification of the remaining methods is not affected.
+   *
+   * @param names The names of the methods to be stripped.
+   */
+  public ProgramUnit without(Set<String> names){
+    ProgramUnit res=new ProgramUnit();
+    for(ASTDeclaration decl:program.get()){
+      if (decl instanceof Method && names.contains(((Method)decl).name())){
+        res.add(strip.rewrite(decl));
+      } else {
+        res.add(decl);
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Build the verification units of all methods.
+   */
+  public List<ProgramUnit> split(){
+    ArrayList<ProgramUnit> res=new ArrayList<ProgramUnit>();
+    for(Method m:methods){
+      res.add(unit(m));
+    }
+    return res;
+  }
+}
@@ -5,10 +5,21 @@ import viper.api.*;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Hashtable;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import hre.ast.Origin;
 import hre.config.IntegerSetting;
@@ -32,17 +43,50 @@ public class SilverBackend {
   
   public static StringSetting silver_module=new StringSetting(null);
   public static IntegerSetting silicon_z3_timeout=new IntegerSetting(30000);
+  public static IntegerSetting method_threads=new IntegerSetting(1);
   
   
+  /**
+   * Verifiers that have been loaded, indexed by module and tool.
+   * Loading a verifier creates a class loader for its jar, so
+   * verifiers are loaded once and reused by subsequent runs.
+   */
+  private static Hashtable<String,Object> verifiers=new Hashtable<String,Object>();
+  
   public static <T,E,S,DFunc,DAxiom,Program>
   ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program>
   getVerifier(String tool){
+    boolean parser=tool.equals("parser");
+    String module=silver_module.used()?silver_module.get():"builtin";
+    if (!parser){
+      hre.lang.System.Output("verifying with %s %s backend",module,tool);
+    }
+    @SuppressWarnings("unchecked")
+    ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier=(ViperAPI<Origin, VerificationError, T, E, S, DFunc, DAxiom, Program>)shared_verifier(tool);
+    return verifier;
+  }
+  
+  private static String verifier_key(String tool){
+    return (silver_module.used()?silver_module.get():"builtin")+"/"+tool;
+  }
+  
+  /**
+   * Get the verifier that is used by sequential runs, loading it if needed.
+   */
+  private static synchronized Object shared_verifier(String tool){
+    String key=verifier_key(tool);
+    Object obj=verifiers.get(key);
+    if (obj==null){
+      obj=loadVerifier(tool);
+      verifiers.put(key,obj);
+    }
+    return obj;
+  }
+  
+  private static Object loadVerifier(String tool){
     boolean parser=tool.equals("parser");
     if (parser){
       tool="silicon";
-    } else {
-      hre.lang.System.Output("verifying with %s %s backend",
-          silver_module.used()?silver_module.get():"builtin",tool);
     }
     File jarfile;
     if (silver_module.used()){
@@ -98,10 +142,8 @@ public class SilverBackend {
     if (!(obj instanceof ViperAPI)){
       hre.lang.System.Fail("Plugin is incompatible: cannot cast verifier.");
     }
-    @SuppressWarnings("unchecked")
-    ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier=(ViperAPI<Origin, VerificationError, T, E, S, DFunc, DAxiom, Program>)obj;
     //verifier.set_tool_home(Configuration.getToolHome());
-    return verifier;
+    return obj;
   }
   
   public static <T,E,S,Decl,DFunc,DAxiom,Program>
@@ -112,55 +154,309 @@ public class SilverBackend {
     report.add(new PassAddVisitor(given));
     MessageFactory log=new MessageFactory(new PassAddVisitor(report));
     TaskBegin verification=log.begin("Viper verification");
-    ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier=getVerifier(tool);
-    //verifier.set_detail(Configuration.detailed_errors.get());
-    VerCorsViperAPI vercors=VerCorsViperAPI.get();
-    Program program=vercors.prog.convert(verifier,arg);
-    log.phase(verification,"Backend AST conversion");
-    String fname=vct.util.Configuration.backend_file.get();
-    if (fname!=null){
-      PrintWriter pw=null;
-      try {
-         pw = new java.io.PrintWriter(new java.io.File(fname));
-         verifier.write_program(pw,program);
-      } catch (FileNotFoundException e) {
-        e.printStackTrace();
-      } finally {
-        if (pw!=null) pw.close();
+    if (method_threads.get()>1){
+      verify_methods(arg,tool,log,verification);
+    } else {
+      ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier=getVerifier(tool);
+      // keys of the methods that are not in the cache. The units are only
+      // converted to compute keys if the cache is enabled.
+      Hashtable<String,String> keys=null;
+      if (VerificationCache.enabled()){
+        MethodSplitter splitter=new MethodSplitter(arg);
+        HashSet<String> cached=new HashSet<String>();
+        keys=new Hashtable<String,String>();
+        for(Method m:splitter.methods()){
+          String key=unit_fingerprint(verifier,splitter.unit(m),tool);
+          if (VerificationCache.get().passed(key)){
+            report_cached(m.name());
+            cached.add(m.name());
+          } else {
+            keys.put(m.name(),key);
+          }
+        }
+        log.phase(verification,String.format("Found %d of %d methods in cache",
+            cached.size(),splitter.methods().size()));
+        write_backend_file(verifier,arg);
+        arg=splitter.without(cached);
+      }
+      if (keys!=null && keys.isEmpty() && new MethodSplitter(arg).members()==null){
+        // Every method is cached and there are no functions or predicates to verify.
+        log.end(verification);
+        return report;
+      }
+      VerCorsViperAPI vercors=VerCorsViperAPI.get();
+      Program program=vercors.prog.convert(verifier,arg);
+      log.phase(verification,"Backend AST conversion");
+      if (keys==null){
+        write_backend_program(verifier,program);
+      }
+      Verdicts verdicts=verify(verifier,vercors,program,
+          keys==null?null:keys.keySet(),true,tool,log);
+      if (keys!=null){
+        for(String name:keys.keySet()){
+          if (verdicts.cacheable(name)){
+            VerificationCache.get().pass(keys.get(name),name);
+          }
+        }
       }
     }
-
+    log.end(verification);
+    return report;
+  }
+  
+  /**
+   * Verify every method as a separate unit on a work stealing pool.
+   * The functions, predicates and ADTs are verified once, in a unit of their own,
+   * so the method units only check their method.
+   * Each thread uses its own verifier.
+   */
+  private static void verify_methods(ProgramUnit arg,final String tool,
+      final MessageFactory log,final TaskBegin verification){
+    int threads=method_threads.get();
+    hre.lang.System.Output("verifying with %s %s backend using %d threads",
+        silver_module.used()?silver_module.get():"builtin",tool,threads);
+    MethodSplitter splitter=new MethodSplitter(arg);
+    ArrayList<Callable<Object>> tasks=new ArrayList<Callable<Object>>();
+    ProgramUnit members=splitter.members();
+    if (members!=null){
+      tasks.add(unit_task(members,null,tool,log));
+    }
+    for(Method m:splitter.methods()){
+      tasks.add(unit_task(splitter.unit(m),m.name(),tool,log));
+    }
+    log.phase(verification,String.format("Split into %d units",tasks.size()));
+    if (vct.util.Configuration.backend_file.get()!=null){
+      ViperAPI<Origin,VerificationError,Object,Object,Object,Object,Object,Object> verifier=cast(acquireVerifier(tool));
+      write_backend_file(verifier,arg);
+      releaseVerifier(tool,verifier);
+    }
+    ExecutorService pool=Executors.newWorkStealingPool(threads);
+    try {
+      for(Future<Object> future:pool.invokeAll(tasks)){
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          log.exception(new HREException("verification task failed: %s",e.getCause()));
+        }
+      }
+    } catch (InterruptedException e) {
+      log.exception(e);
+    } finally {
+      pool.shutdown();
+    }
+  }
+  
+  /**
+   * Create a task that verifies one unit.
+   *
+   * @param method The name of the method to be verified, or null for
+   *        the unit that verifies the functions and predicates.
+   */
+  private static Callable<Object> unit_task(final ProgramUnit unit,final String method,
+      final String tool,final MessageFactory log){
+    return new Callable<Object>(){
+      @Override
+      public Object call() {
+        ViperAPI<Origin,VerificationError,Object,Object,Object,Object,Object,Object> verifier=cast(acquireVerifier(tool));
+        try {
+          VerCorsViperAPI vercors=VerCorsViperAPI.get();
+          Object program=vercors.prog.convert(verifier,unit);
+          String key=null;
+          if (method!=null && VerificationCache.enabled()){
+            key=fingerprint(verifier,program,tool);
+            if (VerificationCache.get().passed(key)){
+              report_cached(method);
+              return null;
+            }
+          }
+          Set<String> methods=method==null?Collections.<String>emptySet():Collections.singleton(method);
+          Verdicts verdicts=verify(verifier,vercors,program,
+              methods,method==null,tool,log);
+          if (key!=null && verdicts.cacheable(method)){
+            VerificationCache.get().pass(key,method);
+          }
+        } finally {
+          releaseVerifier(tool,verifier);
+        }
+        return null;
+      }
+    };
+  }
+  
+  /**
+   * Verifiers that are not in use by a parallel verification task,
+   * indexed by module and tool.
+   * A verifier keeps the state of a verification in static fields of the
+   * classes that it loaded, so concurrent verifications need verifiers
+   * with their own class loader. The verifier of sequential runs is reused
+   * as one of them, and at most one verifier is loaded per thread.
+   */
+  private static Hashtable<String,ConcurrentLinkedQueue<Object>> idle_verifiers=
+      new Hashtable<String,ConcurrentLinkedQueue<Object>>();
+  
+  private static Object acquireVerifier(String tool){
+    String key=verifier_key(tool);
+    ConcurrentLinkedQueue<Object> queue;
+    synchronized(idle_verifiers){
+      queue=idle_verifiers.get(key);
+      if (queue==null){
+        queue=new ConcurrentLinkedQueue<Object>();
+        queue.add(shared_verifier(tool));
+        idle_verifiers.put(key,queue);
+      }
+    }
+    Object res=queue.poll();
+    if (res==null){
+      res=loadVerifier(tool);
+    }
+    return res;
+  }
+  
+  private static void releaseVerifier(String tool,Object verifier){
+    idle_verifiers.get(verifier_key(tool)).add(verifier);
+  }
+  
+  @SuppressWarnings("unchecked")
+  private static ViperAPI<Origin,VerificationError,Object,Object,Object,Object,Object,Object> cast(Object verifier){
+    return (ViperAPI<Origin,VerificationError,Object,Object,Object,Object,Object,Object>)verifier;
+  }
+  
+  private static void report_cached(String method){
+    System.err.printf("method verdict %s PASS (cached)%n",method);
+  }
+  
+  /**
+   * Compute the cache key of a verification unit.
+   */
+  private static <T,E,S,DFunc,DAxiom,Program> String unit_fingerprint(
+      ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier,
+      ProgramUnit unit,String tool){
+    return fingerprint(verifier,VerCorsViperAPI.get().prog.convert(verifier,unit),tool);
+  }
+  
+  private static <T,E,S,DFunc,DAxiom,Program> String fingerprint(
+      ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier,
+      Program program,String tool){
+    StringWriter text=new StringWriter();
+    PrintWriter pw=new PrintWriter(text);
+    verifier.write_program(pw,program);
+    pw.close();
+    String backend=String.format("%s %s z3-timeout=%d",
+        silver_module.used()?silver_module.get():"builtin",tool,silicon_z3_timeout.get());
+    return VerificationCache.key(backend,text.toString());
+  }
+  
+  private static <T,E,S,DFunc,DAxiom,Program> void write_backend_file(
+      ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier,
+      ProgramUnit arg){
+    if (vct.util.Configuration.backend_file.get()!=null){
+      write_backend_program(verifier,VerCorsViperAPI.get().prog.convert(verifier,arg));
+    }
+  }
+  
+  private static <T,E,S,DFunc,DAxiom,Program> void write_backend_program(
+      ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier,
+      Program program){
+    String fname=vct.util.Configuration.backend_file.get();
+    if (fname!=null) write_program(verifier,program,fname);
+  }
+  
+  private static <T,E,S,DFunc,DAxiom,Program> void write_program(
+      ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier,
+      Program program,String fname){
+    PrintWriter pw=null;
+    try {
+       pw = new java.io.PrintWriter(new java.io.File(fname));
+       verifier.write_program(pw,program);
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    } finally {
+      if (pw!=null) pw.close();
+    }
+  }
+  
+  /**
+   * The outcome of the verification of a program.
+   */
+  private static class Verdicts {
+    
+    /**
+     * The verdicts of the printed methods, true for pass.
+     */
+    final Hashtable<String,Boolean> methods=new Hashtable<String,Boolean>();
+    
+    /**
+     * Set if the verification reported any error, including errors
+     * in functions and predicates.
+     */
+    boolean errors=false;
+    
+    /**
+     * Check if a method may be cached. This requires that it passed in
+     * a verification that reported no errors at all.
+     */
+    boolean cacheable(String name){
+      return !errors && methods.get(name)==Boolean.TRUE;
+    }
+  }
+  
+  /**
+   * Verify a program and print the verdicts of its methods.
+   * 
+   * @param vercors The factory that converted the program.
+   * @param methods If null, the verdicts of all methods are printed.
+   *        Otherwise, only the verdicts of the given methods are printed.
+   * @param members If false, the functions and predicates are not verified.
+   * @return The verdicts of the printed methods.
+   */
+  private static <T,E,S,DFunc,DAxiom,Program> Verdicts verify(
+      ViperAPI<Origin,VerificationError,T,E,S,DFunc,DAxiom,Program> verifier,
+      VerCorsViperAPI vercors,Program program,Set<String> methods,boolean members,
+      String tool,MessageFactory log){
+    //verifier.set_detail(Configuration.detailed_errors.get());
+    Verdicts verdicts=new Verdicts();
     Properties settings=new Properties();
     if (tool.startsWith("silicon")){
       //settings.setProperty("smt.soft_timeout",silicon_z3_timeout.get()+"");
     }
-    ViperControl control=new ViperControl(log);
+    ViperControl control=new ViperControl(log,members);
     try {
       HashSet<Origin> reachable=new HashSet<Origin>();
       List<? extends ViperError<Origin>> errs=verifier.verify(
           Configuration.getToolHome(),settings,program,reachable,control);
       if (errs.size()>0){
+        verdicts.errors=true;
         for(ViperError<Origin> e:errs){
           log.error(e);
         }
       }
       HashSet<Origin> accounted=new HashSet<Origin>();
       Configuration.detailed_errors.get();
-      for(String method:control.verified_methods){
+      for(String name:control.verified_methods){
         boolean pass=true;
-        for(Origin o:vercors.refuted.get(method)){
+        for(Origin o:vercors.refuted.get(name)){
           if(!reachable.contains(o)){
             log.exception(new HREException("%s: unreachable",o));
+            verdicts.errors=true;
             pass=false;
           } else {
             accounted.add(o);
           }
         }
-        System.err.printf("method verdict %s %s%n",method,pass?"PASS":"FAIL");
+        if (methods==null || methods.contains(name)){
+          System.err.printf("method verdict %s %s%n",name,pass?"PASS":"FAIL");
+          verdicts.methods.put(name,pass);
+        }
+      }
+      if (!control.failed_methods.isEmpty()){
+        verdicts.errors=true;
       }
-      for(String method:control.failed_methods){
-        System.err.printf("method verdict %s FAIL%n",method);
-        for(Origin o:vercors.refuted.get(method)){
+      for(String name:control.failed_methods){
+        if (methods==null || methods.contains(name)){
+          System.err.printf("method verdict %s FAIL%n",name);
+          verdicts.methods.put(name,false);
+        }
+        for(Origin o:vercors.refuted.get(name)){
           accounted.add(o);
         }
       }
@@ -180,12 +476,12 @@ public class SilverBackend {
         }
       }
     } catch (Exception e){
+      verdicts.errors=true;
       log.exception(e);
     } finally {
       control.done();
     }
-    log.end(verification);
-    return report;
+    return verdicts;
   }
 
 }
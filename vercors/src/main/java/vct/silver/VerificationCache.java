@@ -0,0 +1,157 @@
+package vct.silver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import hre.config.IntegerSetting;
+import hre.config.StringSetting;
+import hre.lang.HREError;
+
+/**
+ * Disk cache of verified methods.
+ *
+ * An entry is keyed by a hash of the Silver encoding of the unit of a method:
+ * the method itself and everything that it depends on
+ * (see {@link MethodSplitter}), together with the back-end and its options.
+ * Hence, an entry is valid for as long as none of these change.
+ *
+ * A method is only stored if it passed in a verification that reported no
+ * errors at all, because errors in the functions and predicates that are
+ * verified together with it have to be reported again.
+ * Functions and predicates themselves are never cached, they are verified
+ * on every run. Keys are only stable because generated names are numbered
+ * deterministically.
+ *
+ * The size of the cache is bounded by evicting the least recently
+ * used entries. The use of an entry is recorded in the modification time of
+ * its file, so the order survives between runs. The entries are counted
+ * when the cache is opened and whenever it is full, and then a tenth of
+ * them are evicted, so the directory is only scanned once per run unless
+ * many entries are written.
+ */
+public class VerificationCache {
+
+  public static final StringSetting cache_dir=new StringSetting(null);
+  public static final IntegerSetting cache_size=new IntegerSetting(10000);
+
+  /**
+   * Version of the entry format, part of every key.
+   */
+  private static final String version="1";
+
+  public static boolean enabled(){
+    return cache_dir.get()!=null;
+  }
+
+  private static VerificationCache instance;
+
+  /**
+   * Get the cache in the configured directory.
+   */
+  public static synchronized VerificationCache get(){
+    File dir=new File(cache_dir.get());
+    if (instance==null || !instance.dir.equals(dir)){
+      instance=new VerificationCache(dir);
+    }
+    return instance;
+  }
+
+  private final File dir;
+
+  /**
+   * The number of entries in the directory, as far as this process knows.
+   */
+  private int entries;
+
+  private VerificationCache(File dir){
+    this.dir=dir;
+    if (!dir.isDirectory() && !dir.mkdirs()){
+      hre.lang.System.Fail("cannot create cache directory %s",dir);
+    }
+    String files[]=dir.list();
+    entries=files==null?0:files.length;
+  }
+
+  /**
+   * Compute the key of a verification unit.
+   *
+   * @param backend Description of the back-end and its options.
+   * @param program The unit, as written by the back-end.
+   */
+  public static String key(String backend,String program){
+    MessageDigest md;
+    try {
+      md=MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new HREError("SHA-256 is not available: %s",e);
+    }
+    md.update(version.getBytes(StandardCharsets.UTF_8));
+    md.update((byte)0);
+    md.update(backend.getBytes(StandardCharsets.UTF_8));
+    md.update((byte)0);
+    md.update(program.getBytes(StandardCharsets.UTF_8));
+    StringBuilder res=new StringBuilder();
+    for(byte b:md.digest()){
+      res.append(String.format("%02x",b));
+    }
+    return res.toString();
+  }
+
+  /**
+   * Check if the unit with the given key has been verified successfully.
+   * A hit counts as a use of the entry.
+   */
+  public synchronized boolean passed(String key){
+    File entry=new File(dir,key);
+    if (!entry.isFile()) return false;
+    entry.setLastModified(System.currentTimeMillis());
+    return true;
+  }
+
+  /**
+   * Record that the unit with the given key has been verified successfully.
+   *
+   * @param key The key of the unit.
+   * @param method The name of the method, stored for inspection only.
+   */
+  public synchronized void pass(String key,String method){
+    File entry=new File(dir,key);
+    boolean added=!entry.exists();
+    try {
+      Files.write(entry.toPath(),(method+" PASS\n").getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      hre.lang.System.Warning("could not write cache entry %s: %s",entry,e);
+      return;
+    }
+    if (added) entries++;
+    if (entries>cache_size.get()) evict();
+  }
+
+  /**
+   * Remove the least recently used entries, until the cache is filled for
+   * at most nine tenths.
+   */
+  private void evict(){
+    File[] files=dir.listFiles();
+    if (files==null) return;
+    entries=files.length;
+    int limit=cache_size.get();
+    if (entries<=limit) return;
+    int keep=limit-limit/10;
+    Arrays.sort(files,new Comparator<File>(){
+      @Override
+      public int compare(File f1, File f2) {
+        return Long.compare(f1.lastModified(),f2.lastModified());
+      }
+    });
+    for(int i=0;i<files.length-keep;i++){
+      if (files[i].delete()) entries--;
+    }
+  }
+}
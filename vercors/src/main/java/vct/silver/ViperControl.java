@@ -48,8 +48,24 @@ public class ViperControl implements VerificationControl<Origin> {
   
   private MessageFactory report;
   
+  /**
+   * Verify functions and predicates, or only methods.
+   */
+  private final boolean members;
+  
   public ViperControl(MessageFactory report){
+    this(report,true);
+  }
+  
+  /**
+   * Create a control that may skip the functions and predicates of a program.
+   * 
+   * @param members If false, only methods are verified, because the functions
+   *        and predicates are verified elsewhere.
+   */
+  public ViperControl(MessageFactory report,boolean members){
     this.report=report;
+    this.members=members;
     if (Configuration.profiling_option.used()){
       scheduler = Executors.newScheduledThreadPool(1);
       int N=Configuration.profiling.get();
@@ -62,13 +78,13 @@ public class ViperControl implements VerificationControl<Origin> {
   @Override
   public boolean function(Origin origin, String name) {
     // TODO log this event
-    return true;
+    return members;
   }
 
   @Override
   public boolean predicate(Origin origin, String name) {
     // TODO log this event
-    return true;
+    return members;
   }
 
   @Override
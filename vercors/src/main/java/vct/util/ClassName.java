@@ -1,26 +1,157 @@
 package vct.util;
 
+import java.io.Serializable;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static hre.lang.System.Abort;
 
-public class ClassName {
+/**
+ * Qualified name of a class or other declaration.
+ *
+ * The hash of a name is computed once. The names of declarations are
+ * interned, which gives a canonical object for every such name. Looking up
+ * a name that has been interned before does not allocate, so indexes keyed
+ * by class names can be searched with plain string arrays for free. Looking
+ * up any other name does not intern it, so the table only grows with the
+ * declarations of the program.
+ */
+public class ClassName implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   public final String name[];
+
+  private final int hash;
   
   public ClassName(String ... name){
     if (name.length==0) Abort("empty name");
     this.name=Arrays.copyOf(name,name.length);
+    hash=hash(this.name,this.name.length);
   }
   
   public ClassName(String[] fullName, String name2) {
     if (fullName==null){
       name=new String[]{name2};
-      return;
+    } else {
+      name=new String[fullName.length+1];
+      for(int i=0;i<fullName.length;i++) name[i]=fullName[i];
+      name[fullName.length]=name2;
+    }
+    hash=hash(name,name.length);
+  }
+
+  private static int hash(String name[],int length){
+    int res=1;
+    for(int i=0;i<length;i++){
+      res=31*res+name[i].hashCode();
+    }
+    return res;
+  }
+
+  /**
+   * The canonical names, each of which is its own key.
+   */
+  private static final ConcurrentHashMap<ClassName,ClassName> canonical=new ConcurrentHashMap<ClassName,ClassName>();
+
+  /**
+   * A reusable key for finding the canonical object of a prefix of an array.
+   */
+  private static final class Probe {
+    String name[];
+    int length;
+    int hash;
+
+    @Override
+    public int hashCode(){
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o){
+      if (!(o instanceof ClassName)) return false;
+      String other[]=((ClassName)o).name;
+      if (other.length!=length) return false;
+      for(int i=0;i<length;i++){
+        if (!name[i].equals(other[i])) return false;
+      }
+      return true;
+    }
+  }
+
+  private static final ThreadLocal<Probe> probes=new ThreadLocal<Probe>(){
+    @Override
+    protected Probe initialValue(){
+      return new Probe();
+    }
+  };
+
+  /**
+   * Get the canonical object of a name.
+   */
+  public static ClassName intern(String ... name){
+    return intern(name,name.length);
+  }
+
+  /**
+   * Get the canonical object of the name that consists of the first
+   * <code>length</code> parts of an array.
+   */
+  public static ClassName intern(String name[],int length){
+    ClassName res=find(name,length);
+    if (res==null){
+      ClassName tmp=new ClassName(Arrays.copyOf(name,length));
+      res=canonical.putIfAbsent(tmp,tmp);
+      if (res==null) res=tmp;
     }
-    name=new String[fullName.length+1];
-    for(int i=0;i<fullName.length;i++) name[i]=fullName[i];
-    name[fullName.length]=name2;
+    return res;
+  }
+
+  /**
+   * Get a name for looking up declarations, which is the canonical object
+   * of the name if there is one and a new name otherwise.
+   */
+  public static ClassName lookup(String ... name){
+    return lookup(name,name.length);
+  }
+
+  /**
+   * Get a name for looking up declarations, for the name that consists of
+   * the first <code>length</code> parts of an array.
+   */
+  public static ClassName lookup(String name[],int length){
+    ClassName res=find(name,length);
+    return res==null?new ClassName(Arrays.copyOf(name,length)):res;
+  }
+
+  private static ClassName find(String name[],int length){
+    if (length==0) Abort("empty name");
+    Probe probe=probes.get();
+    probe.name=name;
+    probe.length=length;
+    probe.hash=hash(name,length);
+    // the map only contains class names, which are equal to a probe with the same parts.
+    @SuppressWarnings("unlikely-arg-type")
+    ClassName res=canonical.get(probe);
+    probe.name=null;
+    return res;
+  }
+
+  /**
+   * Forget all canonical objects, such that a process that performs many
+   * runs does not keep the names of earlier runs. Names are compared by
+   * value, so names that were interned before remain usable.
+   */
+  public static void clear(){
+    canonical.clear();
+  }
+
+  /**
+   * Get the canonical object of this name.
+   */
+  public ClassName intern(){
+    ClassName res=canonical.putIfAbsent(this,this);
+    return res==null?this:res;
   }
 
   public ClassName(ClassName package_name, String name) {
@@ -67,11 +198,13 @@ public class ClassName {
   }
 
   public int hashCode(){
-    return toString(".").hashCode();
+    return hash;
   }
   public boolean equals(Object o){
+    if (o==this) return true;
     if (o instanceof ClassName){
-      return equal(name,((ClassName)o).name);
+      ClassName other=(ClassName)o;
+      return hash==other.hash && equal(name,other.name);
     } else {
       return false;
     }
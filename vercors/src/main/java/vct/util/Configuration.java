@@ -53,6 +53,29 @@ public class Configuration {
    */
   public static final BooleanSetting detailed_errors=new BooleanSetting(false);
   
+  /**
+   * Reuse the type annotations of declarations that are not changed by a pass.
+   * See {@link vct.col.util.ChangeTracker}.
+   */
+  public static final BooleanSetting incremental_check=new BooleanSetting(false);
+  
+  /**
+   * Rewrite the top-level declarations in parallel, for rewriters that allow it.
+   * See {@link vct.col.rewrite.ParallelRewriter}.
+   */
+  public static final BooleanSetting parallel_rewrite=new BooleanSetting(false);
+  
+  /**
+   * Let passes return unchanged expressions instead of copies.
+   * See {@link vct.col.rewrite.AbstractRewriter#shareUnchanged()}.
+   */
+  public static final BooleanSetting share_unchanged=new BooleanSetting(false);
+
+  /**
+   * Type check the top-level declarations in parallel.
+   * See {@link vct.col.util.ParallelTypeCheck}.
+   */
+  public static final BooleanSetting parallel_check=new BooleanSetting(false);
   /**
    * Set the name of the file that is fed into the back-end verifier.
    * The file is kept after the verification.
@@ -110,6 +133,15 @@ public class Configuration {
   public static void add_options(OptionParser clops){
     clops.add(keep_temp_files.getEnable("keep temporary files"),"keep");
     clops.add(detailed_errors.getEnable("produce detailed error messages"),"detail");
+    clops.add(incremental_check.getEnable("only type check the declarations that changed since the previous check"),"incremental-check");
+    clops.add(parallel_rewrite.getEnable("rewrite independent declarations in parallel"),"parallel-rewrite");
+    clops.add(parallel_check.getEnable("type check independent declarations in parallel"),"parallel-check");
+    clops.add(share_unchanged.getEnable("let passes share unchanged expressions with their input instead of copying them"),"share-unchanged");
+    clops.add(vct.col.util.LeafInterner.enabled.getEnable("share identical constants, primitive types and reserved names created by passes"),"intern-leaves");
+    clops.add(vct.col.rewrite.NormalForms.enabled.getEnable("let rule based simplifications skip terms that are already in normal form"),"memo-normal-forms");
+    clops.add(vct.col.rewrite.NormalForms.size.getAssign("number of normal forms kept per rule set across passes"),"normal-form-cache");
+    clops.add(vct.antlr4.parser.Parsers.threads.getAssign("maximum number of input files parsed concurrently"),"parse-threads");
+    clops.add(PerformanceReport.report_file.getAssign("write measurements of every pass as JSON lines to the given file"),"perf-report");
     clops.add(backend_file.getAssign("filename for storing the back-end input"),"encoded");
     clops.add(vct.boogie.Main.boogie_module.getAssign("name of the boogie environment module"),"boogie-module");
     clops.add(vct.boogie.Main.dafny_module.getAssign("name of the dafny environment module"),"dafny-module");
@@ -117,6 +149,9 @@ public class Configuration {
     clops.add(vct.boogie.Main.chalice_module.getAssign("name of the chalice environment module"),"chalice-module");
     clops.add(vct.silver.SilverBackend.silver_module.getAssign("name of the silver environment module"),"silver-module");
     clops.add(vct.silver.SilverBackend.silicon_z3_timeout.getAssign("Set the Z3 timeout for Silicon"),"silicon-z3-timeout");
+    clops.add(vct.silver.SilverBackend.method_threads.getAssign("verify the methods of a Silver program as separate units using the given number of threads"),"silver-threads");
+    clops.add(vct.silver.VerificationCache.cache_dir.getAssign("cache the verified methods in the given directory"),"verification-cache");
+    clops.add(vct.silver.VerificationCache.cache_size.getAssign("maximum number of methods in the verification cache"),"verification-cache-size");
 //    clops.add(pvl_type_check.getDisable("disable type check in PVL parser"),"no-pvl-check");
     clops.add(assume_single_group.getEnable("enable single group assumptions"),"single-group");
     clops.add(auto_barrier.getDisable("Disable automatic permission revokation for barriers"),"disable-auto-barrier");
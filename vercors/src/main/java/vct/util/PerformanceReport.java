@@ -0,0 +1,150 @@
+package vct.util;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.JsonObject;
+
+import hre.config.StringSetting;
+import vct.col.ast.ASTNode;
+import vct.col.ast.ProgramUnit;
+import vct.col.ast.RecursiveVisitor;
+
+/**
+ * Records measurements of passes and parser phases.
+ *
+ * When enabled, every measurement is written as one JSON object per line
+ * to the report file. A measurement contains the kind of step
+ * ("pass" or "parse"), its name, the file for parser phases, and:
+ * <dl>
+ * <dt>wall_ns</dt><dd>elapsed time;</dd>
+ * <dt>cpu_ns</dt><dd>CPU time of the thread that ran the step;</dd>
+ * <dt>alloc_bytes</dt><dd>bytes allocated by that thread;</dd>
+ * <dt>gc_ms</dt><dd>time spent in garbage collection by the whole JVM;</dd>
+ * <dt>nodes_in, nodes_out</dt><dd>size of the AST before and after, if known.</dd>
+ * </dl>
+ * Work that a step hands off to other threads is only included in the
+ * wall time. The nodes are counted outside of the measured interval.
+ */
+public class PerformanceReport {
+
+  public static final StringSetting report_file=new StringSetting(null);
+
+  private static PrintWriter out;
+
+  public static boolean enabled(){
+    return out!=null;
+  }
+
+  /**
+   * Start a report, if a report file has been set.
+   */
+  public static synchronized void open(){
+    close();
+    if (report_file.get()==null) return;
+    try {
+      out=new PrintWriter(new OutputStreamWriter(new FileOutputStream(report_file.get()),StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      hre.lang.System.Fail("cannot write performance report %s: %s",report_file.get(),e);
+    }
+  }
+
+  public static synchronized void close(){
+    if (out!=null){
+      out.close();
+      out=null;
+    }
+  }
+
+  private static final ThreadMXBean threads=ManagementFactory.getThreadMXBean();
+
+  /**
+   * The counters at a point in time.
+   */
+  public static class Sample {
+    public final long wall=System.nanoTime();
+    public final long cpu=cpu_time();
+    public final long alloc=allocated_bytes();
+    public final long gc=gc_time();
+  }
+
+  private static long cpu_time(){
+    return threads.isCurrentThreadCpuTimeSupported()?threads.getCurrentThreadCpuTime():-1;
+  }
+
+  private static long allocated_bytes(){
+    if (threads instanceof com.sun.management.ThreadMXBean){
+      return ((com.sun.management.ThreadMXBean)threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  private static long gc_time(){
+    long res=0;
+    for(GarbageCollectorMXBean gc:ManagementFactory.getGarbageCollectorMXBeans()){
+      res+=Math.max(0,gc.getCollectionTime());
+    }
+    return res;
+  }
+
+  /**
+   * Record a step.
+   *
+   * @param kind The kind of step.
+   * @param name The name of the step.
+   * @param file The file that was processed, or null.
+   * @param start The sample taken at the start of the step.
+   * @param end The sample taken at the end of the step.
+   * @param nodes_in The size of the input, or -1 if unknown.
+   * @param nodes_out The size of the output, or -1 if unknown.
+   */
+  public static void record(String kind,String name,String file,Sample start,Sample end,long nodes_in,long nodes_out){
+    if (out==null) return;
+    JsonObject line=new JsonObject();
+    line.addProperty("kind",kind);
+    line.addProperty("name",name);
+    if (file!=null) line.addProperty("file",file);
+    line.addProperty("wall_ns",end.wall-start.wall);
+    if (start.cpu>=0) line.addProperty("cpu_ns",end.cpu-start.cpu);
+    if (start.alloc>=0) line.addProperty("alloc_bytes",end.alloc-start.alloc);
+    line.addProperty("gc_ms",end.gc-start.gc);
+    if (nodes_in>=0) line.addProperty("nodes_in",nodes_in);
+    if (nodes_out>=0) line.addProperty("nodes_out",nodes_out);
+    synchronized(PerformanceReport.class){
+      if (out!=null){
+        out.println(line.toString());
+        out.flush();
+      }
+    }
+  }
+
+  /**
+   * Count the nodes of a program, if a report is being made.
+   *
+   * @return The number of nodes, or -1 if there is no report or no program.
+   */
+  public static long nodes(ProgramUnit program){
+    if (out==null || program==null) return -1;
+    NodeCounter counter=new NodeCounter();
+    program.accept(counter);
+    return counter.count;
+  }
+
+  private static class NodeCounter extends RecursiveVisitor<Object> {
+    public long count=0;
+    public NodeCounter(){
+      super(null,null);
+    }
+    @Override
+    public void pre_visit(ASTNode node){
+      super.pre_visit(node);
+      count++;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package hre.util
+
+import java.util.EmptyStackException
+
+import org.scalatest._
+
+import scala.collection.JavaConverters._
+
+class SingleNameSpaceSpec extends FlatSpec with Matchers {
+
+  "A single name space" should "restore a shadowed definition when a frame is left" in {
+    val ns = new SingleNameSpace[String, Integer]()
+    ns.add("x", 1)
+    ns.enter()
+    ns.add("x", 2)
+    ns.lookup("x") should be (2)
+    ns.leave()
+    ns.lookup("x") should be (1)
+  }
+
+  it should "forget definitions made inside a frame when it is left" in {
+    val ns = new SingleNameSpace[String, Integer]()
+    ns.enter()
+    ns.add("y", 1)
+    ns.add("y", 2)
+    ns.leave()
+    ns.containsKey("y") should be (false)
+    ns.isEmpty should be (true)
+  }
+
+  it should "restore a removed definition when a frame is left" in {
+    val ns = new SingleNameSpace[String, Integer]()
+    ns.add("x", 1)
+    ns.enter()
+    ns.remove("x")
+    ns.containsKey("x") should be (false)
+    ns.leave()
+    ns.lookup("x") should be (1)
+  }
+
+  it should "restore all definitions when a frame in which it was cleared is left" in {
+    val ns = new SingleNameSpace[String, Integer]()
+    ns.add("x", 1)
+    ns.add("y", 2)
+    ns.enter()
+    ns.add("x", 3)
+    ns.clear()
+    ns.add("z", 4)
+    ns.leave()
+    ns.asScala.toMap should be (Map[String, Integer]("x" -> 1, "y" -> 2))
+  }
+
+  it should "undo the changes of nested frames one frame at a time" in {
+    val ns = new SingleNameSpace[String, Integer]()
+    ns.add("x", 0)
+    for (i <- 1 to 40) {
+      ns.enter()
+      ns.add("x", i)
+    }
+    for (i <- 39 to 0 by -1) {
+      ns.leave()
+      ns.lookup("x") should be (i)
+    }
+  }
+
+  it should "keep changes made outside of any frame" in {
+    val ns = new SingleNameSpace[String, Integer]()
+    ns.add("x", 1)
+    ns.remove("x")
+    ns.add("y", 2)
+    ns.asScala.toMap should be (Map[String, Integer]("y" -> 2))
+  }
+
+  it should "not leave a frame that has not been entered" in {
+    val ns = new SingleNameSpace[String, Integer]()
+    an [EmptyStackException] should be thrownBy {
+      ns.leave()
+    }
+  }
+}
+
+class MultiNameSpaceSpec extends FlatSpec with Matchers {
+
+  "A multi name space" should "give the innermost definition first" in {
+    val ns = new MultiNameSpace[String, Integer]()
+    ns.add("x", 1)
+    ns.enter()
+    ns.add("x", 2)
+    ns.lookup("x").asScala.toList should be (List[Integer](2, 1))
+  }
+
+  it should "restore shadowed definitions when a frame is left" in {
+    val ns = new MultiNameSpace[String, Integer]()
+    ns.add("x", 1)
+    ns.enter()
+    ns.add("x", 2)
+    ns.add("x", 3)
+    ns.leave()
+    ns.lookup("x").asScala.toList should be (List[Integer](1))
+  }
+
+  it should "forget definitions made inside a frame when it is left" in {
+    val ns = new MultiNameSpace[String, Integer]()
+    ns.enter()
+    ns.add("y", 1)
+    ns.leave()
+    ns.lookup("y").hasNext should be (false)
+  }
+
+  it should "undo the definitions of nested frames one frame at a time" in {
+    val ns = new MultiNameSpace[String, Integer]()
+    ns.add("x", 0)
+    for (i <- 1 to 40) {
+      ns.enter()
+      ns.add("x", i)
+    }
+    for (i <- 39 to 0 by -1) {
+      ns.leave()
+      ns.lookup("x").next should be (i)
+      ns.lookup("x").asScala.size should be (i + 1)
+    }
+  }
+
+  it should "not leave a frame that has not been entered" in {
+    val ns = new MultiNameSpace[String, Integer]()
+    an [EmptyStackException] should be thrownBy {
+      ns.leave()
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package vct.ast
+
+import java.io.File
+
+import hre.ast.MessageOrigin
+import org.scalatest._
+import vct.col.ast._
+import vct.col.rewrite.{InlineMethod, ParallelBlockEncoder}
+import vct.col.util.{ASTFactory, ASTSnapshot, StructuralEquality}
+
+import scala.collection.JavaConverters._
+
+class ASTSnapshotSpec extends FlatSpec with Matchers {
+
+  private def factory() : ASTFactory[Object] = {
+    val create = new ASTFactory[Object]()
+    create.setOrigin(new MessageOrigin("ASTSnapshotSpec"))
+    create
+  }
+
+  /** Builds a class with one method, whose body assigns `value` to a local variable. */
+  private def program(value : ASTNode, contract : Contract = null) : ProgramUnit = {
+    val create = factory()
+    val int = create.primitive_type(PrimitiveSort.Integer)
+    val body = create.block(
+      create.field_decl("x", int),
+      create.assignment(create.local_name("x"), value))
+    val m = create.method_decl(create.primitive_type(PrimitiveSort.Void), contract, "m", Array[DeclarationStatement](), body)
+    val cl = create.ast_class("C", ASTClass.ClassKind.Plain, null, null, null)
+    cl.add_dynamic(m)
+    val pu = new ProgramUnit()
+    pu.add(cl)
+    pu
+  }
+
+  private def roundTrip(snapshot : ASTSnapshot) : ASTSnapshot = {
+    val file = File.createTempFile("snapshot", ".ast")
+    try {
+      snapshot.save(file)
+      ASTSnapshot.load(file)
+    } finally {
+      file.delete()
+    }
+  }
+
+  "An AST snapshot" should "restore the program and the remaining passes" in {
+    val create = factory()
+    val pu = program(create.expression(StandardOperator.Plus, create.constant(1), create.constant(2)))
+    val loaded = roundTrip(new ASTSnapshot("flatten", List("assign", "silver").asJava, List("a.pvl").asJava, pu))
+    loaded.pass should be ("flatten")
+    loaded.passes.asScala should be (List("assign", "silver"))
+    loaded.files.asScala should be (List("a.pvl"))
+    loaded.program.size should be (1)
+    StructuralEquality.equalModuloOrigin(pu.get.iterator.next, loaded.program.get.iterator.next) should be (true)
+  }
+
+  it should "keep shared constants identical" in {
+    val contract = new ContractBuilder().getContract(false)
+    val pu = program(factory().constant(0), contract)
+    val loaded = roundTrip(new ASTSnapshot("p", List[String]().asJava, List[String]().asJava, pu))
+    val method = loaded.program.get.iterator.next.asInstanceOf[ASTClass].dynamicMethods.iterator.next
+    method.getContract.pre_condition should be theSameInstanceAs (Contract.default_true)
+    method.getContract.post_condition should be theSameInstanceAs (Contract.default_true)
+  }
+
+  it should "restore the counters of generated names" in {
+    InlineMethod.skipCount(41)
+    ParallelBlockEncoder.skipCounts(7, 9)
+    roundTrip(new ASTSnapshot("p", List[String]().asJava, List[String]().asJava, program(factory().constant(0))))
+    InlineMethod.getCount should be >= 41
+    ParallelBlockEncoder.getCount should be >= 7
+    ParallelBlockEncoder.getCounter should be >= 9
+  }
+
+  it should "handle deeply nested expressions" in {
+    val create = factory()
+    val depth = 20000
+    var e : ASTNode = create.constant(0)
+    for (i <- 1 to depth) {
+      e = create.expression(StandardOperator.Plus, e, create.constant(i))
+    }
+    val loaded = roundTrip(new ASTSnapshot("p", List[String]().asJava, List[String]().asJava, program(e)))
+    val method = loaded.program.get.iterator.next.asInstanceOf[ASTClass].dynamicMethods.iterator.next
+    val assign = method.getBody.asInstanceOf[BlockStatement].getStatement(1).asInstanceOf[AssignmentStatement]
+    var node = assign.expression
+    var n = 0
+    while (node.isInstanceOf[OperatorExpression]) {
+      node = node.asInstanceOf[OperatorExpression].arg(0)
+      n += 1
+    }
+    n should be (depth)
+  }
+}
@@ -49,5 +49,46 @@ class OperatorExpressionSpec extends FlatSpec with Matchers {
     a [NullPointerException] should be thrownBy {
       var oe = new OperatorExpression(op, args)
     }
+  }  
+  it should "give access to its arguments by index" in {
+    val one = new ConstantExpression(1)
+    val two = new ConstantExpression(2)
+    val oe = new OperatorExpression(StandardOperator.Plus, Array[ASTNode](one, two))
+    oe.first should be theSameInstanceAs (one)
+    oe.second should be theSameInstanceAs (two)
+    oe.arg(1) should be theSameInstanceAs (two)
+    oe.argOption(1) should be (Some(two))
+    oe.argOption(2) should be (None)
+    oe.argsJava.get(0) should be theSameInstanceAs (one)
+    oe.argsJava.size should be (2)
+    an [Error] should be thrownBy {
+      oe.arg(2)
+    }
+  }
+  
+  it should "not change when the array it was created from changes" in {
+    val args = Array[ASTNode](new ConstantExpression(1), new ConstantExpression(2))
+    val oe = new OperatorExpression(StandardOperator.Plus, args)
+    val three = new ConstantExpression(3)
+    args(0) = three
+    oe.first should not be theSameInstanceAs (three)
+  }
+  
+  it should "not allow its arguments to be updated through the Java view" in {
+    val oe = new OperatorExpression(StandardOperator.Plus, Array[ASTNode](new ConstantExpression(1), new ConstantExpression(2)))
+    a [UnsupportedOperationException] should be thrownBy {
+      oe.argsJava.set(0, new ConstantExpression(3))
+    }
+  }
+  
+  it should "keep its arguments when a copy with an updated argument is made" in {
+    val one = new ConstantExpression(1)
+    val two = new ConstantExpression(2)
+    val three = new ConstantExpression(3)
+    val oe = new OperatorExpression(StandardOperator.Plus, Array[ASTNode](one, two))
+    val updated = oe.copy(args = NodeArray(oe.args.updated(1, three)))
+    updated.second should be theSameInstanceAs (three)
+    updated.first should be theSameInstanceAs (one)
+    oe.second should be theSameInstanceAs (two)
   }
-}
\ No newline at end of file
+}
@@ -18,5 +18,42 @@ class StructValueSpec extends FlatSpec with Matchers {
     a [UnsupportedOperationException] should be thrownBy {
       sv.mapJava.put("test", 12)
     }
+  }  
+  it should "give access to its values by index" in {
+    val t = new ClassType(Array("Integer"))
+    val one = new ConstantExpression(1)
+    val two = new ConstantExpression(2)
+    val sv = new StructValue(t, Map[String,Integer](), Array[ASTNode](one, two))
+    sv.values.length should be (2)
+    sv.values(0) should be theSameInstanceAs (one)
+    sv.values(1) should be theSameInstanceAs (two)
+    sv.values.asJava.get(1) should be theSameInstanceAs (two)
   }
-}
\ No newline at end of file
+  
+  it should "not change when the array it was created from changes" in {
+    val t = new ClassType(Array("Integer"))
+    val values = Array[ASTNode](new ConstantExpression(1))
+    val sv = new StructValue(t, Map[String,Integer](), values)
+    val two = new ConstantExpression(2)
+    values(0) = two
+    sv.values(0) should not be theSameInstanceAs (two)
+  }
+  
+  it should "not allow its values to be updated through the Java view" in {
+    val t = new ClassType(Array("Integer"))
+    val sv = new StructValue(t, Map[String,Integer](), Array[ASTNode](new ConstantExpression(1)))
+    a [UnsupportedOperationException] should be thrownBy {
+      sv.values.asJava.set(0, new ConstantExpression(2))
+    }
+  }
+  
+  it should "keep its values when a copy with an updated value is made" in {
+    val t = new ClassType(Array("Integer"))
+    val one = new ConstantExpression(1)
+    val two = new ConstantExpression(2)
+    val sv = new StructValue(t, Map[String,Integer](), Array[ASTNode](one))
+    val updated = sv.copy(values = NodeArray(sv.values.updated(0, two)))
+    updated.values(0) should be theSameInstanceAs (two)
+    sv.values(0) should be theSameInstanceAs (one)
+  }
+}
@@ -0,0 +1,95 @@
+package vct.ast
+
+import hre.ast.MessageOrigin
+import org.scalatest._
+import vct.col.ast._
+import vct.col.util.StructuralEquality
+
+class StructuralEqualitySpec extends FlatSpec with Matchers {
+
+  /** Builds `x + 1` with the given origin on every node. */
+  private def term(origin : MessageOrigin) : OperatorExpression = {
+    val x = new NameExpression("x")
+    x.setOrigin(origin)
+    val one = new ConstantExpression(1)
+    one.setOrigin(origin)
+    val res = new OperatorExpression(StandardOperator.Plus, Array[ASTNode](x, one))
+    res.setOrigin(origin)
+    res
+  }
+
+  "Structural equality" should "consider copies with the same origins equal" in {
+    val origin = new MessageOrigin("a")
+    StructuralEquality.equal(term(origin), term(origin)) should be (true)
+  }
+
+  it should "compare origins" in {
+    StructuralEquality.equal(term(new MessageOrigin("a")), term(new MessageOrigin("a"))) should be (false)
+  }
+
+  it should "ignore origins when comparing modulo origins" in {
+    StructuralEquality.equalModuloOrigin(term(new MessageOrigin("a")), term(new MessageOrigin("b"))) should be (true)
+  }
+
+  it should "distinguish different trees modulo origins" in {
+    val origin = new MessageOrigin("a")
+    val other = new OperatorExpression(StandardOperator.Minus, term(origin).args)
+    StructuralEquality.equalModuloOrigin(term(origin), other) should be (false)
+  }
+
+  it should "ignore fields that are not part of the structure" in {
+    val origin = new MessageOrigin("a")
+    val t1 = term(origin)
+    val t2 = term(origin)
+    t1.setType(new PrimitiveType(PrimitiveSort.Integer))
+    t1.getUniqueID should not be (t2.getUniqueID)
+    StructuralEquality.equal(t1, t2) should be (true)
+  }
+
+  it should "ignore the predecessors of a node" in {
+    val origin = new MessageOrigin("a")
+    val t1 = term(origin)
+    val t2 = term(origin)
+    t1.setPredecessor(t2)
+    StructuralEquality.equal(t1, t2) should be (true)
+    StructuralEquality.equal(t2, t1) should be (true)
+    StructuralEquality.hash(t1) should be (StructuralEquality.hash(t2))
+  }
+
+  it should "give equal hashes to trees that are equal modulo origins" in {
+    val t1 = term(new MessageOrigin("a"))
+    val t2 = term(new MessageOrigin("b"))
+    StructuralEquality.hash(t1) should be (StructuralEquality.hash(t2))
+  }
+
+  it should "cache the hash of a tree" in {
+    val t = term(new MessageOrigin("a"))
+    val hash = StructuralEquality.hash(t)
+    t.getStructuralHash should be (hash)
+    t.arg(0).getStructuralHash should not be (0)
+  }
+
+  it should "accept an equivalence for individual values" in {
+    val same_text = new StructuralEquality.Equivalence {
+      override def equivalent(o1 : Object, o2 : Object) : java.lang.Boolean = (o1, o2) match {
+        case (m1 : MessageOrigin, m2 : MessageOrigin) => m1.toString == m2.toString
+        case _ => null
+      }
+    }
+    StructuralEquality.equal(term(new MessageOrigin("a")), term(new MessageOrigin("a")), same_text) should be (true)
+    StructuralEquality.equal(term(new MessageOrigin("a")), term(new MessageOrigin("b")), same_text) should be (false)
+  }
+
+  "A structural key" should "find trees that are equal modulo origins" in {
+    val map = new java.util.HashMap[StructuralEquality.Key, String]()
+    map.put(new StructuralEquality.Key(term(new MessageOrigin("a"))), "x+1")
+    map.get(new StructuralEquality.Key(term(new MessageOrigin("b")))) should be ("x+1")
+  }
+
+  it should "not find different trees" in {
+    val map = new java.util.HashMap[StructuralEquality.Key, String]()
+    map.put(new StructuralEquality.Key(term(new MessageOrigin("a"))), "x+1")
+    val other = new OperatorExpression(StandardOperator.Mult, term(new MessageOrigin("a")).args)
+    map.containsKey(new StructuralEquality.Key(other)) should be (false)
+  }
+}
@@ -0,0 +1,36 @@
+package vct.col.rewrite
+
+import org.scalatest._
+import vct.col.ast.ASTNode
+
+import scala.util.Try
+
+class CompiledPatternSpec extends FlatSpec with Matchers {
+
+  "A compiled pattern" should "match the terms of a corpus like the linear matcher with the rule sets in config" in {
+    for ((sys, pu) <- RuleSets.config) {
+      val rules = RuleSets.rules(pu, sys)
+      val corpus = RuleSets.corpus(rules)
+      var matched = 0
+      for (rule <- rules) {
+        val names = rule.vars.toArray(new Array[String](0))
+        val pattern = CompiledPattern.compile(rule.lhs, names)
+        if (pattern != null) for (term <- corpus) {
+          val slots = new Array[ASTNode](names.length)
+          val matcher = new MatchLinear(rule.vars)
+          val compiled = Try(pattern.`match`(term, slots))
+          val linear = Try(rule.lhs.apply(matcher, term))
+          withClue(s"$sys.${rule.name}: $term") {
+            compiled.map(Boolean.box).toOption should be (linear.toOption)
+            compiled.failed.toOption.map(_.getClass) should be (linear.failed.toOption.map(_.getClass))
+            for (i <- names.indices) {
+              slots(i) should be theSameInstanceAs matcher.`match`.get(names(i)).get
+            }
+          }
+          if (compiled.getOrElse(false)) matched += 1
+        }
+      }
+      withClue(sys) { matched should be > 0 }
+    }
+  }
+}
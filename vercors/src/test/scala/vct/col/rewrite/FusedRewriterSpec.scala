@@ -0,0 +1,61 @@
+package vct.col.rewrite
+
+import java.io.File
+
+import org.scalatest._
+import vct.antlr4.parser.Parsers
+import vct.col.ast.{ASTClass, ASTDeclaration, ProgramUnit}
+import vct.col.util.{SimpleTypeCheck, StructuralEquality}
+import vct.util.Configuration
+
+import scala.collection.JavaConverters._
+
+class FusedRewriterSpec extends FlatSpec with Matchers {
+
+  /** The default chain of fusible passes: flatten, assign, reorder and standardize. */
+  private val stages = Seq[ProgramUnit => AbstractRewriter](
+    p => new Flatten(p),
+    p => new AssignmentRewriter(p),
+    p => new ReorderAssignments(p),
+    p => new Standardize(p)
+  )
+
+  private val classes = List[Class[_ <: AbstractRewriter]](
+    classOf[Flatten], classOf[AssignmentRewriter], classOf[ReorderAssignments], classOf[Standardize]
+  )
+
+  private def checked(name : String) : ProgramUnit = {
+    val file = new File(Configuration.getHome.toFile, "examples/" + name)
+    val program = new Standardize(Parsers.getParser("pvl").parse(file)).rewriteAll()
+    new SimpleTypeCheck(program).check()
+    program
+  }
+
+  private def root(decl : ASTDeclaration) : AnyRef = classOf[ASTDeclaration].getMethod("root").invoke(decl)
+
+  "A fused rewriter" should "give the same program as running the rewriters one after another" in {
+    for (name <- Seq("arrays/DutchNationalFlag.pvl", "arrays/BinarySearch.pvl", "manual/fibonacci.pvl", "manual/list.pvl")) {
+      val sequential = stages.foldLeft(checked(name))((p, stage) => stage(p).rewriteAll())
+      val fused = FusedRewriter.rewriteAll(checked(name), classes.asJava)
+      withClue(name) {
+        fused.size should be (sequential.size)
+        for ((d1, d2) <- fused.get.asScala.zip(sequential.get.asScala)) {
+          withClue(d1.name) { StructuralEquality.equalModuloOrigin(d1, d2) should be (true) }
+        }
+      }
+    }
+  }
+
+  it should "not take over the declarations of its input" in {
+    val program = checked("arrays/DutchNationalFlag.pvl")
+    val classes_in = program.get.asScala.collect { case cl : ASTClass => cl }
+    classes_in should not be empty
+    val text = program.toString
+    FusedRewriter.rewriteAll(program, classes.asJava)
+    for (cl <- classes_in) {
+      root(cl) should be theSameInstanceAs program
+      program.find(cl.getDeclName) should be theSameInstanceAs cl
+    }
+    program.toString should be (text)
+  }
+}
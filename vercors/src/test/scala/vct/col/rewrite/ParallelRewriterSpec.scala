@@ -0,0 +1,67 @@
+package vct.col.rewrite
+
+import java.io.File
+
+import hre.config.Setting
+import org.scalatest._
+import vct.antlr4.parser.Parsers
+import vct.col.ast.ProgramUnit
+import vct.col.util.{SimpleTypeCheck, StructuralEquality}
+import vct.util.Configuration
+
+import scala.collection.JavaConverters._
+
+class ParallelRewriterSpec extends FlatSpec with Matchers {
+
+  /** The fusible passes, in the order of the silver pass sequence. */
+  private val passes = Seq[(String, ProgramUnit => AbstractRewriter)](
+    "flatten" -> (p => new Flatten(p)),
+    "assign" -> (p => new AssignmentRewriter(p)),
+    "finalize_args" -> (p => new FinalizeArguments(p)),
+    "reorder" -> (p => new ReorderAssignments(p)),
+    "simplify_calls" -> (p => new SimplifyCalls(p)),
+    "standardize" -> (p => new Standardize(p))
+  )
+
+  /** One program with the classes of several examples. */
+  private def program : ProgramUnit = {
+    val res = new ProgramUnit()
+    for (name <- Seq("arrays/DutchNationalFlag.pvl", "arrays/BinarySearch.pvl", "manual/fibonacci.pvl", "manual/list.pvl")) {
+      res.add(Parsers.getParser("pvl").parse(new File(Configuration.getHome.toFile, "examples/" + name)))
+    }
+    res
+  }
+
+  private def checked(program : ProgramUnit) : ProgramUnit = {
+    val res = new Standardize(program).rewriteAll()
+    new SimpleTypeCheck(res).check()
+    res
+  }
+
+  private def rewrite(pass : ProgramUnit => AbstractRewriter, program : ProgramUnit, parallel : Boolean) : ProgramUnit = {
+    Configuration.parallel_rewrite.set(parallel)
+    pass(program).rewriteAll()
+  }
+
+  "A parallel rewrite" should "give the same program as a sequential rewrite" in {
+    val settings = Setting.snapshot()
+    try {
+      var input = checked(program)
+      input.size should be > 1
+      for ((name, pass) <- passes) {
+        val parallel = rewrite(pass, input, parallel = true)
+        val sequential = rewrite(pass, input, parallel = false)
+        withClue(name) {
+          parallel.size should be (sequential.size)
+          for ((d1, d2) <- parallel.get.asScala.zip(sequential.get.asScala)) {
+            withClue(d1.name) { StructuralEquality.equalModuloOrigin(d1, d2) should be (true) }
+          }
+          parallel.toString should be (sequential.toString)
+        }
+        input = checked(sequential)
+      }
+    } finally {
+      settings.restore()
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package vct.col.rewrite
+
+import hre.ast.MessageOrigin
+import hre.lang.Ref
+import org.scalatest._
+import vct.col.ast._
+import vct.col.util.{ASTFactory, StructuralEquality}
+
+import scala.util.Try
+
+class RewriteSystemSpec extends FlatSpec with Matchers {
+
+  /** Apply the first rule that matches, trying every rule in order. */
+  private def linear(rules : Seq[RewriteRule], term : ASTNode) : Option[ASTNode] =
+    rules.find(_.matches(term)).map(rule =>
+      new MatchSubstitution(rule.bindings, term.getOrigin).rewrite(rule.rhs)
+    )
+
+  private def step(trs : RewriteSystem, term : ASTNode) : Option[ASTNode] = {
+    val ref = new Ref[ASTNode](term)
+    if (trs.step(ref)) Some(ref.get) else None
+  }
+
+  private val rule_set =
+    """class index_test {
+      |  int e1,e2;
+      |  axiom plus_zero { e1 + 0 == 1 }
+      |  axiom times_one { e1 * 1 == 2 }
+      |  axiom any { e1 == 3 }
+      |  axiom plus_any { e1 + e2 == 4 }
+      |  axiom minus_zero { e1 - 0 == 5 }
+      |}
+      |""".stripMargin
+
+  "A rewrite system" should "choose the same first rule as a linear scan" in {
+    val pu = RuleSets.parse("index_test", rule_set)
+    val trs = new RewriteSystem(pu, "index_test")
+    val rules = RuleSets.rules(pu, "index_test")
+    val create = new ASTFactory[Object]()
+    create.setOrigin(new MessageOrigin("test"))
+    val x = create.local_name("x")
+    val y = create.local_name("y")
+    val zero = create.constant(0)
+    val one = create.constant(1)
+    val expected = Seq(
+      create.expression(StandardOperator.Plus, x, zero) -> 1,
+      create.expression(StandardOperator.Mult, x, one) -> 2,
+      create.expression(StandardOperator.Plus, x, y) -> 3,
+      create.expression(StandardOperator.Minus, x, zero) -> 3,
+      create.expression(StandardOperator.Mult, x, y) -> 3,
+      x -> 3
+    )
+    for ((term, rule) <- expected) {
+      val res = step(trs, term)
+      res.get.isConstant(rule) should be (true)
+      linear(rules, term).get.isConstant(rule) should be (true)
+    }
+  }
+
+  it should "rewrite the terms of a corpus like a linear scan with the rule sets in config" in {
+    for ((sys, pu) <- RuleSets.config) {
+      val trs = new RewriteSystem(pu, sys)
+      val rules = RuleSets.rules(pu, sys)
+      var applied = 0
+      for (term <- RuleSets.corpus(rules)) {
+        val indexed = Try(step(trs, term))
+        val scanned = Try(linear(rules, term))
+        withClue(s"$sys: $term") {
+          indexed.isSuccess should be (scanned.isSuccess)
+          (indexed.toOption.flatten, scanned.toOption.flatten) match {
+            case (Some(r1), Some(r2)) =>
+              StructuralEquality.equalModuloOrigin(r1, r2) should be (true)
+              applied += 1
+            case (r1, r2) => r1.isDefined should be (r2.isDefined)
+          }
+        }
+      }
+      withClue(sys) { applied should be > 0 }
+    }
+  }
+}
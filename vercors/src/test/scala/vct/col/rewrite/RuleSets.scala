@@ -0,0 +1,140 @@
+package vct.col.rewrite
+
+import java.io.File
+import java.util.Hashtable
+
+import hre.ast.MessageOrigin
+import hre.lang.Ref
+import vct.antlr4.parser.Parsers
+import vct.col.ast._
+import vct.col.util.ASTFactory
+import vct.util.Configuration
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable.ArrayBuffer
+import scala.util.Random
+
+/**
+ * Rule sets and terms to test the matching of rewrite rules with.
+ */
+object RuleSets {
+
+  /** The rule sets in the config directory, by name. */
+  def config : Seq[(String, ProgramUnit)] = {
+    val files = new File(Configuration.getHome.toFile, "config").listFiles
+    files.filter(_.getName.endsWith(".jspec")).sortBy(_.getName).map(f =>
+      (f.getName.stripSuffix(".jspec"), parse(f))
+    )
+  }
+
+  def parse(file : File) : ProgramUnit = Parsers.getParser("jspec").parse(file)
+
+  /** Parse a rule set from text. */
+  def parse(name : String, text : String) : ProgramUnit = {
+    val file = File.createTempFile(name, ".jspec")
+    file.deleteOnExit()
+    java.nio.file.Files.write(file.toPath, text.getBytes("UTF-8"))
+    parse(file)
+  }
+
+  /** The rules of a rule set, in order, as [[RewriteSystem]] reads them. */
+  def rules(pu : ProgramUnit, sys : String) : Seq[RewriteRule] = {
+    val decls = pu.find(sys).asScala.toList
+    val vars = new java.util.HashSet[String]()
+    decls.collect { case d : DeclarationStatement => vars.add(d.name) }
+    decls.collect { case a : Axiom =>
+      val rule = a.rule.asInstanceOf[OperatorExpression]
+      new RewriteRule(a.name, vars, rule.arg(0), rule.arg(1))
+    }
+  }
+
+  /** A term and the terms below it that a matcher may look at. */
+  def subterms(n : ASTNode) : Seq[ASTNode] = n +: (n match {
+    case e : OperatorExpression => e.argsJava.asScala.flatMap(subterms)
+    case e : BindingExpression => Seq(e.select, e.main).filter(_ != null).flatMap(subterms)
+    case e : MethodInvokation => (Option(e.`object`).toSeq ++ e.getArgs).flatMap(subterms)
+    case e : Dereference => subterms(e.obj)
+    case _ => Seq()
+  })
+
+  /**
+   * Terms for a list of rules: the subterms of the rules, instances of the
+   * left-hand sides, and pseudo-random expressions.
+   */
+  def corpus(rules : Seq[RewriteRule]) : Seq[ASTNode] = {
+    val create = new ASTFactory[Object]()
+    create.setOrigin(new MessageOrigin("corpus"))
+    val random = new Random(42)
+    val res = ArrayBuffer[ASTNode]()
+    for (rule <- rules) {
+      res ++= subterms(rule.lhs) ++ subterms(rule.rhs)
+    }
+    // values of variables must not mention variables, or substitution may not end.
+    val closed = res.filter(t => !subterms(t).exists {
+      case n : NameExpression => rules.exists(_.vars.contains(n.getName))
+      case _ => false
+    })
+    val leaves = Seq[ASTNode](create.local_name("x"), create.local_name("y"),
+      create.constant(0), create.constant(1), create.constant(true)) ++ closed.take(50)
+    for (rule <- rules; _ <- 1 to 5) {
+      val bound = subterms(rule.lhs).collect { case b : BindingExpression => b.getDeclarations.map(_.name) }.flatten
+      val sigma = new Hashtable[String, Ref[ASTNode]]()
+      for (v <- rule.vars.asScala) {
+        val value = if (bound.contains(v)) {
+          create.field_decl(v + "_b", create.primitive_type(PrimitiveSort.Integer))
+        } else {
+          leaves(random.nextInt(leaves.size))
+        }
+        sigma.put(v, new Ref[ASTNode](value))
+      }
+      res += new MatchSubstitution(sigma, rule.lhs.getOrigin).rewrite(drop_conditions.rewrite(rule.lhs))
+    }
+    for (_ <- 1 to 200) {
+      res ++= subterms(bool(create, random, 4))
+    }
+    res
+  }
+
+  /** Replaces `(e!i)` by `e`, so that instances of a pattern can match it. */
+  private object drop_conditions extends AbstractRewriter(null : ProgramUnit, null : ProgramUnit) {
+    override def visit(e : OperatorExpression) : Unit = {
+      if (e.isa(StandardOperator.IndependentOf)) result = rewrite(e.arg(0))
+      else super.visit(e)
+    }
+  }
+
+  private val int_ops = Array(StandardOperator.Plus, StandardOperator.Minus, StandardOperator.Mult, StandardOperator.Div)
+
+  private val cmp_ops = Array(StandardOperator.LT, StandardOperator.LTE, StandardOperator.GT, StandardOperator.GTE, StandardOperator.EQ)
+
+  private val bool_ops = Array(StandardOperator.And, StandardOperator.Or, StandardOperator.Implies, StandardOperator.Star)
+
+  private def integer(create : ASTFactory[Object], random : Random, depth : Int) : ASTNode = {
+    if (depth == 0 || random.nextInt(4) == 0) random.nextInt(3) match {
+      case 0 => create.constant(random.nextInt(3))
+      case 1 => create.local_name("i")
+      case _ => create.local_name("n" + random.nextInt(3))
+    } else {
+      create.expression(int_ops(random.nextInt(int_ops.length)),
+        integer(create, random, depth - 1), integer(create, random, depth - 1))
+    }
+  }
+
+  private def bool(create : ASTFactory[Object], random : Random, depth : Int) : ASTNode = {
+    if (depth == 0 || random.nextInt(5) == 0) random.nextInt(3) match {
+      case 0 => create.constant(random.nextBoolean())
+      case 1 => create.local_name("b" + random.nextInt(3))
+      case _ => create.expression(cmp_ops(random.nextInt(cmp_ops.length)),
+        integer(create, random, 1), integer(create, random, 1))
+    } else if (random.nextInt(4) == 0) {
+      val guard = create.expression(StandardOperator.And,
+        create.expression(StandardOperator.LTE, create.constant(0), create.local_name("i")),
+        create.expression(StandardOperator.LT, create.local_name("i"), create.local_name("n0")))
+      create.forall(guard, bool(create, random, depth - 1),
+        create.field_decl("i", create.primitive_type(PrimitiveSort.Integer)))
+    } else {
+      create.expression(bool_ops(random.nextInt(bool_ops.length)),
+        bool(create, random, depth - 1), bool(create, random, depth - 1))
+    }
+  }
+}
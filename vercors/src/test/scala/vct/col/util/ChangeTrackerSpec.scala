@@ -0,0 +1,80 @@
+package vct.col.util
+
+import java.io.File
+
+import hre.config.Setting
+import org.scalatest._
+import vct.antlr4.parser.Parsers
+import vct.col.ast.{ASTNode, ProgramUnit, RecursiveVisitor, Type}
+import vct.col.rewrite._
+import vct.main.RewriteSystems
+import vct.util.Configuration
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable.ArrayBuffer
+
+class ChangeTrackerSpec extends FlatSpec with Matchers {
+
+  /** The types of all nodes of a program, in the order they are visited. */
+  private def types(program : ProgramUnit) : Seq[Type] = {
+    val res = ArrayBuffer[Type]()
+    program.accept(new RecursiveVisitor[AnyRef](program) {
+      override def pre_visit(n : ASTNode) : Unit = {
+        super.pre_visit(n)
+        res += n.getType
+      }
+    })
+    res
+  }
+
+  private def same(t1 : Type, t2 : Type) : Boolean =
+    (t1 == null && t2 == null) || (t1 != null && t2 != null && StructuralEquality.equalModuloOrigin(t1, t2))
+
+  private val passes : Seq[ProgramUnit => ProgramUnit] = Seq(
+    p => new Standardize(p).rewriteAll(),
+    p => new Flatten(p).rewriteAll(),
+    p => new AssignmentRewriter(p).rewriteAll(),
+    p => new Standardize(p).rewriteAll(),
+    p => new InlinePredicatesRewriter(p).rewriteAll(),
+    p => new Standardize(p).rewriteAll(),
+    p => {
+      val p1 = RewriteSystems.getRewriteSystem("simplify_quant_pass1").normalize(p)
+      val p2 = RewriteSystems.getRewriteSystem("simplify_quant_pass2").normalize(p1)
+      new RewriteSimpleNestedQuant(p2).rewriteAll()
+    },
+    p => new Standardize(p).rewriteAll()
+  )
+
+  "An incremental type check" should "assign the same types as a full type check" in {
+    val settings = Setting.snapshot()
+    try {
+      Configuration.incremental_check.set(true)
+      var skipped = 0
+      for (name <- Seq("DutchNationalFlag.pvl", "BinarySearch.pvl")) {
+        val file = new File(Configuration.getHome.toFile, "examples/arrays/" + name)
+        var program = Parsers.getParser("pvl").parse(file)
+        for ((pass, i) <- passes.zipWithIndex) {
+          val before = program
+          program = pass(program)
+          if (program ne before) ChangeTracker.track(before, program)
+          else program.clearChecked()
+          skipped += program.get.asScala.count(ChangeTracker.clean(program, _))
+          new SimpleTypeCheck(program).check()
+          val incremental = types(program)
+          program.clearChecked()
+          new SimpleTypeCheck(program).check()
+          val full = types(program)
+          withClue(s"$name, pass $i: ") {
+            incremental.size should be (full.size)
+            for ((t1, t2) <- incremental.zip(full)) {
+              withClue(s"$t1 / $t2: ") { same(t1, t2) should be (true) }
+            }
+          }
+        }
+      }
+      skipped should be > 0
+    } finally {
+      settings.restore()
+    }
+  }
+}
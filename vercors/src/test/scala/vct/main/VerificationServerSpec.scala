@@ -0,0 +1,37 @@
+package vct.main
+
+import java.io.{ByteArrayInputStream, ByteArrayOutputStream, PrintStream}
+
+import org.scalatest._
+import vct.col.util.LeafInterner
+import vct.util.Configuration
+
+class VerificationServerSpec extends FlatSpec with Matchers {
+
+  /** Runs the given job lines on a fresh server and returns its output. */
+  private def serve(server : VerificationServer, jobs : String*) : String = {
+    val out = new ByteArrayOutputStream()
+    server.serve(new ByteArrayInputStream(jobs.mkString("", "\n", "\n").getBytes), new PrintStream(out, true))
+    out.toString
+  }
+
+  "A verification server" should "restore the settings after a job" in {
+    val server = new VerificationServer()
+    Configuration.parallel_check.get should be (false)
+    val output = serve(server, "--parallel-check --intern-leaves missing.pvl")
+    output should include ("job 1 finished")
+    Configuration.parallel_check.get should be (false)
+    LeafInterner.enabled.get should be (false)
+  }
+
+  it should "not let the options of a job affect the next job" in {
+    val server = new VerificationServer()
+    val output = serve(server,
+      "--parallel-check --passes=standardize missing.pvl",
+      "missing.pvl")
+    output should include ("job 1 finished")
+    // without --passes, the second job must complain about its missing back-end.
+    output.split("job 1 finished")(1) should include ("no back-end or passes specified")
+    Configuration.parallel_check.get should be (false)
+  }
+}
@@ -0,0 +1,77 @@
+package vct.silver
+
+import hre.ast.MessageOrigin
+import org.scalatest._
+import vct.col.ast._
+import vct.col.util.ASTFactory
+
+import scala.collection.JavaConverters._
+
+class MethodSplitterSpec extends FlatSpec with Matchers {
+
+  private val create = new ASTFactory[Object]()
+  create.setOrigin(new MessageOrigin("test"))
+
+  private def int = create.primitive_type(PrimitiveSort.Integer)
+
+  private def call(name : String) = create.invokation(null, null, name, create.local_name("x"))
+
+  private def predicate(name : String, body : ASTNode) =
+    create.predicate(name, body, create.field_decl("x", int))
+
+  private def method(name : String, requires : Seq[ASTNode], body : ASTNode*) : Method = {
+    val cb = new ContractBuilder()
+    requires.foreach(cb.requires(_))
+    create.method_decl(create.primitive_type(PrimitiveSort.Void), cb.getContract(), name,
+      Array(create.field_decl("x", int)), create.block(body : _*))
+  }
+
+  /** A program with predicates that are opened in different ways. */
+  private def program : ProgramUnit = {
+    val res = new ProgramUnit()
+    res.add(create.function_decl(create.primitive_type(PrimitiveSort.Boolean), null, "f",
+      Array(create.field_decl("x", int)), create.constant(true)))
+    res.add(predicate("inner", create.constant(true)))
+    res.add(predicate("closed", call("f")))
+    res.add(predicate("unfolded", call("inner")))
+    res.add(predicate("in_function", create.constant(true)))
+    res.add(create.function_decl(create.primitive_type(PrimitiveSort.Boolean), null, "g",
+      Array(create.field_decl("x", int)),
+      create.expression(StandardOperator.Unfolding, call("in_function"), create.constant(true))))
+    res.add(method("m", Seq(call("closed"), call("unfolded"), call("g")),
+      create.special(ASTSpecial.Kind.Unfold, call("unfolded"))))
+    res
+  }
+
+  private def decls(unit : ProgramUnit) : Map[String, Method] =
+    unit.get.asScala.collect { case m : Method => m.name -> m }.toMap
+
+  "A method unit" should "keep the bodies of the predicates that it opens" in {
+    val splitter = new MethodSplitter(program)
+    val unit = decls(splitter.unit(splitter.methods.get(0)))
+    unit("unfolded").getBody should not be (null)
+    unit("in_function").getBody should not be (null)
+  }
+
+  it should "include the other predicates without body" in {
+    val splitter = new MethodSplitter(program)
+    val unit = decls(splitter.unit(splitter.methods.get(0)))
+    unit("closed").getBody should be (null)
+    unit("closed").kind should be (Method.Kind.Predicate)
+    unit("inner").getBody should be (null)
+  }
+
+  it should "leave out what only the removed bodies refer to" in {
+    val splitter = new MethodSplitter(program)
+    val unit = decls(splitter.unit(splitter.methods.get(0)))
+    unit.contains("f") should be (false)
+    unit.contains("g") should be (true)
+  }
+
+  "The unit of the members" should "keep all predicate bodies" in {
+    val members = decls(new MethodSplitter(program).members())
+    for (name <- Seq("inner", "closed", "unfolded", "in_function")) {
+      members(name).getBody should not be (null)
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package vct.silver
+
+import java.io.File
+import java.nio.file.Files
+
+import hre.config.Setting
+import org.scalatest._
+
+class VerificationCacheSpec extends FlatSpec with Matchers {
+
+  /** Runs `body` on a cache in a fresh directory with the given size. */
+  private def withCache(size : Int)(body : (VerificationCache, File) => Unit) : Unit = {
+    val settings = Setting.snapshot()
+    val dir = Files.createTempDirectory("cache").toFile
+    try {
+      VerificationCache.cache_dir.set(dir.toString)
+      VerificationCache.cache_size.set(size)
+      body(VerificationCache.get(), dir)
+    } finally {
+      settings.restore()
+      dir.listFiles.foreach(_.delete())
+      dir.delete()
+    }
+  }
+
+  "A verification cache" should "find the entries that passed" in {
+    withCache(10) { (cache, dir) =>
+      val key = VerificationCache.key("backend", "program")
+      cache.passed(key) should be (false)
+      cache.pass(key, "m")
+      cache.passed(key) should be (true)
+      cache.passed(VerificationCache.key("backend", "other program")) should be (false)
+    }
+  }
+
+  it should "stay within its size and keep the most recent entries" in {
+    withCache(10) { (cache, dir) =>
+      val keys = (1 to 25).map(i => VerificationCache.key("backend", "program " + i))
+      for ((key, i) <- keys.zipWithIndex) {
+        cache.pass(key, "m" + i)
+        // make the order of use visible in the modification times.
+        new File(dir, key).setLastModified(1000000000000L + i * 1000L)
+      }
+      dir.list.length should be <= 10
+      cache.passed(keys.last) should be (true)
+      cache.passed(keys.head) should be (false)
+    }
+  }
+
+  it should "not count an entry that is written twice" in {
+    withCache(2) { (cache, dir) =>
+      val key = VerificationCache.key("backend", "program")
+      cache.pass(key, "m")
+      cache.pass(key, "m")
+      cache.pass(VerificationCache.key("backend", "other program"), "n")
+      dir.list.length should be (2)
+    }
+  }
+}
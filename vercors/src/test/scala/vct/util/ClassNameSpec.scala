@@ -0,0 +1,21 @@
+package vct.util
+
+import org.scalatest._
+
+class ClassNameSpec extends FlatSpec with Matchers {
+
+  "A class name" should "have one canonical object once it is interned" in {
+    val name = ClassName.intern("ClassNameSpec", "interned")
+    ClassName.intern("ClassNameSpec", "interned") should be theSameInstanceAs (name)
+    ClassName.lookup("ClassNameSpec", "interned") should be theSameInstanceAs (name)
+    ClassName.lookup(Array("ClassNameSpec", "interned", "member"), 2) should be theSameInstanceAs (name)
+  }
+
+  it should "not be interned by a lookup" in {
+    val first = ClassName.lookup("ClassNameSpec", "looked-up")
+    val second = ClassName.lookup("ClassNameSpec", "looked-up")
+    first should be (second)
+    first should not be theSameInstanceAs (second)
+    ClassName.intern("ClassNameSpec", "looked-up") should not be theSameInstanceAs (first)
+  }
+}